@@ -0,0 +1,46 @@
+package benchmark;
+
+import game.Player;
+import model.Position;
+
+/**
+ * A benchmark of an operation of the engine that is performed on a
+ * {@link Position}. A {@link BenchmarkRunner} performs the operation as often
+ * as possible for a fixed time.
+ * @author Richard Pohl*/
+public abstract class Benchmark {
+
+	/** The name of the benchmark, which identifies it in the results. */
+	private final String name;
+
+	/**
+	 * Constructs a {@link Benchmark}.
+	 * @param name - see {@link Benchmark#getName()}.
+	 * */
+	protected Benchmark(String name) {
+		this.name = name;
+	}
+
+	/** @return The name of the benchmark, which identifies it in the
+	 * results. */
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * Prepares the operations on a position. This is not measured.
+	 * @param position - the {@link Position} to perform the operations on.
+	 * @param player - the {@link Player} at move in position.
+	 * */
+	public void setUp(Position position, Player player) {
+	}
+
+	/**
+	 * Performs the operation once.
+	 * @param position - the {@link Position} to perform the operation on.
+	 * @param player - the {@link Player} at move in position.
+	 * @return A value computed from the result of the operation, which keeps
+	 * the virtual machine from removing the operation.
+	 * */
+	public abstract long run(Position position, Player player);
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import game.Player;
+import io.GameState;
+import io.GameStateParser;
+
+import java.io.ByteArrayInputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The fixed set of middlegame and endgame positions the benchmarks are run
+ * on, in the format read by {@link GameStateParser}.
+ * @author Richard Pohl*/
+public final class BenchmarkPositions {
+
+	/** A middlegame position with castling, en passant and pins. */
+	public static final String MIDDLEGAME_TACTICAL =
+		"- figure locations\n" +
+		"8  bR          bK       bR \n" +
+		"7  bP    bP bP bQ bP bB    \n" +
+		"6  bB bN       bP bN bP    \n" +
+		"5           wP wN          \n" +
+		"4     bP       wP          \n" +
+		"3        wN       wQ    bP \n" +
+		"2  wP wP wP wB wB wP wP wP \n" +
+		"1  wR          wK       wR \n" +
+		"- castling\n" +
+		"15\n" +
+		"- player\n" +
+		"white";
+
+	/** A quiet middlegame position of a queen's gambit. */
+	public static final String MIDDLEGAME_QUIET =
+		"- figure locations\n" +
+		"8  bR    bB bQ    bR bK    \n" +
+		"7  bP bP       bB bP bP bP \n" +
+		"6        bN    bP bN       \n" +
+		"5           bP             \n" +
+		"4        wP wP             \n" +
+		"3        wN    wP wN       \n" +
+		"2  wP wP          wP wP wP \n" +
+		"1  wR       wQ wK wB    wR \n" +
+		"- castling\n" +
+		"3\n" +
+		"- player\n" +
+		"white";
+
+	/** A pawn endgame with rooks and en passant captures. */
+	public static final String ENDGAME_PAWNS =
+		"- figure locations\n" +
+		"8                          \n" +
+		"7        bP                \n" +
+		"6           bP             \n" +
+		"5  wK wP                bR \n" +
+		"4     wR          bP    bK \n" +
+		"3                          \n" +
+		"2              wP    wP    \n" +
+		"1                          \n" +
+		"- castling\n" +
+		"0\n" +
+		"- player\n" +
+		"white";
+
+	/** A rook endgame. */
+	public static final String ENDGAME_ROOKS =
+		"- figure locations\n" +
+		"8                          \n" +
+		"7                 bP bK    \n" +
+		"6                    bP    \n" +
+		"5                          \n" +
+		"4           wR             \n" +
+		"3                    wP    \n" +
+		"2                 wP wK    \n" +
+		"1           bR             \n" +
+		"- castling\n" +
+		"0\n" +
+		"- player\n" +
+		"white";
+
+	private BenchmarkPositions() {}
+
+	/** @return The benchmark positions by their names, in a fixed order. */
+	public static Map<String, GameState> getPositions() {
+		Map<String, GameState> positions
+			= new LinkedHashMap<String, GameState>();
+		positions.put("middlegame-tactical", parse(MIDDLEGAME_TACTICAL));
+		positions.put("middlegame-quiet", parse(MIDDLEGAME_QUIET));
+		positions.put("endgame-pawns", parse(ENDGAME_PAWNS));
+		positions.put("endgame-rooks", parse(ENDGAME_ROOKS));
+		return positions;
+	}
+
+	private static GameState parse(String positionString) {
+		GameState gameState = new GameStateParser(
+				new ByteArrayInputStream(positionString.getBytes())).parse();
+		if (gameState.getActivePlayer() == null)
+			return new GameState(gameState.getCurrentPosition(), Player.WHITE);
+		return gameState;
+	}
+}
@@ -0,0 +1,150 @@
+package benchmark;
+
+import game.Player;
+import io.GameState;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+
+import model.Position;
+
+/**
+ * Runs {@link Benchmark} instances on the benchmark positions and writes the
+ * results as comma-separated values, one line for each benchmark and
+ * position:
+ * <br>
+ * <code>benchmark,position,operations,ops_per_second,bytes_per_op</code>
+ * <br>
+ * Each benchmark is run for a number of warm-up iterations, which give the
+ * virtual machine time to compile the code, and then for a number of
+ * measured iterations. The allocated bytes are only measured on virtual
+ * machines that support it, otherwise they are -1.
+ * <br>
+ * The debug output the engine writes to the standard output while the
+ * benchmarks run is discarded, so that it neither takes part in the
+ * measurements nor mixes with the results.
+ * @author Richard Pohl*/
+public class BenchmarkRunner {
+
+	/** The header line of the results. */
+	public static final String HEADER
+		= "benchmark,position,operations,ops_per_second,bytes_per_op";
+
+	/** The number of iterations that are not measured. */
+	private final int warmUpIterations;
+	/** The number of measured iterations. */
+	private final int iterations;
+	/** The time of each iteration in milliseconds. */
+	private final long iterationTime;
+	/** Keeps the results of the operations, so that they are computed. */
+	private volatile long sink;
+
+	/**
+	 * Constructs a {@link BenchmarkRunner}.
+	 * @param warmUpIterations - the number of iterations that are not
+	 * measured.
+	 * @param iterations - the number of measured iterations.
+	 * @param iterationTime - the time of each iteration in milliseconds.
+	 * */
+	public BenchmarkRunner(int warmUpIterations, int iterations,
+			long iterationTime)
+	{
+		this.warmUpIterations = warmUpIterations;
+		this.iterations = iterations;
+		this.iterationTime = iterationTime;
+	}
+
+	/**
+	 * Runs the benchmarks on all benchmark positions.
+	 * @param benchmarks - the benchmarks to run.
+	 * @param positions - the positions by their names.
+	 * @param out - the stream to write the results to.
+	 * */
+	public void run(List<Benchmark> benchmarks,
+			Map<String, GameState> positions, PrintStream out)
+	{
+		PrintStream standardOutput = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {}
+
+			@Override
+			public void write(byte[] b, int offset, int length) {}
+		}));
+		try {
+			runBenchmarks(benchmarks, positions, out);
+		} finally {
+			System.setOut(standardOutput);
+		}
+	}
+
+	/** Runs the benchmarks while the debug output is discarded, see
+	 * {@link BenchmarkRunner#run(List, Map, PrintStream)}. */
+	private void runBenchmarks(List<Benchmark> benchmarks,
+			Map<String, GameState> positions, PrintStream out)
+	{
+		out.println(HEADER);
+		for (Benchmark benchmark: benchmarks)
+			for (Map.Entry<String, GameState> entry: positions.entrySet())
+			{
+				Position position = entry.getValue().getCurrentPosition();
+				Player player = entry.getValue().getActivePlayer();
+				benchmark.setUp(position, player);
+				for (int i = 0; i < warmUpIterations; i++)
+					iterate(benchmark, position, player);
+				long operations = 0, time = 0;
+				long allocatedBytes = getAllocatedBytes();
+				for (int i = 0; i < iterations; i++)
+				{
+					long start = System.nanoTime();
+					operations += iterate(benchmark, position, player);
+					time += System.nanoTime() - start;
+				}
+				if (allocatedBytes >= 0)
+					allocatedBytes
+						= (getAllocatedBytes() - allocatedBytes) / operations;
+				out.println(benchmark.getName() + "," + entry.getKey() + ","
+						+ operations + ","
+						+ (long) (operations * 1e9 / Math.max(1, time)) + ","
+						+ allocatedBytes);
+			}
+	}
+
+	/** Performs the operation of benchmark for one iteration.
+	 * @return The number of operations performed. */
+	private long iterate(Benchmark benchmark, Position position,
+			Player player)
+	{
+		long end = System.nanoTime() + iterationTime * 1000000L;
+		long operations = 0;
+		long result = 0;
+		do
+		{
+			result += benchmark.run(position, player);
+			operations++;
+		}
+		while (System.nanoTime() < end);
+		sink += result;
+		return operations;
+	}
+
+	/** @return The bytes allocated by the current thread so far, -1 if this
+	 * is not supported by the virtual machine. */
+	private static long getAllocatedBytes() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (threadBean instanceof com.sun.management.ThreadMXBean)
+		{
+			com.sun.management.ThreadMXBean sunThreadBean
+				= (com.sun.management.ThreadMXBean) threadBean;
+			if (sunThreadBean.isThreadAllocatedMemorySupported()
+					&& sunThreadBean.isThreadAllocatedMemoryEnabled())
+				return sunThreadBean.getThreadAllocatedBytes(
+						Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,152 @@
+package benchmark;
+
+import game.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.ChessLocation;
+import model.Figure;
+import model.Position;
+import model.PositionTree;
+import model.SearchBoard;
+
+/**
+ * The benchmarks of the operations that take most of the time of the
+ * engine.
+ * @author Richard Pohl*/
+public final class EngineBenchmarks {
+
+	// the depth of the position trees that are built
+	private static final int POSITION_TREE_DEPTH = 3;
+
+	private EngineBenchmarks() {}
+
+	/** @return All engine benchmarks. */
+	public static List<Benchmark> getBenchmarks() {
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		benchmarks.add(new FigureBenchmark("Position.new") {
+			@Override
+			public long run(Position position, Player player) {
+				return new Position(position, figure, target).hashCode();
+			}
+		});
+		benchmarks.add(new FigureBenchmark("Position.getFigureLocation") {
+			@Override
+			public long run(Position position, Player player) {
+				return position.getFigureLocation(figure).x;
+			}
+		});
+		benchmarks.add(new FigureBenchmark("Position.equals") {
+			@Override
+			public long run(Position position, Player player) {
+				return position.equals(next)? 1: 0;
+			}
+		});
+		benchmarks.add(new Benchmark("Position.hashCode") {
+			@Override
+			public long run(Position position, Player player) {
+				return position.hashCode();
+			}
+		});
+		benchmarks.add(new Benchmark("Player.getFigures") {
+			@Override
+			public long run(Position position, Player player) {
+				return player.getFigures(position).size();
+			}
+		});
+		benchmarks.add(new Benchmark("Player.chess") {
+			@Override
+			public long run(Position position, Player player) {
+				return player.chess(position)? 1: 0;
+			}
+		});
+		benchmarks.add(new Benchmark("Player.computePlies") {
+			@Override
+			public long run(Position position, Player player) {
+				return player.computePlies(position)[0].hashCode();
+			}
+		});
+		benchmarks.add(new BoardBenchmark("SearchBoard.generateMoves") {
+			@Override
+			public long run(Position position, Player player) {
+				return board.generateMoves(moves);
+			}
+		});
+		benchmarks.add(new BoardBenchmark("SearchBoard.makeMove") {
+			@Override
+			public long run(Position position, Player player) {
+				int count = board.generateMoves(moves);
+				for (int i = 0; i < count; i++)
+				{
+					board.makeMove(moves[i]);
+					board.unmakeMove();
+				}
+				return board.getHash();
+			}
+		});
+		benchmarks.add(new Benchmark("Position.evaluate") {
+			@Override
+			public long run(Position position, Player player) {
+				return position.evaluate(player);
+			}
+		});
+		benchmarks.add(new Benchmark("PositionTree.new") {
+			@Override
+			public long run(Position position, Player player) {
+				long size = 0;
+				for (Figure figure: player.getFigures(position))
+					size += new PositionTree(player, position, figure,
+							POSITION_TREE_DEPTH).size();
+				return size;
+			}
+		});
+		return benchmarks;
+	}
+
+	/** A benchmark of the moves of a {@link SearchBoard}. */
+	private abstract static class BoardBenchmark extends Benchmark {
+
+		/** The board of the position. */
+		protected SearchBoard board;
+		/** The buffer that receives the generated moves. */
+		protected final int[] moves = new int[SearchBoard.MAX_MOVES];
+
+		BoardBenchmark(String name) {
+			super(name);
+		}
+
+		@Override
+		public void setUp(Position position, Player player) {
+			board = new SearchBoard(position, player);
+		}
+	}
+
+	/** A benchmark that moves the first figure of the player with a ply. */
+	private abstract static class FigureBenchmark extends Benchmark {
+
+		/** The figure to move. */
+		protected Figure figure;
+		/** The location the figure is moved to. */
+		protected ChessLocation target;
+		/** The position after the figure was moved. */
+		protected Position next;
+
+		FigureBenchmark(String name) {
+			super(name);
+		}
+
+		@Override
+		public void setUp(Position position, Player player) {
+			next = player.computePlies(position)[0];
+			for (Figure figure: player.getFigures(position))
+				if (next.getFigureLocation(figure) != null
+						&& !next.getFigureLocation(figure).equals(
+							position.getFigureLocation(figure)))
+				{
+					this.figure = figure;
+					target = next.getFigureLocation(figure);
+				}
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package main;
+
+import benchmark.Benchmark;
+import benchmark.BenchmarkPositions;
+import benchmark.BenchmarkRunner;
+import benchmark.EngineBenchmarks;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point that runs the engine benchmarks.
+ * <br>
+ * Usage: <code>BenchmarkApplication [file] [filter]</code>, where the
+ * results are written to file (benchmark.csv, if it is not given, and the
+ * standard output, if it is "-") and only the benchmarks whose name contains
+ * filter are run. The debug output of the engine is discarded while the
+ * benchmarks run (see {@link BenchmarkRunner}).
+ * <br>
+ * The number of iterations and their time can be set with the system
+ * properties <code>benchmark.warmUpIterations</code>,
+ * <code>benchmark.iterations</code> and <code>benchmark.iterationTime</code>
+ * (in milliseconds).
+ * @author Richard Pohl*/
+public final class BenchmarkApplication {
+
+	// the file the results are written to by default
+	private static final String DEFAULT_FILE = "benchmark.csv";
+	
+	private BenchmarkApplication() {}
+
+	public static void main(String [] args) throws FileNotFoundException
+	{
+		PrintStream out = System.out;
+		if (args.length == 0)
+			out = new PrintStream(new FileOutputStream(DEFAULT_FILE));
+		else if (!args[0].equals("-"))
+			out = new PrintStream(new FileOutputStream(args[0]));
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+		for (Benchmark benchmark: EngineBenchmarks.getBenchmarks())
+			if (args.length < 2 || benchmark.getName().contains(args[1]))
+				benchmarks.add(benchmark);
+		new BenchmarkRunner(Integer.getInteger("benchmark.warmUpIterations", 3),
+				Integer.getInteger("benchmark.iterations", 5),
+				Long.getLong("benchmark.iterationTime", 1000))
+			.run(benchmarks, BenchmarkPositions.getPositions(), out);
+		if (out != System.out)
+			out.close();
+	}
+}
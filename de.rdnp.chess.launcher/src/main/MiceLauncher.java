@@ -12,6 +12,10 @@ import java.io.IOException;
  * @author Richard Pohl
  * */
 public class MiceLauncher {	
+	/** The share of the memory that is used for the transposition table of
+	 * micec (1/n). */
+	private static final int TRANSPOSITION_TABLE_SHARE = 4;
+	
 	public static void main(String[] args)
 	{
 		File setupFile = new File("setup.dat");
@@ -46,7 +50,9 @@ public class MiceLauncher {
 			try {
 				Runtime.getRuntime().exec(
 					"java -Xmx"+setupFileParser.getMemory()+"M -jar micec.jar "
-					+setupFileParser.getNbCores());
+					+setupFileParser.getNbCores()+" "
+					+Math.max(1, setupFileParser.getMemory() 
+						/ TRANSPOSITION_TABLE_SHARE));
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -0,0 +1,134 @@
+package game;
+
+import model.AlphaBetaSearch;
+import model.Move;
+import model.Position;
+import model.PositionComputationResult;
+
+/**
+ * Analyzes a single position with an {@link AlphaBetaSearch}, which is
+ * deepened iteratively up to a depth or until a time budget is used up, like
+ * the turns of an {@link Automaton} with a {@link TimeControl}. In contrast
+ * to an Automaton, an Analysis does not need a {@link Game} and searches in
+ * the calling thread, so that several positions can be analyzed in parallel,
+ * e.g. by the threads of {@link Automaton#getExecutor()}. The analyses share
+ * the tables of the Automaton instances (see
+ * {@link Automaton#getTranspositionTable()}).
+ * @author Richard Pohl*/
+public class Analysis {
+
+	/** The depth an Analysis deepens to at most (like an {@link Automaton}
+	 * with a {@link TimeControl}), which keeps the depths within the range
+	 * of the {@link model.TranspositionTable}. */
+	public static final int MAXIMUM_DEPTH = 64;
+
+	/** The {@link Player} at move in the start position. */
+	private final Player player;
+	/** The {@link Position} to analyze. */
+	private final Position start;
+
+	/** The depth of the last completed iteration, 0 if there is none. */
+	private int depth;
+	/** The evaluation of the last completed iteration, Integer.MIN_VALUE if
+	 * there is no legal ply. */
+	private int evaluation = Integer.MIN_VALUE;
+	/** The principal variation of the last completed iteration. */
+	private int[] principalVariation = new int[0];
+	/** The number of positions visited by all iterations. */
+	private long nodeCount;
+	/** The time of the analysis in milliseconds. */
+	private long time;
+
+	/**
+	 * Constructs an {@link Analysis}.
+	 * @param start - the {@link Position} to analyze.
+	 * @param player - the {@link Player} at move in start.
+	 * */
+	public Analysis(Position start, Player player) {
+		this.start = start;
+		this.player = player;
+	}
+
+	/**
+	 * Analyzes the start position. The first iteration is always completed,
+	 * further iterations are only started, if at most half of the time is
+	 * used up (each iteration takes longer than all previous iterations),
+	 * and aborted at the end of the time.
+	 * @param maximumDepth - the number of plies of the last iteration (at
+	 * most {@link Analysis#MAXIMUM_DEPTH}).
+	 * @param time - the time budget in milliseconds, Long.MAX_VALUE if the
+	 * analysis is only limited by maximumDepth.
+	 * */
+	public void analyze(int maximumDepth, long time) {
+		long start = System.currentTimeMillis();
+		nodeCount = 0;
+		maximumDepth = Math.min(maximumDepth, MAXIMUM_DEPTH);
+		long deadline = time < Long.MAX_VALUE - start? start + time:
+			Long.MAX_VALUE;
+		for (int iteration = 1; iteration <= maximumDepth; iteration++)
+		{
+			if (iteration > 1 && System.currentTimeMillis() - start > time / 2)
+				break;
+			AlphaBetaSearch search = new AlphaBetaSearch(player, this.start,
+					iteration, Automaton.getTranspositionTable());
+			if (iteration > 1)
+				search.setDeadline(deadline);
+			search.setQuiescence(true);
+			search.setPawnHashTable(Automaton.getPawnHashTable());
+			search.setNullMovePruning(true);
+			search.setLateMoveReductions(true);
+			search.setExpectedEvaluation(evaluation);
+			PositionComputationResult result = search.search();
+			nodeCount += search.getNodeCount();
+			if (search.isAborted())
+				break;
+			depth = iteration;
+			evaluation = result.getMaximumAdvantageN();
+			principalVariation = result.getPrincipalVariation();
+			// without a legal ply, deeper iterations do not change anything
+			if (evaluation == Integer.MIN_VALUE)
+				break;
+		}
+		this.time = System.currentTimeMillis() - start;
+	}
+
+	/** @return The {@link Player} at move in the analyzed position. */
+	public Player getPlayer() {
+		return player;
+	}
+
+	/** @return The depth of the last completed iteration. */
+	public int getDepth() {
+		return depth;
+	}
+
+	/** @return The advantage of the {@link Player} at move (in centipawns)
+	 * found by the last completed iteration, Integer.MIN_VALUE if there is
+	 * no legal ply. */
+	public int getEvaluation() {
+		return evaluation;
+	}
+
+	/** @return The best ply found by the last completed iteration, encoded by
+	 * {@link Move}. {@link Move#NONE}, if there is no legal ply. */
+	public int getBestMove() {
+		return principalVariation.length > 0? principalVariation[0]:
+			Move.NONE;
+	}
+
+	/** @return The plies the last completed iteration expects to follow,
+	 * encoded by {@link Move}. */
+	public int[] getPrincipalVariation() {
+		return principalVariation;
+	}
+
+	/** @return The number of positions visited by all iterations. */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/** @return The time of the analysis in milliseconds. */
+	public long getTime() {
+		return time;
+	}
+}
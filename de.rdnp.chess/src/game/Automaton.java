@@ -1,19 +1,34 @@
 package game;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import main.ChessApplication;
+import model.AlphaBetaSearch;
 import model.Figure;
 import model.King;
+import model.Move;
+import model.MappedTranspositionTable;
+import model.ParallelSearch;
+import model.PawnHashTable;
 import model.Pawn;
 import model.Position;
 import model.PositionComputationResult;
 import model.PositionComputer;
+import model.PositionTree;
+import model.SearchBoard;
+import model.TranspositionTable;
 
 /**
  * An {@link Automaton} is the {@link PlayerState} of a {@link Player}, in which
@@ -21,17 +36,113 @@ import model.PositionComputer;
  * @author Richard Pohl*/
 public class Automaton extends PlayerState {
 
+	/** Constant for the engine that builds a complete {@link PositionTree}
+	 * for each figure. */
+	public static final int POSITION_TREE_ENGINE = 0;
+	/** Constant for the engine that searches all plies with a 
+	 * {@link ParallelSearch} (an {@link AlphaBetaSearch} on each thread).
+	 * The positions at the depth are searched further with a quiescence
+	 * search (see {@link AlphaBetaSearch#setQuiescence(boolean)}). Unless
+	 * disabled by {@link Automaton#setPruning(boolean)}, the search uses
+	 * null-move pruning and late-move reductions. */
+	public static final int ALPHA_BETA_ENGINE = 1;
+	
 	// default value for computation quality
 	private static final int DEFAULT_QUALITY = 4;
 	
+	// the quality an Automaton with a time budget deepens to at most
+	private static final int MAXIMUM_QUALITY = 64;
+	
+	/** The engine used to compute the plies, one of the engine constants
+	 * defined in {@link Automaton}. */
+	private int engine = ALPHA_BETA_ENGINE;
+	
 	/** The quality of the ply computation - higher quality means better plies
 	 * can be computed at the price of higher computation times. */
 	private int quality = DEFAULT_QUALITY;
 	
-	/** A {@link Semaphore} to control the number of {@link PositionComputer}
-	 * instances that are active at a time. This is introduced to optimize the
-	 * performance in environments with less than 16 CPUs. */
-	private Semaphore positionComputerSemaphore;
+	/** true, iff the {@link Automaton#ALPHA_BETA_ENGINE} uses null-move
+	 * pruning and late-move reductions. */
+	private boolean pruning = true;
+	
+	/** true, iff the Automaton resigns, if no reasonable ply can be found. */
+	private boolean resigning = true;
+	
+	/** The {@link SearchListener} that is informed about each completed
+	 * iteration of the {@link Automaton#ALPHA_BETA_ENGINE}, null if there
+	 * is none. */
+	private SearchListener searchListener;
+	
+	/** The {@link TranspositionTable} shared by all search threads.
+	 * It is kept across turns (and shared by the Automaton instances of both
+	 * players) and created with the first turn. */
+	private static TranspositionTable transpositionTable;
+	
+	/** The {@link PawnHashTable} shared by all search threads. Like the
+	 * {@link Automaton#transpositionTable}, it is kept across turns and
+	 * created with the first turn. */
+	private static PawnHashTable pawnHashTable;
+	
+	/** The {@link TimeControl} that limits the time of each turn, null if
+	 * the plies are computed with the fixed {@link Automaton#quality}. */
+	private TimeControl timeControl;
+	
+	/** The time (in milliseconds) at which the current search iteration must
+	 * be finished, Long.MAX_VALUE if there is no such limit. */
+	private volatile long deadline = Long.MAX_VALUE;
+	
+	/** true, iff the current turn was stopped by {@link Automaton#stop()}. */
+	private volatile boolean stopped;
+	
+	/** true, iff the current search iteration can be stopped, i.e. it is not
+	 * the first iteration of {@link Automaton#deepen(Position, long, int)}. */
+	private volatile boolean stoppable;
+	
+	/** The search of the current iteration, null if there is none. */
+	private volatile ParallelSearch search;
+	
+	/** The maximum advantage found by the last call of 
+	 * {@link Automaton#computeBestPlies(Position, int)}. */
+	private int maximumTotalAdvantageN;
+	
+	/** The advantage the next call of
+	 * {@link Automaton#computeBestPlies(Position, int)} is expected to
+	 * result in (the advantage of the previous iteration of
+	 * {@link Automaton#deepen(Position, long, int)} or of the last turn),
+	 * Integer.MIN_VALUE if it is unknown. The {@link AlphaBetaSearch}
+	 * searches with an aspiration window around it. */
+	private int expectedAdvantageN = Integer.MIN_VALUE;
+	
+	/** The principal variations of the best plies found by the last call of
+	 * {@link Automaton#computeBestPlies(Position, int)}, by the positions
+	 * after the plies. Empty, if they were not computed. */
+	private Map<Position, int[]> principalVariations
+		= new HashMap<Position, int[]>();
+	
+	/** The depth of the last completed call of 
+	 * {@link Automaton#computeBestPlies(Position, int)}. */
+	private int searchedDepth;
+	
+	/** The position the principal variation of the last turn expects after
+	 * the reply of the opponent, null if there is none. Its plies are
+	 * already searched (with two plies less than the last turn) and the
+	 * results are kept in the {@link Automaton#transpositionTable}, so a
+	 * search of this position can continue at this depth. */
+	private Position expectedPosition;
+	
+	/** The number of plies after {@link Automaton#expectedPosition} the last
+	 * turn searched. */
+	private int expectedDepth;
+	
+	/** The advantage the last turn expected in
+	 * {@link Automaton#expectedPosition}. */
+	private int expectedPositionAdvantageN;
+	
+	/** The executor that runs the search threads. It is kept across turns
+	 * (and shared by the Automaton instances of both players), so that its
+	 * threads are started only once. Its number of threads is 
+	 * {@link Automaton#getThreadNumber()}. */
+	private static ExecutorService executor;
 	
 	/** 
 	 * Constructs an {@link Automaton} for a {@link Player}
@@ -48,26 +159,221 @@ public class Automaton extends PlayerState {
 		this.quality = quality;
 	}
 	
+	/** 
+	 * Constructs an {@link Automaton} for a {@link Player} that uses a
+	 * particular engine (see {@link Automaton#Automaton(Player, int)}).
+	 * @param player - the {@link Player} for which plies should be computed.
+	 * @param quality - the quality of the ply computation.
+	 * @param engine - one of the engine constants defined in 
+	 * {@link Automaton}.
+	 * */
+	public Automaton(Player player, int quality, int engine) {
+		this(player, quality);
+		this.engine = engine;
+	}
+	
+	/** 
+	 * Constructs an {@link Automaton} for a {@link Player} that deepens its
+	 * search until the time budget of a turn is used up. The plies are
+	 * computed with an {@link AlphaBetaSearch}.
+	 * @param player - the {@link Player} for which plies should be computed.
+	 * @param timeControl - the {@link TimeControl} that gives the time budget
+	 * of each turn.
+	 * */
+	public Automaton(Player player, TimeControl timeControl) {
+		this(player, MAXIMUM_QUALITY, timeControl);
+	}
+	
+	/** 
+	 * Constructs an {@link Automaton} for a {@link Player} that deepens its
+	 * search until a quality is reached or the time budget of a turn is used
+	 * up (see {@link Automaton#Automaton(Player, TimeControl)}).
+	 * @param player - the {@link Player} for which plies should be computed.
+	 * @param quality - the maximum quality of the ply computation (at most
+	 * 64).
+	 * @param timeControl - the {@link TimeControl} that gives the time budget
+	 * of each turn.
+	 * */
+	public Automaton(Player player, int quality, TimeControl timeControl) {
+		this(player, Math.min(quality, MAXIMUM_QUALITY), ALPHA_BETA_ENGINE);
+		this.timeControl = timeControl;
+	}
+	
 	/** The Player this {@link Automaton} computes plies for. */
 	public Player getPlayer() {
 		return player;
 	}
 	
-	/** @return {@link Automaton#positionComputerSemaphore} */
-	public Semaphore getPositionComputerSemaphore() {
-		return positionComputerSemaphore;
+	/** @return {@link Automaton#engine} */
+	public int getEngine() {
+		return engine;
+	}
+	
+	/** Sets {@link Automaton#pruning}. */
+	public void setPruning(boolean pruning) {
+		this.pruning = pruning;
+	}
+	
+	/** Sets {@link Automaton#resigning}. */
+	public void setResigning(boolean resigning) {
+		this.resigning = resigning;
+	}
+	
+	/** Sets {@link Automaton#searchListener}. */
+	public void setSearchListener(SearchListener searchListener) {
+		this.searchListener = searchListener;
+	}
+	
+	/** Stops the current turn of an {@link Automaton} with a
+	 * {@link TimeControl}: the running search iteration is aborted and the
+	 * best ply of the last completed iteration is performed. The first
+	 * iteration is always completed (at one ply level, if the continued
+	 * search of an expected position is stopped). This may be called by any
+	 * thread. */
+	public void stop() {
+		stopped = true;
+		ParallelSearch currentSearch = search;
+		if (stoppable && currentSearch != null)
+			currentSearch.stop();
+	}
+	
+	/** @return {@link Automaton#transpositionTable}, which is created on the
+	 * first call. Its size is given by 
+	 * {@link ChessApplication#getTranspositionTableSize()}, its memory by
+	 * {@link ChessApplication#getTranspositionTableFile()}. */
+	public static synchronized TranspositionTable getTranspositionTable() {
+		if (transpositionTable == null)
+		{
+			int size = ChessApplication.getInstance()
+				.getTranspositionTableSize();
+			String file = ChessApplication.getInstance()
+				.getTranspositionTableFile();
+			if (file == null)
+				transpositionTable = new TranspositionTable(size);
+			else if (file.length() == 0)
+				transpositionTable = new MappedTranspositionTable(size);
+			else
+			{
+				try {
+					transpositionTable = new MappedTranspositionTable(size,
+							new File(file));
+				} catch (IOException e) {
+					// keep the table on the heap instead
+					e.printStackTrace();
+					transpositionTable = new TranspositionTable(size);
+				}
+			}
+		}
+		return transpositionTable;
+	}
+	
+	/** Discards the tables and the executor that are shared by the Automaton
+	 * instances, so that they are created again with the settings of the
+	 * {@link ChessApplication}, e.g. after these settings changed. Must not
+	 * be called during a turn. */
+	public static synchronized void reset() {
+		if (executor != null)
+			executor.shutdown();
+		executor = null;
+		transpositionTable = null;
+		pawnHashTable = null;
+	}
+	
+	/** @return {@link Automaton#pawnHashTable}, which is created on the
+	 * first call. Its size is given by 
+	 * {@link ChessApplication#getPawnHashTableSize()}. */
+	public static synchronized PawnHashTable getPawnHashTable() {
+		if (pawnHashTable == null)
+			pawnHashTable = new PawnHashTable(ChessApplication
+				.getInstance().getPawnHashTableSize());
+		return pawnHashTable;
+	}
+	
+	/** @return The number of threads to compute plies with, which is given
+	 * by {@link ChessApplication#getMaxThreadNumber()} (at least 1). */
+	public static int getThreadNumber() {
+		return Math.max(1, ChessApplication.getInstance().getMaxThreadNumber());
+	}
+	
+	/** @return {@link Automaton#executor}, which is created on the first
+	 * call. Its threads are daemon threads, which do not keep the application
+	 * running. */
+	public static synchronized ExecutorService getExecutor() {
+		if (executor == null)
+			executor = Executors.newFixedThreadPool(getThreadNumber(),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "Automaton");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		return executor;
 	}
 		
+	/** @return {@link Automaton#expectedPosition} */
+	Position getExpectedPosition() {
+		return expectedPosition;
+	}
+	
 	/** Performs a ply for the player this {@link Automaton} computes plies for 
-	 * (see {@link PlayerState#player}) in his {@link Game}. */
+	 * (see {@link PlayerState#player}) in his {@link Game}. If the opponent
+	 * replied to the last turn with the ply of the principal variation, the
+	 * search continues from the results of the last turn (see
+	 * {@link Automaton#expectedPosition}). */
 	@Override
 	public void turn() {
+		long start = System.currentTimeMillis();
+		Position position = player.getGame().getPosition();
+		// a stop that arrived after the last turn does not stop this turn
+		stopped = false;
+		// the transposition table is shared by all search threads
+		int startDepth = 1;
+		if (engine == ALPHA_BETA_ENGINE)
+		{
+			getTranspositionTable().newSearch();
+			if (position.equals(expectedPosition))
+			{
+				System.out.println("Continuing the search of the expected "
+					+"position at "+expectedDepth+" ply levels.");
+				startDepth = Math.max(1, Math.min(expectedDepth, quality));
+				expectedAdvantageN = expectedPositionAdvantageN;
+			}
+		}
+		expectedPosition = null;
 		// 1st step: compute best plies
-		Collection<Position> bestPlies = 
-			computeBestPlies(player.getGame().getPosition());
+		Collection<Position> bestPlies;
+		if (timeControl != null && engine == ALPHA_BETA_ENGINE)
+			bestPlies = deepen(position, start, startDepth);
+		else
+			bestPlies = computeBestPlies(position, quality);
+		expectedAdvantageN = Integer.MIN_VALUE;
+		// resign, if no reasonable ply can be found
+		if (resigning && maximumTotalAdvantageN < -60000
+				&& !bestPlies.isEmpty()) {
+			player.resign();
+			bestPlies.clear();
+		}
 		// 2nd step: perform ply in the Game, if any feasible ply was found
 		if (!bestPlies.isEmpty())
-			player.getGame().turn(bestPlies.iterator().next());
+		{
+			Position ply = bestPlies.iterator().next();
+			int[] principalVariation = principalVariations.get(ply);
+			player.getGame().setPrincipalVariation(principalVariation == null?
+					new int[0]: principalVariation);
+			// keep the position the principal variation expects after the
+			// reply of the opponent
+			if (principalVariation != null && principalVariation.length > 1)
+			{
+				SearchBoard board = new SearchBoard(ply, player.getOpponent());
+				board.makeMove(principalVariation[1]);
+				expectedPosition = board.toPosition();
+				expectedDepth = searchedDepth - 2;
+				expectedPositionAdvantageN = maximumTotalAdvantageN;
+			}
+			player.getGame().turn(ply);
+		}
 		else {
 			// lose the Game if chess (this is checkmate)
 			// if (chess TODO!)
@@ -78,20 +384,88 @@ public class Automaton extends PlayerState {
 		}
 	}
 	
+	/**
+	 * Computes the best possible plies with iterative deepening: the best
+	 * plies are computed for one ply level, then for two ply levels and so
+	 * on, until the time budget given by {@link Automaton#timeControl} is used
+	 * up, the {@link Automaton#quality} is reached or the turn is stopped
+	 * (see {@link Automaton#stop()}). Each iteration orders the plies by the
+	 * best plies found by the previous iterations (which are stored in the
+	 * {@link TranspositionTable}). 
+	 * 
+	 * @param position
+	 *            - the Position to start from (should be the current position).
+	 * @param start - the time at which the turn started.
+	 * @param startDepth - the number of ply levels of the first iteration,
+	 * which is greater than 1 if the position is already searched to this
+	 * depth. If this iteration is aborted, the first iteration is repeated
+	 * with one ply level.
+	 * @return The best plies of the last iteration that was completed before
+	 * the time budget was used up.
+	 * */
+	private List<Position> deepen(Position position, long start,
+			int startDepth)
+	{
+		long budget = timeControl.getBudget();
+		// (an unlimited budget has no deadline)
+		long budgetDeadline = budget < Long.MAX_VALUE - start? start + budget:
+			Long.MAX_VALUE;
+		List<Position> result = null;
+		// a continued search may not complete its first iteration in time
+		if (startDepth > 1)
+		{
+			deadline = budgetDeadline;
+			stoppable = true;
+			result = computeBestPlies(position, startDepth);
+			stoppable = false;
+		}
+		// the first iteration is always completed to have a ply at all
+		if (result == null)
+		{
+			startDepth = 1;
+			deadline = Long.MAX_VALUE;
+			result = computeBestPlies(position, startDepth);
+		}
+		int advantage = maximumTotalAdvantageN;
+		deadline = budgetDeadline;
+		stoppable = true;
+		for (int depth = startDepth + 1; depth <= quality && !stopped; depth++)
+		{
+			// do not start an iteration that most likely cannot be completed
+			// (each iteration takes longer than all previous iterations)
+			if (System.currentTimeMillis() - start > budget / 2)
+				break;
+			expectedAdvantageN = advantage;
+			List<Position> iterationResult = computeBestPlies(position, depth);
+			if (iterationResult == null)
+				break;
+			result = iterationResult;
+			advantage = maximumTotalAdvantageN;
+		}
+		stoppable = false;
+		expectedAdvantageN = Integer.MIN_VALUE;
+		maximumTotalAdvantageN = advantage;
+		deadline = Long.MAX_VALUE;
+		timeControl.consume(System.currentTimeMillis() - start);
+		return result;
+	}
+	
 	/**
 	 * Computes the best possible plies for the player this  {@link Automaton} 
 	 * refers to  ({@link PlayerState#player}), i.e. returned plies are the 
-	 * plies with the highest advantage after {@link Automaton#quality} plies 
+	 * plies with the highest advantage after depth plies 
 	 * were considered, starting from the given position and using the base 
 	 * model that each player at move will take the ply that produces the 
-	 * highest advantage for him after {@link Automaton#quality} plies. 
+	 * highest advantage for him after depth plies. 
 	 * 
 	 * @param position
 	 *            - the Position to start from (should be the current position).
+	 * @param depth - the number of ply levels to consider.
 	 * @return The positions after the best possible initial plies
-	 *  		  (starting with position) were executed.
+	 *  		  (starting with position) were executed. null, if the
+	 *  		  computation was aborted at the {@link Automaton#deadline}.
 	 * */
-	private List<Position> computeBestPlies(Position position)
+	private List<Position> computeBestPlies(Position position, int depth)
 	{
 		// inititalize data
 		List<Position> result = new ArrayList<Position>();
@@ -99,41 +473,66 @@ public class Automaton extends PlayerState {
 		List<Figure> figures = player.getFigures(position);
 		Map<Figure, PositionComputationResult> bestPlies 
 			= new Hashtable<Figure, PositionComputationResult>();
-		int maximumTotalAdvantageN = Integer.MIN_VALUE;
+		maximumTotalAdvantageN = Integer.MIN_VALUE;
 		// The multi-threaded computation
-		int maxThreadNumber 
-			= ChessApplication.getInstance().getMaxThreadNumber();
-		positionComputerSemaphore = new Semaphore(maxThreadNumber, true);
-		// List of Threads to start for computation, needed to get results after
-		// computation from the PositionComputer Objects
-		ArrayList<PositionComputer> computers 
-			= new ArrayList<PositionComputer>();
-		// for each figure create and start one PositionComputer
-		for (int i = 0; i < figures.size(); i++) {
-			Figure figure = figures.get(i);
-			PositionComputer computer = new PositionComputer(
-					this, bestPlies, position, figure, quality);
-			computer.start();
-			computers.add(computer);
-		}
-		// wait for finished notification from last running PositionComputer
-		synchronized (positionComputerSemaphore)
+		if (engine == ALPHA_BETA_ENGINE)
 		{
-			try {
-				positionComputerSemaphore.wait();
-			}
-			catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
-		// process results from the computers to find the maximum total 
-		// advantage (over all figures)
-		for (PositionComputer computer : computers) {
-			int maximumFigureAdvantageN = computer
-				.getMaximumFigureAdvantageN();
-			if (maximumFigureAdvantageN > maximumTotalAdvantageN)
-				maximumTotalAdvantageN = maximumFigureAdvantageN;
+			// all threads search all plies, sharing the transposition table
+			long searchStart = System.currentTimeMillis();
+			ParallelSearch search = new ParallelSearch(player, position, depth,
+					getTranspositionTable(), getExecutor(), getThreadNumber());
+			// stop the search, if the turn was stopped before it was set
+			this.search = search;
+			if (stopped && stoppable)
+				search.stop();
+			search.setDeadline(deadline);
+			search.setQuiescence(true);
+			search.setPawnHashTable(getPawnHashTable());
+			search.setNullMovePruning(pruning);
+			search.setLateMoveReductions(pruning);
+			search.setExpectedEvaluation(expectedAdvantageN);
+			PositionComputationResult searchResult = search.search();
+			this.search = null;
+			if (search.isAborted())
+				return null;
+			searchedDepth = depth;
+			principalVariations.clear();
+			int[][] searchVariations = search.getPrincipalVariations();
+			int i = 0;
+			for (Position ply: searchResult.getPositions())
+				principalVariations.put(ply, searchVariations[i++]);
+			long time = Math.max(1, System.currentTimeMillis() - searchStart);
+			System.out.println("Selecting from "
+				+searchResult.getPositions().size()
+				+" best initial plies with evaluation "
+				+searchResult.getMaximumAdvantageN()+" considering "
+				+search.getNodeCount()+" total positions ("
+				+search.getQuiescenceNodeCount()+" in quiescence search, "
+				+search.getNodeCount() * 1000 / time+" positions per second"
+				+" on "+getThreadNumber()+" threads, "
+				+search.getFirstMoveCutoffCount() * 100
+					/ Math.max(1, search.getCutoffCount())
+				+"% of "+search.getCutoffCount()+" cut-offs by the first"
+				+" ply, "+search.getNullMoveCutoffCount()+" of "
+				+search.getNullMoveCount()+" null moves cut off, "
+				+search.getReductionReSearchCount()+" of "
+				+search.getReductionCount()+" reduced plies searched again, "
+				+search.getAspirationReSearchCount()+" aspiration failures, "
+				+search.getPawnHashHitCount() * 100
+					/ Math.max(1, search.getPawnHashProbeCount())
+				+"% pawn hash hits).");
+			if (!searchResult.getPositions().isEmpty())
+				System.out.println("Expecting the principal variation "
+					+Move.toString(searchResult.getPrincipalVariation())+".");
+			maximumTotalAdvantageN = searchResult.getMaximumAdvantageN();
+			bestPlies.putAll(search.getFigureResults());
+			if (searchListener != null)
+				searchListener.iterationCompleted(depth,
+					maximumTotalAdvantageN, search.getNodeCount(),
+					searchResult.getPrincipalVariation());
 		}
+		else
+			computeFigurePlies(position, depth, figures, bestPlies);
 		// debug output (to check correct thread synchronization)
 		System.out.println("I finished all ply computations.");
 		// build result list from the results from each of the figures
@@ -196,11 +595,6 @@ public class Automaton extends PlayerState {
 				}
 			}
 		}
-		// resign, if no reasonable ply can be found
-		if (maximumTotalAdvantageN < -60000 && result.size() > 0) {
-			player.resign();
-			result.clear();
-		}
 		// check consistency by checking that the player does not
 		// cause chess (for debugging)
 		for (Position p: result)
@@ -219,11 +613,56 @@ public class Automaton extends PlayerState {
 							position+"\n\t -- TO -- "+p);
 		}
 		// output for debugging
-		System.out.println("I (" + toString() + ") am selecting ply "
+		if (!result.isEmpty())
+			System.out.println("I (" + toString() + ") am selecting ply "
 				+ result.iterator().next().hashCode()
 				+ "\n\tand a maximum advantage of " + maximumTotalAdvantageN
 				+ " centipawns after all plies I have thought about "
-				+ "\n\t\t(which are at most " + quality + " ply levels).");
+				+ "\n\t\t(which are at most " + depth + " ply levels).");
 		return result;
 	}
+	
+	/**
+	 * Computes the best plies of each figure with a {@link PositionComputer}
+	 * on the {@link Automaton#executor} and sets 
+	 * {@link Automaton#maximumTotalAdvantageN}.
+	 * @param position - the Position to start from.
+	 * @param depth - the number of ply levels to consider.
+	 * @param figures - the figures of the player in position.
+	 * @param bestPlies - the map to register the results of the figures in.
+	 * @throws RuntimeException - if the thread is interrupted while it waits
+	 * for the results. The computations are cancelled and the interrupt
+	 * status of the thread is kept.
+	 * */
+	private void computeFigurePlies(Position position, int depth,
+			List<Figure> figures, Map<Figure, PositionComputationResult> bestPlies)
+	{
+		// for each figure submit one PositionComputer
+		List<Future<PositionComputationResult>> futures 
+			= new ArrayList<Future<PositionComputationResult>>();
+		for (Figure figure: figures)
+			futures.add(getExecutor().submit(
+					new PositionComputer(player, position, figure, depth)));
+		// wait for all PositionComputers to finish and process their results
+		// to find the maximum total advantage (over all figures)
+		for (int i = 0; i < figures.size(); i++) {
+			PositionComputationResult figureResult;
+			try {
+				figureResult = futures.get(i).get();
+			}
+			catch (InterruptedException e) {
+				// the results of the remaining figures are not computed
+				Thread.currentThread().interrupt();
+				for (Future<PositionComputationResult> future: futures)
+					future.cancel(true);
+				throw new RuntimeException(e);
+			}
+			catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+			bestPlies.put(figures.get(i), figureResult);
+			if (figureResult.getMaximumAdvantageN() > maximumTotalAdvantageN)
+				maximumTotalAdvantageN = figureResult.getMaximumAdvantageN();
+		}
+	}
 }
@@ -9,6 +9,7 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.util.Observable;
 
+import model.Move;
 import model.Position;
 
 
@@ -38,6 +39,10 @@ public class Game extends Observable {
 	/** Winner of the {@link Game}, null if the Game has not finished yet. */
 	private Player winner;
 	
+	/** The principal variation of the last {@link Automaton} turn, i.e. the
+	 * plies it expected to follow, encoded by {@link Move}. */
+	private int[] principalVariation = new int[0];
+	
 	/** A {@link Thread} that does the move operation asynchronously to the GUI. 
 	 */
 	private Thread moveThread;
@@ -122,6 +127,20 @@ public class Game extends Observable {
 		return gameHistory;
 	}
 	
+	/** @return The principal variation of the last {@link Automaton} turn,
+	 * encoded by {@link Move}. Empty, if it is unknown. */
+	public int[] getPrincipalVariation() {
+		return principalVariation;
+	}
+	
+	/** Sets the principal variation of an {@link Automaton} turn. Observers
+	 * are notified with the turn.
+	 * @param principalVariation - the plies, encoded by {@link Move}, 
+	 * starting with the ply of the turn. */
+	public void setPrincipalVariation(int[] principalVariation) {
+		this.principalVariation = principalVariation;
+	}
+	
 	/** Changes the {@link Player} at move to his opponent and records the last
 	 * turn made.
 	 * @param next - the position after the turn. */
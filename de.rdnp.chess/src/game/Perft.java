@@ -0,0 +1,146 @@
+package game;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import model.Move;
+import model.Position;
+import model.SearchBoard;
+
+/**
+ * Counts the positions that are reachable from a start position with a given
+ * number of legal plies (perft). The counts can be compared with the known
+ * counts of well-known positions to validate the computation of plies, and
+ * the time they take measures the speed of the computation.
+ * <br>
+ * The plies are either computed by {@link Player#computePlies(Position)} or
+ * by a {@link SearchBoard}.
+ * @author Richard Pohl*/
+public class Perft {
+
+	/** The {@link Player} at move in the start position. */
+	private final Player player;
+	/** The {@link Position} to count from. */
+	private final Position start;
+	/** true, iff the plies are computed by a {@link SearchBoard}. */
+	private final boolean searchBoard;
+
+	/**
+	 * Constructs a {@link Perft}.
+	 * @param start - the {@link Position} to count from.
+	 * @param player - the {@link Player} at move in start.
+	 * @param searchBoard - true to compute the plies by a
+	 * {@link SearchBoard}, false to compute them by
+	 * {@link Player#computePlies(Position)}.
+	 * */
+	public Perft(Position start, Player player, boolean searchBoard) {
+		this.start = start;
+		this.player = player;
+		this.searchBoard = searchBoard;
+	}
+
+	/**
+	 * @param depth - the number of plies.
+	 * @return The number of positions that are reachable from the start
+	 * position with depth legal plies.
+	 * */
+	public long count(int depth) {
+		if (searchBoard)
+			return count(new SearchBoard(start, player), depth,
+					new int[Math.max(depth, 1)][SearchBoard.MAX_MOVES]);
+		return count(start, player, depth);
+	}
+
+	/**
+	 * Counts the positions for each legal ply in the start position
+	 * separately (divide), which locates the plies that are computed wrong.
+	 * The first plies are computed like all other plies, i.e. by a
+	 * {@link SearchBoard} or by {@link Player#computePlies(Position)}.
+	 * @param depth - the number of plies (including the first ply).
+	 * @return The number of positions that are reachable with depth legal
+	 * plies, for each first ply in coordinate notation (see
+	 * {@link Move#toString(int)}). The positions after first plies that are
+	 * not legal are counted for "0000".
+	 * @throws IllegalArgumentException - if depth is less than 1.
+	 * */
+	public Map<String, Long> divide(int depth) {
+		if (depth < 1)
+			throw new IllegalArgumentException("Illegal depth: " + depth);
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		if (searchBoard)
+		{
+			SearchBoard board = new SearchBoard(start, player);
+			int[] rootMoves = new int[SearchBoard.MAX_MOVES];
+			int[][] moves
+				= new int[Math.max(depth - 1, 1)][SearchBoard.MAX_MOVES];
+			int count = board.generateLegalMoves(rootMoves);
+			for (int i = 0; i < count; i++)
+			{
+				board.makeMove(rootMoves[i]);
+				result.put(Move.toString(rootMoves[i]),
+						count(board, depth - 1, moves));
+				board.unmakeMove();
+			}
+			return result;
+		}
+		Position[] plies = player.computePlies(start);
+		for (int i = 0; plies[i] != null; i++)
+		{
+			int move = getMove(plies[i]);
+			String name = move == Move.NONE? "0000": Move.toString(move);
+			long nodes = count(plies[i], player.getOpponent(), depth - 1);
+			Long previousNodes = result.get(name);
+			result.put(name, previousNodes == null? nodes:
+				previousNodes + nodes);
+		}
+		return result;
+	}
+
+	/**
+	 * @param next - a {@link Position} after a ply in the start position.
+	 * @return The legal ply from the start position to next, encoded by
+	 * {@link Move}. {@link Move#NONE}, if there is no such ply.
+	 * */
+	private int getMove(Position next) {
+		SearchBoard board = new SearchBoard(start, player);
+		int[] moves = new int[SearchBoard.MAX_MOVES];
+		int count = board.generateLegalMoves(moves);
+		for (int i = 0; i < count; i++)
+		{
+			board.makeMove(moves[i]);
+			boolean found = board.toPosition().equals(next);
+			board.unmakeMove();
+			if (found)
+				return moves[i];
+		}
+		return Move.NONE;
+	}
+
+	private long count(Position position, Player player, int depth) {
+		if (depth == 0)
+			return 1;
+		Position[] plies = player.computePlies(position);
+		long nodes = 0;
+		for (int i = 0; plies[i] != null; i++)
+			nodes += depth == 1? 1: count(plies[i], player.getOpponent(),
+					depth - 1);
+		return nodes;
+	}
+
+	private long count(SearchBoard board, int depth, int[][] moves) {
+		if (depth == 0)
+			return 1;
+		int[] depthMoves = moves[depth - 1];
+		int count = board.generateLegalMoves(depthMoves);
+		if (depth == 1)
+			return count;
+		long nodes = 0;
+		for (int i = 0; i < count; i++)
+		{
+			board.makeMove(depthMoves[i]);
+			nodes += count(board, depth - 1, moves);
+			board.unmakeMove();
+		}
+		return nodes;
+	}
+}
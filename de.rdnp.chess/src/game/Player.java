@@ -9,6 +9,7 @@ import model.HashKeyProvider;
 import model.King;
 import model.Pawn;
 import model.Position;
+import model.SlidingAttacks;
 
 
 /** @author Richard Pohl */
@@ -94,23 +95,23 @@ public class Player {
 	public List<Figure> getFigures(Position position) {
 		List<Figure> result = new ArrayList<Figure>();
 		Figure figure = null, king = null;
-		for (int x = 0; x < 8; x++)
-			for (int y = 0; y < 8; y++)
-				if ((figure = position.getFigureAt(new ChessLocation(x, y)))
-						!= null
-						&& this.equals(figure.getOwner()))
-				{
-					if (figure.getClass() != Pawn.class 
-							&& figure.getClass() != King.class)
-						// not a pawn and not a king => beginning
-						result.add(0, figure);
-					else if (figure.getClass() != King.class)
-						// pawns to the end
-						result.add(figure);
-					else 
-						// do not add king, until all other elemens added
-						king = figure;
-				}
+		// visit the own locations in the order of their indices
+		long own = position.getLocations(this);
+		while (own != 0)
+		{
+			figure = position.getFigureAt(Long.numberOfTrailingZeros(own));
+			own &= own - 1;
+			if (figure.getClass() != Pawn.class 
+					&& figure.getClass() != King.class)
+				// not a pawn and not a king => beginning
+				result.add(0, figure);
+			else if (figure.getClass() != King.class)
+				// pawns to the end
+				result.add(figure);
+			else 
+				// do not add king, until all other elemens added
+				king = figure;
+		}
 		// the king should be the last element
 		if (king != null)
 			result.add(king);
@@ -162,6 +163,15 @@ public class Player {
 		new Automaton(this, quality);
 	}
 	
+	/** Sets the player state to {@link Automaton} with a time budget for 
+	 * each turn. 
+	 * @param timeControl - The {@link TimeControl} that gives the time budget
+	 * of each turn.*/
+	public void playAutomaton(TimeControl timeControl)
+	{
+		new Automaton(this, timeControl);
+	}
+	
 	/** Sets the player state to {@link Human}. */
 	public void playHuman()
 	{
@@ -175,26 +185,24 @@ public class Player {
 	 * @return true, iff the Player is in chess in position.*/
 	public boolean chess(Position position)
 	{
-		// chess means that there exists a ply with which the opponent could
-		// take the player's king, if he was at move...
+		// chess means that the opponent could take the player's king, if he 
+		// was at move, which is found by scanning outwards from the king
+		ChessLocation kingLocation = position.getKingLocation(this);
+		if (kingLocation != null)
+			return position.isAttacked(kingLocation, getOpponent());
+		return chessWithoutKing(position);
+	}
+	
+	/** 
+	 * @param position - a {@link Position} in which the Player has no king.
+	 * @return true, iff the opponent has any ply in position (which is 
+	 * considered as having taken the king).*/
+	private boolean chessWithoutKing(Position position)
+	{
 		// compute all legal plies of the opponent, not considering chess
 		// (which is to avoid an infinite recursion)
 		Position[] opponentPlies = getOpponent().computePlies(position, false);
-		for (int i = 0; opponentPlies[i] != null; i++)
-		{
-			// check, if the king still exists, assuming the worst, until he
-			// was actually found:
-			List<Figure> figuresAfterOpponentPly = getFigures(opponentPlies[i]);
-			// king is last in the list:
-			boolean kingExists = figuresAfterOpponentPly
-					.get(figuresAfterOpponentPly.size() - 1).equals(getKing());
-			// chess situation is given, if there exists a ply with which the
-			// opponent could take this players king => return true, if we
-			// have found a ply that leads to a situation where no kingExists.
-			if (!kingExists)
-				return true;
-		}
-		return false;
+		return opponentPlies[0] != null;
 	}
 	
 	/** 
@@ -234,14 +242,28 @@ public class Player {
 		Position[] result = new Position[150];
 		int resultIndex = 0;
 		List<Figure> figures = getFigures(position);
+		// the lines through the king, a ply can only cause chess if the king
+		// is in chess, if the king moves, or if a figure leaves these lines
+		long kingLines = -1L;
+		ChessLocation kingLocation = position.getKingLocation(this);
+		if (considerChess && kingLocation != null && !chess(position))
+			kingLines = SlidingAttacks.getQueenAttacks(
+					kingLocation.x * 8 + kingLocation.y, 0L);
 		// add only a restricted number of available plies per figure
 		for (int iF = 0; iF < figures.size(); iF++)
 		{
-			Position[] figurePositions 
-				= figures.get(iF).computeOnePly(position);
+			Figure figure = figures.get(iF);
+			Position[] figurePositions = figure.computeOnePly(position);
+			ChessLocation location = position.getFigureLocation(figure);
+			// taking en passant removes a second figure from the lines
+			boolean checkChess = considerChess 
+				&& ((kingLines >>> (location.x * 8 + location.y) & 1) != 0
+					|| figure.getClass() == King.class
+					|| (figure.getClass() == Pawn.class 
+						&& position.getEnPassantLine() != -1));
 			for (int ip = 0; figurePositions[ip] != null; ip++)
 			{
-				if (!(considerChess && chess(figurePositions[ip])))
+				if (!(checkChess && chess(figurePositions[ip])))
 					result[resultIndex++] = figurePositions[ip];
 			}
 		}
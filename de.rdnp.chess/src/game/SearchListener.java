@@ -0,0 +1,21 @@
+package game;
+
+/**
+ * Is informed by an {@link Automaton} about the progress of the search of
+ * its turns, e.g. to report it to the user.
+ * @author Richard Pohl*/
+public interface SearchListener {
+
+	/**
+	 * Is called after each completed iteration of the search of a turn (see
+	 * {@link Automaton#ALPHA_BETA_ENGINE}).
+	 * @param depth - the number of ply levels of the iteration.
+	 * @param evaluation - the advantage of the {@link Player} at move (in
+	 * centipawns).
+	 * @param nodeCount - the number of positions the iteration visited.
+	 * @param principalVariation - the plies the iteration expects to follow,
+	 * encoded by {@link model.Move}.
+	 * */
+	void iterationCompleted(int depth, int evaluation, long nodeCount,
+			int[] principalVariation);
+}
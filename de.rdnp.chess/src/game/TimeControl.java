@@ -0,0 +1,69 @@
+package game;
+
+/**
+ * Defines the time an {@link Automaton} may spend on a turn. The time is
+ * either fixed for each turn, or it is taken from a clock that holds the
+ * remaining time of the {@link Player} and is increased by an increment after
+ * each turn. All times are in milliseconds.
+ * @author Richard Pohl*/
+public class TimeControl {
+
+	// the number of turns the remaining time on a clock is shared by
+	private static final int TURNS_TO_GO = 30;
+
+	/** The time for each turn, -1 if the time is taken from a clock. */
+	private final long turnTime;
+
+	/** The remaining time on the clock. */
+	private long remainingTime;
+
+	/** The time that is added to the clock after each turn. */
+	private final long increment;
+
+	/**
+	 * Constructs a {@link TimeControl} with a fixed time for each turn.
+	 * @param turnTime - the time for each turn.
+	 * */
+	public TimeControl(long turnTime) {
+		this.turnTime = turnTime;
+		this.increment = 0;
+		this.remainingTime = -1;
+	}
+
+	/**
+	 * Constructs a {@link TimeControl} that takes the time from a clock.
+	 * @param remainingTime - the initial time on the clock.
+	 * @param increment - the time that is added to the clock after each turn.
+	 * */
+	public TimeControl(long remainingTime, long increment) {
+		this.turnTime = -1;
+		this.remainingTime = remainingTime;
+		this.increment = increment;
+	}
+
+	/** @return The time remaining on the clock, -1 if the time for each turn
+	 * is fixed. */
+	public long getRemainingTime() {
+		return remainingTime;
+	}
+
+	/** @return The time budget for the next turn. A clock's remaining time is
+	 * shared by the next turns (and the increment is added), but never more
+	 * than half of the remaining time is used. */
+	public long getBudget() {
+		if (turnTime >= 0)
+			return turnTime;
+		return Math.max(0, Math.min(remainingTime / TURNS_TO_GO + increment,
+				remainingTime / 2));
+	}
+
+	/**
+	 * Records the time spent on a turn. The time is taken from the clock and
+	 * the increment is added.
+	 * @param time - the time spent on the turn.
+	 * */
+	public void consume(long time) {
+		if (turnTime < 0)
+			remainingTime = remainingTime - time + increment;
+	}
+}
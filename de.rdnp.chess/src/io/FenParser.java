@@ -0,0 +1,143 @@
+package io;
+
+import game.Player;
+import model.Bishop;
+import model.ChessLocation;
+import model.Figure;
+import model.King;
+import model.Knight;
+import model.Pawn;
+import model.Position;
+import model.Queen;
+import model.Rook;
+
+/**
+ * This is a parser for {@link GameState} objects in the Forsyth-Edwards
+ * Notation (FEN), e.g.
+ * <code>rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1</code>.
+ * The figure locations are given row by row, starting with the eighth row,
+ * followed by the player at move, the castling rights and the en passant
+ * location. The numbers of plies at the end are ignored.
+ * @author Richard Pohl */
+public class FenParser {
+
+	/** The FEN of the start position. */
+	public static final String START_POSITION
+		= "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private String fen;
+
+	/**
+	 * Constructs a {@link FenParser}.
+	 * @param fen - the FEN to parse.
+	 * */
+	public FenParser(String fen) {
+		this.fen = fen;
+	}
+
+	/**
+	 * Parses a {@link Position} from the FEN of the {@link FenParser}.
+	 * @return A {@link GameState} containing the parsed {@link Position} and
+	 * the {@link Player} at move in the Position.
+	 * @throws IllegalArgumentException - if the FEN is malformed.
+	 * */
+	public GameState parse() {
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length < 2)
+			throw new IllegalArgumentException("Incomplete FEN: " + fen);
+		Position position = parseFigureLocations(fields[0]);
+		Player activePlayer;
+		if (fields[1].equals("w"))
+			activePlayer = Player.WHITE;
+		else if (fields[1].equals("b"))
+			activePlayer = Player.BLACK;
+		else
+			throw new IllegalArgumentException("Illegal player: " + fields[1]);
+		position.setCastlingHistory(
+				fields.length > 2? parseCastlingRights(fields[2]): 0);
+		position.setEnPassantLine(
+				fields.length > 3? parseEnPassantLine(fields[3]): -1);
+		return new GameState(position, activePlayer);
+	}
+
+	/**
+	 * @param figureLocations - the figure locations of a FEN.
+	 * @return A {@link Position} with the figures at the locations.
+	 * */
+	private Position parseFigureLocations(String figureLocations) {
+		String[] rows = figureLocations.split("/");
+		if (rows.length != 8)
+			throw new IllegalArgumentException("Illegal figure locations: "
+					+ figureLocations);
+		// replace the figures of the initial position location by location
+		Position position = new Position();
+		for (int row = 0; row < 8; row++)
+		{
+			int y = 7 - row, x = 0;
+			for (char figureChar: rows[row].toCharArray())
+			{
+				if (Character.isDigit(figureChar))
+					for (int i = figureChar - '0'; i > 0 && x < 8; i--)
+						position = new Position(position, null,
+								new ChessLocation(x++, y));
+				else if (x < 8)
+					position = new Position(position, getFigure(figureChar),
+							new ChessLocation(x++, y));
+				else
+					x++;
+			}
+			if (x != 8)
+				throw new IllegalArgumentException("Illegal row: "
+						+ rows[row]);
+		}
+		return position;
+	}
+
+	/**
+	 * @param figureChar - the character representing the figure to return,
+	 * upper case for white figures, lower case for black figures.
+	 * @return A new figure corresponding to figureChar.
+	 * */
+	private Figure getFigure(char figureChar) {
+		Player owner = Character.isUpperCase(figureChar)?
+				Player.WHITE: Player.BLACK;
+		switch (Character.toLowerCase(figureChar))
+		{
+			case 'p': return new Pawn(owner);
+			case 'b': return new Bishop(owner);
+			case 'n': return new Knight(owner);
+			case 'r': return new Rook(owner);
+			case 'q': return new Queen(owner);
+			case 'k': return new King(owner);
+		}
+		throw new IllegalArgumentException("Illegal figure: " + figureChar);
+	}
+
+	/**
+	 * @param castling - the castling rights of a FEN, e.g. "KQkq" or "-".
+	 * @return The castling rights, see {@link Position#getCastlingHistory()}.
+	 * */
+	private int parseCastlingRights(String castling) {
+		int castlingRights = 0;
+		if (castling.indexOf('K') >= 0)
+			castlingRights |= Position.WHITE_CASTLE_KING_SIDE;
+		if (castling.indexOf('Q') >= 0)
+			castlingRights |= Position.WHITE_CASTLE_QUEEN_SIDE;
+		if (castling.indexOf('k') >= 0)
+			castlingRights |= Position.BLACK_CASTLE_KING_SIDE;
+		if (castling.indexOf('q') >= 0)
+			castlingRights |= Position.BLACK_CASTLE_QUEEN_SIDE;
+		return castlingRights;
+	}
+
+	/**
+	 * @param enPassant - the en passant location of a FEN, e.g. "e3" or "-".
+	 * @return The line of the en passant location, -1 if there is none.
+	 * */
+	private int parseEnPassantLine(String enPassant) {
+		if (enPassant.length() != 2 || enPassant.charAt(0) < 'a'
+				|| enPassant.charAt(0) > 'h')
+			return -1;
+		return enPassant.charAt(0) - 'a';
+	}
+}
@@ -0,0 +1,275 @@
+package main;
+
+import game.Analysis;
+import game.Automaton;
+import game.Player;
+
+import io.GameState;
+import io.GameStateParser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import model.Move;
+
+/**
+ * Command line entry point that analyzes all game state files in a
+ * directory with an {@link Analysis} each and reports the best ply, the
+ * evaluation and the number of visited positions of each file.
+ * <br>
+ * Usage: <code>AnalysisApplication directory limit report [threads]
+ * [transposition table size] [pawn hash table size]
+ * [transposition table file]</code>, where
+ * <ul>
+ * <li>the files of directory are read by a {@link GameStateParser} (in the
+ * order of their names, subdirectories and hidden files are skipped),</li>
+ * <li>limit is either the depth of each analysis (e.g. "8", at most
+ * {@link Analysis#MAXIMUM_DEPTH}) or its time in milliseconds (e.g.
+ * "500ms") or seconds (e.g. "2s"),</li>
+ * <li>report is the file the results are written to, as JSON lines, if its
+ * name ends with ".jsonl", and as comma separated values (with a header
+ * line) otherwise, "-" for the standard output, and</li>
+ * <li>the remaining arguments are those of the {@link ChessApplication}.</li>
+ * </ul>
+ * The files are analyzed in parallel by the threads of
+ * {@link Automaton#getExecutor()}, which share the transposition table. Only
+ * a few files per thread are read ahead, so that directories of any size can
+ * be analyzed. At the end, the throughput is written to the standard output
+ * (to the standard error stream, if the report is written to the standard
+ * output).
+ * @author Richard Pohl*/
+public final class AnalysisApplication {
+
+	// the number of analyses per thread that are submitted ahead of the
+	// analysis whose result is written next
+	private static final int ANALYSES_AHEAD = 2;
+
+	/** The depth of each analysis. */
+	private final int depth;
+	/** The time of each analysis in milliseconds, Long.MAX_VALUE if the
+	 * analyses are only limited by the depth. */
+	private final long time;
+	/** true, iff the report is written as JSON lines. */
+	private final boolean json;
+	/** The stream to write the report to. */
+	private final PrintStream report;
+
+	/** The number of analyzed files. */
+	private int positionCount;
+	/** The number of positions visited by all analyses. */
+	private long nodeCount;
+
+	/**
+	 * Constructs an {@link AnalysisApplication}.
+	 * @param depth - the depth of each analysis.
+	 * @param time - the time of each analysis in milliseconds, Long.MAX_VALUE
+	 * if the analyses are only limited by depth.
+	 * @param json - true to write the report as JSON lines, false to write
+	 * it as comma separated values.
+	 * @param report - the stream to write the report to.
+	 * */
+	AnalysisApplication(int depth, long time, boolean json,
+			PrintStream report)
+	{
+		this.depth = depth;
+		this.time = time;
+		this.json = json;
+		this.report = report;
+	}
+
+	public static void main(String [] args)
+		throws IOException, InterruptedException
+	{
+		if (args.length < 3)
+		{
+			System.err.println("Usage: AnalysisApplication directory "
+					+ "depth|time report [threads] [transposition table size] "
+					+ "[pawn hash table size] [transposition table file]");
+			System.exit(1);
+		}
+		ChessApplication.configure(Arrays.copyOfRange(args, 3, args.length));
+		int depth = Analysis.MAXIMUM_DEPTH;
+		long time = Long.MAX_VALUE;
+		String limit = args[1].toLowerCase();
+		if (limit.endsWith("ms"))
+			time = Long.parseLong(limit.substring(0, limit.length() - 2));
+		else if (limit.endsWith("s"))
+			time = Long.parseLong(limit.substring(0, limit.length() - 1))
+				* 1000;
+		else
+			depth = Math.min(Integer.parseInt(limit),
+					Analysis.MAXIMUM_DEPTH);
+		PrintStream out = System.out;
+		PrintStream report = System.out;
+		if (!args[2].equals("-"))
+			report = new PrintStream(new FileOutputStream(args[2]));
+		else
+			out = System.err;
+		AnalysisApplication application = new AnalysisApplication(depth, time,
+				args[2].endsWith(".jsonl"), report);
+		long start = System.currentTimeMillis();
+		application.analyze(new File(args[0]));
+		long totalTime = Math.max(1, System.currentTimeMillis() - start);
+		if (report != System.out)
+			report.close();
+		out.println("Positions: " + application.getPositionCount());
+		out.println("Nodes: " + application.getNodeCount());
+		out.println("Time: " + totalTime + " ms");
+		out.println("Positions per second: " + String.format(Locale.ROOT,
+				"%.2f", application.getPositionCount() * 1000.0 / totalTime));
+		out.println("Nodes per second: "
+				+ application.getNodeCount() * 1000 / totalTime);
+	}
+
+	/**
+	 * Analyzes the files of a directory and writes the results to the report
+	 * in the order of the file names. A file that cannot be read is skipped
+	 * with a message on the standard error stream.
+	 * @param directory - the directory of the files.
+	 * @throws IllegalArgumentException - if directory is not a directory.
+	 * */
+	void analyze(File directory) throws InterruptedException {
+		String[] names = directory.list();
+		if (names == null)
+			throw new IllegalArgumentException("Not a directory: "
+					+ directory);
+		Arrays.sort(names);
+		if (!json)
+			report.println("file,player,depth,bestmove,score,nodes,time,pv");
+		// the analyses whose results are not written yet, in file order
+		LinkedList<File> files = new LinkedList<File>();
+		LinkedList<Future<Analysis>> analyses
+			= new LinkedList<Future<Analysis>>();
+		int maximumAhead = ANALYSES_AHEAD * Automaton.getThreadNumber();
+		// the shared tables are created before the analyses, which would
+		// otherwise wait for them at the start of their time
+		Automaton.getTranspositionTable();
+		Automaton.getPawnHashTable();
+		for (String name: names)
+		{
+			final File file = new File(directory, name);
+			if (!file.isFile() || file.isHidden())
+				continue;
+			if (analyses.size() >= maximumAhead)
+				write(files.removeFirst(), analyses.removeFirst());
+			files.add(file);
+			analyses.add(Automaton.getExecutor().submit(
+				new Callable<Analysis>() {
+					@Override
+					public Analysis call() throws IOException {
+						return analyzeFile(file);
+					}
+				}));
+		}
+		while (!analyses.isEmpty())
+			write(files.removeFirst(), analyses.removeFirst());
+		report.flush();
+	}
+
+	/** @return The number of analyzed files. */
+	int getPositionCount() {
+		return positionCount;
+	}
+
+	/** @return The number of positions visited by all analyses. */
+	long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Analyzes the position of a game state file.
+	 * @param file - the file.
+	 * @return The completed {@link Analysis}.
+	 * @throws IOException - if file cannot be read.
+	 * */
+	private Analysis analyzeFile(File file) throws IOException {
+		GameState gameState
+			= new GameStateParser(new FileInputStream(file)).parse();
+		// white is at move, if the file does not define the player at move
+		Player player = gameState.getActivePlayer() != null?
+				gameState.getActivePlayer(): Player.WHITE;
+		Analysis analysis = new Analysis(gameState.getCurrentPosition(),
+				player);
+		analysis.analyze(depth, time);
+		return analysis;
+	}
+
+	/**
+	 * Waits for an analysis and writes its result to the report.
+	 * @param file - the analyzed file.
+	 * @param future - the future result of the {@link Analysis} of file.
+	 * */
+	private void write(File file, Future<Analysis> future)
+		throws InterruptedException
+	{
+		Analysis analysis;
+		try {
+			analysis = future.get();
+		} catch (ExecutionException e) {
+			System.err.println("Skipping " + file + ": " + e.getCause());
+			return;
+		}
+		positionCount++;
+		nodeCount += analysis.getNodeCount();
+		String player = analysis.getPlayer() == Player.WHITE? "white":
+			"black";
+		boolean legal = analysis.getBestMove() != Move.NONE;
+		String bestMove = legal? Move.toString(analysis.getBestMove()): "";
+		String principalVariation
+			= Move.toString(analysis.getPrincipalVariation());
+		if (json)
+			report.println("{\"file\":" + quoteJson(file.getName())
+					+ ",\"player\":\"" + player + "\""
+					+ ",\"depth\":" + analysis.getDepth()
+					+ ",\"bestmove\":" + (legal? "\"" + bestMove + "\"": "null")
+					+ ",\"score\":" + (legal? analysis.getEvaluation(): "null")
+					+ ",\"nodes\":" + analysis.getNodeCount()
+					+ ",\"time\":" + analysis.getTime()
+					+ ",\"pv\":\"" + principalVariation + "\"}");
+		else
+			report.println(quoteCsv(file.getName()) + "," + player + ","
+					+ analysis.getDepth() + "," + bestMove + ","
+					+ (legal? analysis.getEvaluation(): "") + ","
+					+ analysis.getNodeCount() + "," + analysis.getTime() + ","
+					+ principalVariation);
+	}
+
+	/**
+	 * @param value - a value of the report.
+	 * @return value as a field of comma separated values, which is quoted,
+	 * if it contains a comma, a quote or a line break.
+	 * */
+	private static String quoteCsv(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+				&& value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+			return value;
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	/**
+	 * @param value - a value of the report.
+	 * @return value as a JSON string.
+	 * */
+	private static String quoteJson(String value) {
+		StringBuilder builder = new StringBuilder("\"");
+		for (char character: value.toCharArray())
+		{
+			if (character == '"' || character == '\\')
+				builder.append('\\').append(character);
+			else if (character < ' ')
+				builder.append(String.format("\\u%04x", (int) character));
+			else
+				builder.append(character);
+		}
+		return builder.append('"').toString();
+	}
+}
@@ -6,8 +6,29 @@ import view.ChessFrame;
 public final class ChessApplication {
 	private static final ChessApplication instance = new ChessApplication();
 	
+	/** The share of the maximum heap size used for transposition tables, if
+	 * no size is passed to the application (1/n). */
+	private static final int TRANSPOSITION_TABLE_SHARE = 4;
+	
+	/** The size of a pawn hash table relative to the size of a transposition
+	 * table, if no size is passed to the application (1/n). */
+	private static final int PAWN_HASH_TABLE_SHARE = 16;
+	
 	private int maxThreadNumber; 
 	
+	/** The size of a transposition table in megabytes, 0 if the size is
+	 * derived from the maximum heap size. */
+	private int transpositionTableSize;
+	
+	/** The size of a pawn hash table in megabytes, 0 if the size is derived
+	 * from the size of a transposition table. */
+	private int pawnHashTableSize;
+	
+	/** The file of a transposition table that is kept outside of the heap,
+	 * an empty string if it is kept in anonymous memory, null if it is kept
+	 * on the heap. */
+	private String transpositionTableFile;
+	
 	private ChessApplication() {}
 	
 	public static final ChessApplication getInstance() {
@@ -18,6 +39,39 @@ public final class ChessApplication {
 		return maxThreadNumber;
 	}
 	
+	public void setMaxThreadNumber(int maxThreadNumber) {
+		this.maxThreadNumber = maxThreadNumber;
+	}
+	
+	/** @return The size of a transposition table in megabytes. This is
+	 * either the size passed to the application or a share of the maximum
+	 * heap size (-Xmx). */
+	public int getTranspositionTableSize() {
+		if (transpositionTableSize > 0)
+			return transpositionTableSize;
+		return Math.max(1, (int) (Runtime.getRuntime().maxMemory() 
+				/ TRANSPOSITION_TABLE_SHARE / (1024 * 1024)));
+	}
+	
+	/** Sets {@link ChessApplication#transpositionTableSize}. */
+	public void setTranspositionTableSize(int transpositionTableSize) {
+		this.transpositionTableSize = transpositionTableSize;
+	}
+	
+	/** @return The size of a pawn hash table in megabytes. This is either
+	 * the size passed to the application or a share of the size of a
+	 * transposition table. */
+	public int getPawnHashTableSize() {
+		if (pawnHashTableSize > 0)
+			return pawnHashTableSize;
+		return Math.max(1, getTranspositionTableSize() / PAWN_HASH_TABLE_SHARE);
+	}
+	
+	/** @return {@link ChessApplication#transpositionTableFile} */
+	public String getTranspositionTableFile() {
+		return transpositionTableFile;
+	}
+	
 	private void start()
 	{
 		ChessFrame chessFrame = new ChessFrame();
@@ -25,11 +79,27 @@ public final class ChessApplication {
 	}
 	
 	public static void main(String [] args)
+	{
+		configure(args);
+		instance.start();		
+	}
+	
+	/** Configures the application with the arguments passed to it: the
+	 * number of threads, the size of a transposition table, the size of a
+	 * pawn hash table and the file of a transposition table (all
+	 * optional). */
+	static void configure(String [] args)
 	{
 		if (args.length > 0)
 			instance.maxThreadNumber = Integer.parseInt(args[0]);
 		else
 			instance.maxThreadNumber = 2;
-		instance.start();		
+		if (args.length > 1)
+			instance.transpositionTableSize = Integer.parseInt(args[1]);
+		if (args.length > 2)
+			instance.pawnHashTableSize = Integer.parseInt(args[2]);
+		// "-" keeps the transposition table off the heap without a file
+		if (args.length > 3)
+			instance.transpositionTableFile = args[3].equals("-")? "": args[3];
 	}
 }
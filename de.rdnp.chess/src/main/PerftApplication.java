@@ -0,0 +1,65 @@
+package main;
+
+import game.Perft;
+import game.Player;
+
+import io.GameState;
+import io.GameStateParser;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Command line entry point that counts the positions reachable from a game
+ * state file with a {@link Perft}.
+ * <br>
+ * Usage: <code>PerftApplication file depth [divide] [board]</code>, where
+ * file is read by a {@link GameStateParser}, "divide" prints the count of
+ * each first ply and "board" computes the plies by a search board instead of
+ * the players.
+ * @author Richard Pohl*/
+public final class PerftApplication {
+
+	private PerftApplication() {}
+
+	public static void main(String [] args) throws IOException
+	{
+		if (args.length < 2)
+		{
+			System.err.println(
+					"Usage: PerftApplication file depth [divide] [board]");
+			System.exit(1);
+		}
+		boolean divide = false, searchBoard = false;
+		for (int i = 2; i < args.length; i++)
+		{
+			divide |= args[i].equalsIgnoreCase("divide");
+			searchBoard |= args[i].equalsIgnoreCase("board");
+		}
+		GameState gameState
+			= new GameStateParser(new FileInputStream(args[0])).parse();
+		int depth = Integer.parseInt(args[1]);
+		// white is at move, if the file does not define the player at move
+		Player player = gameState.getActivePlayer() != null?
+				gameState.getActivePlayer(): Player.WHITE;
+		Perft perft = new Perft(gameState.getCurrentPosition(), player,
+				searchBoard);
+		long time = System.currentTimeMillis();
+		long nodes = 0;
+		if (divide)
+		{
+			for (Map.Entry<String, Long> entry: perft.divide(depth).entrySet())
+			{
+				System.out.println(entry.getKey() + ": " + entry.getValue());
+				nodes += entry.getValue();
+			}
+		}
+		else
+			nodes = perft.count(depth);
+		time = Math.max(1, System.currentTimeMillis() - time);
+		System.out.println("Nodes: " + nodes);
+		System.out.println("Time: " + time + " ms");
+		System.out.println("Nodes per second: " + nodes * 1000 / time);
+	}
+}
@@ -0,0 +1,374 @@
+package main;
+
+import game.Automaton;
+import game.Game;
+import game.Player;
+import game.SearchListener;
+import game.TimeControl;
+
+import io.FenParser;
+import io.GameState;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+import model.Move;
+import model.Position;
+import model.SearchBoard;
+
+/**
+ * Headless entry point that plays with an {@link Automaton} via the Universal
+ * Chess Interface (UCI) on the standard input and output, e.g. under a
+ * tournament manager or in scripted tests. It supports the commands
+ * <ul>
+ * <li><code>uci</code>, <code>isready</code>, <code>ucinewgame</code> and
+ * <code>quit</code>,</li>
+ * <li><code>setoption name Hash value</code> (the size of the transposition
+ * table in megabytes) and <code>setoption name Threads value</code>,</li>
+ * <li><code>position startpos</code> and <code>position fen</code>, followed
+ * by <code>moves</code> in coordinate notation (see
+ * {@link Move#toString(int)}),</li>
+ * <li><code>go</code> with <code>depth</code>, <code>movetime</code>,
+ * <code>wtime</code>, <code>btime</code>, <code>winc</code>,
+ * <code>binc</code> or <code>infinite</code>, and <code>stop</code>.</li>
+ * </ul>
+ * The search reports each completed iteration with an <code>info</code> line
+ * (depth, score, nodes, nps, time and pv). The debug output of the engine is
+ * redirected to the standard error stream, so that the standard output only
+ * contains the protocol.
+ * <br>
+ * Usage: <code>UciApplication [threads] [transposition table size]
+ * [pawn hash table size] [transposition table file]</code>, see
+ * {@link ChessApplication}.
+ * @author Richard Pohl*/
+public final class UciApplication implements SearchListener {
+
+	private static final String NAME = "MICE";
+	private static final String AUTHOR = "Richard Pohl";
+
+	/* THE LIMITS OF THE OPTIONS */
+	private static final int MAXIMUM_HASH 		= 65536;
+	private static final int MAXIMUM_THREADS 	= 256;
+
+	/** The stream to write the protocol to. */
+	private final PrintStream out;
+
+	/** The {@link Game} the {@link Automaton} plays in. */
+	private final Game game;
+
+	/** The position to search, set by the <code>position</code> command. */
+	private Position position;
+
+	/** The {@link Player} at move in {@link UciApplication#position}. */
+	private Player activePlayer = Player.WHITE;
+
+	/** The {@link Automaton} of the running search, null if there is
+	 * none. */
+	private volatile Automaton automaton;
+
+	/** The thread of the running search, null if there is none. */
+	private Thread searchThread;
+
+	/** The time the running search started at. */
+	private long searchStart;
+
+	/** The number of positions the running search visited so far. */
+	private long nodeCount;
+
+	/** true, iff the running search waits for <code>stop</code> before it
+	 * reports its best ply. */
+	private boolean infinite;
+
+	/** true, iff the running search was stopped. */
+	private boolean stopped;
+
+	/**
+	 * Constructs a {@link UciApplication}.
+	 * @param out - the stream to write the protocol to.
+	 * */
+	UciApplication(PrintStream out) {
+		this.out = out;
+		game = new Game();
+		position = game.getPosition();
+	}
+
+	public static void main(String [] args) throws IOException
+	{
+		ChessApplication.configure(args);
+		PrintStream out = System.out;
+		System.setOut(System.err);
+		UciApplication application = new UciApplication(out);
+		BufferedReader reader
+			= new BufferedReader(new InputStreamReader(System.in));
+		String line;
+		while ((line = reader.readLine()) != null)
+			if (!application.execute(line))
+				break;
+		application.stopSearch();
+	}
+
+	/**
+	 * Executes a command. A <code>go</code> command starts the search in
+	 * another thread, which writes the result.
+	 * @param command - the command line.
+	 * @return false, iff the command is <code>quit</code>.
+	 * */
+	boolean execute(String command) {
+		String[] tokens = command.trim().split("\\s+");
+		if (tokens[0].equals("uci"))
+		{
+			out.println("id name " + NAME);
+			out.println("id author " + AUTHOR);
+			out.println("option name Hash type spin default "
+					+ ChessApplication.getInstance()
+						.getTranspositionTableSize()
+					+ " min 1 max " + MAXIMUM_HASH);
+			out.println("option name Threads type spin default "
+					+ Automaton.getThreadNumber()
+					+ " min 1 max " + MAXIMUM_THREADS);
+			out.println("uciok");
+		}
+		else if (tokens[0].equals("isready"))
+			out.println("readyok");
+		else if (tokens[0].equals("setoption"))
+			setOption(tokens);
+		else if (tokens[0].equals("position"))
+			setPosition(tokens);
+		else if (tokens[0].equals("go"))
+			go(tokens);
+		else if (tokens[0].equals("stop"))
+			stopSearch();
+		else if (tokens[0].equals("quit"))
+			return false;
+		// other commands (e.g. ucinewgame) are ignored, the transposition
+		// table is kept, since it may be shared
+		return true;
+	}
+
+	/** Waits until the running search has reported its best ply. */
+	void waitForSearch() {
+		Thread thread = searchThread;
+		if (thread != null)
+		{
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Override
+	public void iterationCompleted(int depth, int evaluation,
+			long nodeCount, int[] principalVariation)
+	{
+		this.nodeCount += nodeCount;
+		long time = Math.max(1, System.currentTimeMillis() - searchStart);
+		out.println("info depth " + depth + " score cp " + evaluation
+				+ " nodes " + this.nodeCount
+				+ " nps " + this.nodeCount * 1000 / time + " time " + time
+				+ (principalVariation.length > 0?
+					" pv " + Move.toString(principalVariation): ""));
+	}
+
+	/**
+	 * Executes a <code>setoption</code> command.
+	 * @param tokens - the tokens of the command.
+	 * */
+	private void setOption(String[] tokens) {
+		String name = "", value = "";
+		for (int i = 1; i < tokens.length - 1; i++)
+		{
+			if (tokens[i].equals("name"))
+				name = tokens[i + 1];
+			else if (tokens[i].equals("value"))
+				value = tokens[i + 1];
+		}
+		try {
+			if (name.equalsIgnoreCase("Hash"))
+				ChessApplication.getInstance().setTranspositionTableSize(
+						Math.max(1, Math.min(MAXIMUM_HASH,
+								Integer.parseInt(value))));
+			else if (name.equalsIgnoreCase("Threads"))
+				ChessApplication.getInstance().setMaxThreadNumber(
+						Math.max(1, Math.min(MAXIMUM_THREADS,
+								Integer.parseInt(value))));
+			else
+			{
+				out.println("info string Unknown option " + name);
+				return;
+			}
+		} catch (NumberFormatException e) {
+			out.println("info string Illegal value " + value);
+			return;
+		}
+		// the tables and threads are created again with the next search
+		Automaton.reset();
+	}
+
+	/**
+	 * Executes a <code>position</code> command.
+	 * @param tokens - the tokens of the command.
+	 * */
+	private void setPosition(String[] tokens) {
+		// the index of "moves"
+		int index = 2;
+		String fen = FenParser.START_POSITION;
+		if (tokens.length > 1 && tokens[1].equals("fen"))
+		{
+			StringBuilder fenBuilder = new StringBuilder();
+			for (; index < tokens.length && !tokens[index].equals("moves");
+					index++)
+				fenBuilder.append(tokens[index]).append(' ');
+			fen = fenBuilder.toString();
+		}
+		GameState gameState;
+		try {
+			gameState = new FenParser(fen).parse();
+		} catch (IllegalArgumentException e) {
+			out.println("info string " + e.getMessage());
+			return;
+		}
+		SearchBoard board = new SearchBoard(gameState.getCurrentPosition(),
+				gameState.getActivePlayer());
+		Player player = gameState.getActivePlayer();
+		int[] moves = new int[SearchBoard.MAX_MOVES];
+		// make the moves after "moves"
+		for (index++; index < tokens.length; index++)
+		{
+			int count = board.generateLegalMoves(moves), move = Move.NONE;
+			for (int i = 0; i < count; i++)
+				if (Move.toString(moves[i]).equals(tokens[index]))
+					move = moves[i];
+			if (move == Move.NONE)
+			{
+				out.println("info string Illegal move " + tokens[index]);
+				break;
+			}
+			board.makeMove(move);
+			player = player.getOpponent();
+		}
+		position = board.toPosition();
+		activePlayer = player;
+	}
+
+	/**
+	 * Executes a <code>go</code> command: starts the search of
+	 * {@link UciApplication#position} in another thread.
+	 * @param tokens - the tokens of the command.
+	 * */
+	private void go(String[] tokens) {
+		waitForSearch();
+		int depth = Integer.MAX_VALUE;
+		long moveTime = -1, time = -1, increment = 0;
+		boolean infiniteSearch = false;
+		String timeToken = activePlayer == Player.WHITE? "wtime": "btime";
+		String incrementToken = activePlayer == Player.WHITE? "winc": "binc";
+		try {
+			for (int i = 1; i < tokens.length; i++)
+			{
+				if (tokens[i].equals("infinite"))
+					infiniteSearch = true;
+				else if (i + 1 == tokens.length)
+					break;
+				else if (tokens[i].equals("depth"))
+					depth = Integer.parseInt(tokens[i + 1]);
+				else if (tokens[i].equals("movetime"))
+					moveTime = Long.parseLong(tokens[i + 1]);
+				else if (tokens[i].equals(timeToken))
+					time = Long.parseLong(tokens[i + 1]);
+				else if (tokens[i].equals(incrementToken))
+					increment = Long.parseLong(tokens[i + 1]);
+			}
+		} catch (NumberFormatException e) {
+			out.println("info string " + e.getMessage());
+		}
+		// without a time limit, the search is only limited by the depth
+		TimeControl timeControl;
+		if (moveTime >= 0)
+			timeControl = new TimeControl(moveTime);
+		else if (time >= 0 && !infiniteSearch)
+			timeControl = new TimeControl(time, increment);
+		else
+			timeControl = new TimeControl(Long.MAX_VALUE);
+		final Position start = position;
+		final Player player = activePlayer;
+		final Automaton searchAutomaton
+			= new Automaton(player, Math.max(1, depth), timeControl);
+		searchAutomaton.setSearchListener(this);
+		searchAutomaton.setResigning(false);
+		synchronized (this) {
+			infinite = infiniteSearch;
+			stopped = false;
+		}
+		searchStart = System.currentTimeMillis();
+		nodeCount = 0;
+		game.setPosition(start);
+		game.setActivePlayer(player);
+		automaton = searchAutomaton;
+		searchThread = new Thread("UCI search") {
+			public void run()
+			{
+				searchAutomaton.turn();
+				int move = getMove(start, player, game.getPosition());
+				waitForStop();
+				automaton = null;
+				int[] principalVariation = game.getPrincipalVariation();
+				out.println("bestmove " + (move == Move.NONE? "0000":
+					Move.toString(move)) + (principalVariation.length > 1
+						&& principalVariation[0] == move?
+					" ponder " + Move.toString(principalVariation[1]): ""));
+			}
+		};
+		searchThread.start();
+	}
+
+	/** Stops the running search, which reports its best ply. */
+	private void stopSearch() {
+		synchronized (this) {
+			stopped = true;
+			notifyAll();
+		}
+		Automaton searchAutomaton = automaton;
+		if (searchAutomaton != null)
+			searchAutomaton.stop();
+		waitForSearch();
+	}
+
+	/** Waits for <code>stop</code>, if the running search is infinite. */
+	private synchronized void waitForStop() {
+		while (infinite && !stopped)
+		{
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @param start - the {@link Position} before a ply.
+	 * @param player - the {@link Player} at move in start.
+	 * @param next - the {@link Position} after the ply.
+	 * @return The ply from start to next, encoded by {@link Move}.
+	 * {@link Move#NONE}, if there is none.
+	 * */
+	private static int getMove(Position start, Player player, Position next) {
+		SearchBoard board = new SearchBoard(start, player);
+		int[] moves = new int[SearchBoard.MAX_MOVES];
+		int count = board.generateLegalMoves(moves);
+		for (int i = 0; i < count; i++)
+		{
+			board.makeMove(moves[i]);
+			boolean found = board.toPosition().equals(next);
+			board.unmakeMove();
+			if (found)
+				return moves[i];
+		}
+		return Move.NONE;
+	}
+}
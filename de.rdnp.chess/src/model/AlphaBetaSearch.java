@@ -0,0 +1,782 @@
+package model;
+
+import game.Player;
+
+/**
+ * A depth-first negamax search with alpha-beta pruning on a
+ * {@link SearchBoard}. It computes the same evaluations as a
+ * {@link PositionTree} of the same depth, but it does not store the searched
+ * positions and cuts off the plies that cannot change the evaluation of the
+ * start position.
+ * <br>
+ * Like in a PositionTree, only the plies of one figure can be considered in
+ * the first ply and the first ply has to be legal. On all successive plies,
+ * the plies of all figures are considered without checking for chess (taking
+ * the king is evaluated by the loss of the king's value).
+ * <br>
+ * The results of the searched positions can be stored in a
+ * {@link TranspositionTable}, which may be shared with other searches.
+ * <br>
+ * With a quiescence search (see
+ * {@link AlphaBetaSearch#setQuiescence(boolean)}), the positions at the
+ * depth are not evaluated by their material, but searched further with the
+ * plies that take figures, until the position is quiet. This avoids the
+ * horizon effect (e.g. taking a defended figure with the queen on the last
+ * ply), but the evaluations differ from the ones of a PositionTree.
+ * <br>
+ * The plies after the first ply are ordered by a {@link MoveOrdering}. The
+ * plies of the start position are searched in the order they are generated
+ * (see {@link AlphaBetaSearch#setFirstPly(int)}), except for the best ply of
+ * an earlier search, which is searched first. All plies but the first are
+ * searched with a null window first (principal variation search). The
+ * search collects the principal variation of each best ply (see
+ * {@link AlphaBetaSearch#getPrincipalVariations()}).
+ * <br>
+ * The plies after the first ply can be pruned by null-move pruning (see
+ * {@link AlphaBetaSearch#setNullMovePruning(boolean)}) and late-move
+ * reductions (see {@link AlphaBetaSearch#setLateMoveReductions(boolean)}).
+ * Both search less positions, but may miss the best ply.
+ * @author Richard Pohl*/
+public class AlphaBetaSearch {
+
+	/** A bound that is higher than the evaluation of any position. */
+	public static final int INFINITY = 1000000;
+
+	// the number of positions between two checks of the deadline
+	private static final int DEADLINE_CHECK_INTERVAL = 4096;
+
+	// the maximum number of plies of the quiescence search (each ply takes a
+	// figure or transforms a pawn, so there are less than 64)
+	private static final int MAXIMUM_QUIESCENCE_DEPTH = 64;
+
+	// the number of plies a null move reduces the depth by (in addition to
+	// the ply of the null move itself)
+	private static final int NULL_MOVE_REDUCTION = 2;
+	// the minimum remaining depth of positions to try a null move in
+	private static final int NULL_MOVE_MINIMUM_DEPTH = 3;
+	// the minimum remaining depth of positions to reduce late moves in
+	private static final int REDUCTION_MINIMUM_DEPTH = 3;
+	// the number of moves that are searched without reduction
+	private static final int REDUCTION_MINIMUM_MOVES = 3;
+
+	// the distance (in centipawns) of the bounds of the aspiration window
+	// from the expected evaluation
+	private static final int ASPIRATION_WINDOW = 50;
+	// the distance of the bounds after which the window is opened completely
+	private static final int MAXIMUM_ASPIRATION_WINDOW = 1000;
+
+	// the margin (in centipawns) by which taking a figure has to be able to
+	// raise the evaluation above alpha, so that it is searched (delta pruning)
+	private static final int DELTA_MARGIN = 200;
+
+	/** The board to search on. */
+	private final SearchBoard board;
+	/** The number of plies to consider, see {@link PositionTree}. */
+	private final int depth;
+	/** The move buffers of the search, indexed by the remaining depth. */
+	private final int[][] moves;
+	/** The scores of the moves in {@link AlphaBetaSearch#moves}. */
+	private final int[][] scores;
+	/** The move buffers of the quiescence search, indexed by the number of
+	 * plies after the depth. They are created on demand. */
+	private final int[][] quiescenceMoves
+		= new int[MAXIMUM_QUIESCENCE_DEPTH][];
+	/** The scores of the moves in {@link AlphaBetaSearch#quiescenceMoves}. */
+	private final int[][] quiescenceScores
+		= new int[MAXIMUM_QUIESCENCE_DEPTH][];
+	/** Orders the moves of the search. */
+	private final MoveOrdering moveOrdering;
+	/** See {@link AlphaBetaSearch#setQuiescence(boolean)}. */
+	private boolean quiescence;
+	/** See {@link AlphaBetaSearch#setNullMovePruning(boolean)}. */
+	private boolean nullMovePruning;
+	/** See {@link AlphaBetaSearch#setLateMoveReductions(boolean)}. */
+	private boolean lateMoveReductions;
+	/** The transposition table, null if no table is used. */
+	private final TranspositionTable transpositionTable;
+	/** The number of positions visited by the search. */
+	private long nodeCount;
+	/** The number of positions visited by the quiescence search. */
+	private long quiescenceNodeCount;
+	/** The number of positions in which a move caused a cut-off. */
+	private long cutoffCount;
+	/** The number of positions in which the first move caused a cut-off. */
+	private long firstMoveCutoffCount;
+	/** The number of null moves searched. */
+	private long nullMoveCount;
+	/** The number of null moves that caused a cut-off. */
+	private long nullMoveCutoffCount;
+	/** The number of moves searched with reduced depth. */
+	private long reductionCount;
+	/** The number of reduced moves searched again with the full depth. */
+	private long reductionReSearchCount;
+	/** The time (in milliseconds) at which the search is aborted. */
+	private long deadline = Long.MAX_VALUE;
+	/** See {@link AlphaBetaSearch#isAborted()}. */
+	private boolean aborted;
+	/** The number of positions until the deadline is checked, see
+	 * {@link AlphaBetaSearch#checkAborted()}. */
+	private int deadlineCheckCountdown = DEADLINE_CHECK_INTERVAL;
+	/** Set to stop the search from another thread, see 
+	 * {@link AlphaBetaSearch#stop()}. */
+	private volatile boolean stopped;
+	/** The first ply searched, the plies before it are searched last. This
+	 * varies the order of the plies for helper searches. */
+	private int firstPly;
+	/** The principal variations of the positions, indexed by the number of
+	 * plies from the start position. The principal variation of the
+	 * position at ply starts at index ply. */
+	private final int[][] variations;
+	/** The end indices of the {@link AlphaBetaSearch#variations}. */
+	private final int[] variationLengths;
+	/** See {@link AlphaBetaSearch#setExpectedEvaluation(int)}. */
+	private int expectedEvaluation = Integer.MIN_VALUE;
+	/** The number of searches of the start position that were repeated,
+	 * because the evaluation was outside the aspiration window. */
+	private long aspirationReSearchCount;
+	/** The best plies found by the last search, encoded by {@link Move}. */
+	private int[] bestMoves = new int[SearchBoard.MAX_MOVES];
+	/** The principal variations of the {@link AlphaBetaSearch#bestMoves}. */
+	private int[][] bestVariations = new int[SearchBoard.MAX_MOVES][];
+	/** The number of best plies found by the last search. */
+	private int bestMoveCount;
+
+	/**
+	 * Constructs an {@link AlphaBetaSearch}.
+	 * @param player - the {@link Player} at move in start.
+	 * @param start - the {@link Position} to start the search from.
+	 * @param depth - the number of plies to consider, see
+	 * {@link PositionTree#PositionTree(Player, Position, Figure, int)}.
+	 * @throws IllegalArgumentException - if depth is less than 1.
+	 * */
+	public AlphaBetaSearch(Player player, Position start, int depth) {
+		this(player, start, depth, null);
+	}
+
+	/**
+	 * Constructs an {@link AlphaBetaSearch} that uses a
+	 * {@link TranspositionTable}.
+	 * @param player - the {@link Player} at move in start.
+	 * @param start - the {@link Position} to start the search from.
+	 * @param depth - the number of plies to consider, see
+	 * {@link PositionTree#PositionTree(Player, Position, Figure, int)}.
+	 * @param transpositionTable - the table to store the search results in,
+	 * null if no table should be used.
+	 * @throws IllegalArgumentException - if depth is less than 1.
+	 * */
+	public AlphaBetaSearch(Player player, Position start, int depth,
+			TranspositionTable transpositionTable)
+	{
+		// the plies of the start position are the first level of the search
+		if (depth < 1)
+			throw new IllegalArgumentException("Illegal depth: " + depth);
+		this.depth = depth;
+		this.transpositionTable = transpositionTable;
+		board = new SearchBoard(start, player);
+		moves = new int[depth][SearchBoard.MAX_MOVES];
+		scores = new int[depth][SearchBoard.MAX_MOVES];
+		moveOrdering = new MoveOrdering(depth);
+		variations = new int[depth + 1][depth + 1];
+		variationLengths = new int[depth + 1];
+	}
+
+	/**
+	 * Sets a deadline for the searches. A search that is not finished at the
+	 * deadline is aborted (see {@link AlphaBetaSearch#isAborted()}).
+	 * @param deadline - the time in milliseconds (as returned by 
+	 * System.currentTimeMillis()), Long.MAX_VALUE if there is no deadline.
+	 * */
+	public void setDeadline(long deadline) {
+		this.deadline = deadline;
+	}
+
+	/** @return true, iff a search was aborted because of the deadline or
+	 * because it was stopped. The results of an aborted search are incomplete
+	 * and must not be used. */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/** Stops a running search. This may be called by any thread. The search
+	 * is aborted (see {@link AlphaBetaSearch#isAborted()}). */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Sets the table that caches the evaluations of the pawn structures, see
+	 * {@link SearchBoard#setPawnHashTable(PawnHashTable)}.
+	 * @param pawnHashTable - the table, which may be shared with other
+	 * searches, null if no table should be used.
+	 * */
+	public void setPawnHashTable(PawnHashTable pawnHashTable) {
+		board.setPawnHashTable(pawnHashTable);
+	}
+
+	/**
+	 * Enables or disables the quiescence search. If it is enabled, the
+	 * positions at the depth are searched further with the plies that take
+	 * figures or transform pawns into queens, until there are no such plies.
+	 * The player at move may always stop taking figures (stand pat), and
+	 * plies that cannot raise the evaluation to alpha are not searched (delta
+	 * pruning). It is disabled by default.
+	 * @param quiescence - true to enable the quiescence search.
+	 * */
+	public void setQuiescence(boolean quiescence) {
+		this.quiescence = quiescence;
+	}
+
+	/**
+	 * Enables or disables null-move pruning. If it is enabled, the player at
+	 * move passes the right to move to the opponent (a null move) in
+	 * positions that seem good enough for a cut-off, and the opponent's
+	 * plies are searched with a reduced depth. If the position is still good
+	 * enough, the position is cut off without searching the plies of the
+	 * player at move. Null moves are not made if the player at move is in
+	 * chess, after another null move and if the player has no other figures
+	 * than the king and pawns, since passing would be better than any ply in
+	 * the zugzwang positions of pawn endgames. It is disabled by default.
+	 * @param nullMovePruning - true to enable null-move pruning.
+	 * */
+	public void setNullMovePruning(boolean nullMovePruning) {
+		this.nullMovePruning = nullMovePruning;
+	}
+
+	/**
+	 * Enables or disables late-move reductions. If they are enabled, the
+	 * quiet plies (see {@link MoveOrdering#isQuiet(int)}) that are ordered
+	 * late are searched with a reduced depth, unless the player at move is in
+	 * chess or the ply checks the opponent. Only if a reduced ply turns out
+	 * to be better than the best ply so far, it is searched again with the
+	 * full depth. They are disabled by default.
+	 * @param lateMoveReductions - true to enable late-move reductions.
+	 * */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	/**
+	 * Sets the evaluation the search of the start position is expected to
+	 * result in, e.g. the evaluation of a search with a lower depth. The
+	 * start position is searched with a narrow window around this evaluation
+	 * (aspiration window), which cuts off more plies. If the evaluation is
+	 * outside the window, the start position is searched again.
+	 * @param expectedEvaluation - the expected evaluation,
+	 * Integer.MIN_VALUE to search without an aspiration window.
+	 * */
+	public void setExpectedEvaluation(int expectedEvaluation) {
+		this.expectedEvaluation = expectedEvaluation;
+	}
+
+	/**
+	 * Varies the order in which the plies of the start position are searched.
+	 * @param firstPly - the index of the first ply to search.
+	 * */
+	void setFirstPly(int firstPly) {
+		this.firstPly = firstPly;
+	}
+
+	/** @return The best plies found by the last search, encoded by
+	 * {@link Move}, in the order of the positions of its result. */
+	public int[] getBestMoves() {
+		int[] result = new int[bestMoveCount];
+		System.arraycopy(bestMoves, 0, result, 0, bestMoveCount);
+		return result;
+	}
+
+	/** @return The principal variations of the best plies found by the last
+	 * search, i.e. the plies that are expected to follow when both players
+	 * play their best plies, each starting with the best ply and encoded by
+	 * {@link Move}, in the order of the positions of its result. */
+	public int[][] getPrincipalVariations() {
+		int[][] result = new int[bestMoveCount][];
+		System.arraycopy(bestVariations, 0, result, 0, bestMoveCount);
+		return result;
+	}
+
+	/** @return The number of searches of the start position that were
+	 * repeated because the evaluation was outside the aspiration window,
+	 * see {@link AlphaBetaSearch#setExpectedEvaluation(int)}. */
+	public long getAspirationReSearchCount() {
+		return aspirationReSearchCount;
+	}
+
+	/** @return The number of positions visited by the searches so far. */
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/** @return The number of positions visited by the quiescence searches so
+	 * far (these are included in {@link AlphaBetaSearch#getNodeCount()}). */
+	public long getQuiescenceNodeCount() {
+		return quiescenceNodeCount;
+	}
+
+	/** @return The number of lookups in the {@link PawnHashTable}, see
+	 * {@link SearchBoard#getPawnHashProbeCount()}. */
+	public long getPawnHashProbeCount() {
+		return board.getPawnHashProbeCount();
+	}
+
+	/** @return The number of lookups in the {@link PawnHashTable} that found
+	 * the pawn structure. */
+	public long getPawnHashHitCount() {
+		return board.getPawnHashHitCount();
+	}
+
+	/** @return The number of positions in which a ply caused a cut-off, i.e.
+	 * the remaining plies were not searched. */
+	public long getCutoffCount() {
+		return cutoffCount;
+	}
+
+	/** @return The number of null moves searched, see
+	 * {@link AlphaBetaSearch#setNullMovePruning(boolean)}. */
+	public long getNullMoveCount() {
+		return nullMoveCount;
+	}
+
+	/** @return The number of null moves that caused a cut-off. */
+	public long getNullMoveCutoffCount() {
+		return nullMoveCutoffCount;
+	}
+
+	/** @return The number of plies searched with a reduced depth, see
+	 * {@link AlphaBetaSearch#setLateMoveReductions(boolean)}. */
+	public long getReductionCount() {
+		return reductionCount;
+	}
+
+	/** @return The number of reduced plies that were searched again with the
+	 * full depth. */
+	public long getReductionReSearchCount() {
+		return reductionReSearchCount;
+	}
+
+	/** @return The number of positions in which the first ply caused a
+	 * cut-off. The share of these positions in
+	 * {@link AlphaBetaSearch#getCutoffCount()} measures the quality of the
+	 * move ordering. */
+	public long getFirstMoveCutoffCount() {
+		return firstMoveCutoffCount;
+	}
+
+	/**
+	 * Searches the best plies of figure.
+	 * @param figure - the {@link Figure} to move in the first ply.
+	 * @return The legal plies of figure that have the highest evaluation
+	 * for the player at move in the start position (after considering the
+	 * number of plies given by depth) and this evaluation, which is
+	 * Integer.MIN_VALUE if figure cannot move.
+	 * */
+	public PositionComputationResult search(Figure figure) {
+		int figureLocation = -2;
+		for (int i = 0; i < 64; i++)
+			if (board.getFigureAt(i) == figure)
+				figureLocation = i;
+		return search(figureLocation);
+	}
+
+	/**
+	 * Searches the best plies of all figures.
+	 * @return The legal plies that have the highest evaluation for the player
+	 * at move in the start position (after considering the number of plies
+	 * given by depth) and this evaluation, which is Integer.MIN_VALUE if
+	 * there is no legal ply.
+	 * */
+	public PositionComputationResult search() {
+		return search(-1);
+	}
+
+	/**
+	 * Searches the best plies of the start position. If an expected
+	 * evaluation is set, the search starts with an aspiration window around
+	 * it and is repeated with a wider window if the evaluation is outside.
+	 * @param figureLocation - the location of the figure to move in the first
+	 * ply, -1 to move all figures.
+	 * */
+	private PositionComputationResult search(int figureLocation) {
+		int alpha = -INFINITY, beta = INFINITY;
+		int window = ASPIRATION_WINDOW;
+		if (expectedEvaluation != Integer.MIN_VALUE)
+		{
+			alpha = expectedEvaluation - window;
+			beta = expectedEvaluation + window;
+		}
+		PositionComputationResult result;
+		while (true)
+		{
+			result = searchRoot(figureLocation, alpha, beta);
+			int evaluation = result.getMaximumAdvantageN();
+			if (aborted || evaluation == Integer.MIN_VALUE)
+				return result;
+			// widen the window on the side the evaluation is outside
+			window *= 4;
+			if (evaluation <= alpha)
+				alpha = window > MAXIMUM_ASPIRATION_WINDOW?
+						-INFINITY: evaluation - window;
+			else if (evaluation >= beta)
+				beta = window > MAXIMUM_ASPIRATION_WINDOW?
+						INFINITY: evaluation + window;
+			else
+				break;
+			aspirationReSearchCount++;
+		}
+		// the start position is searched completely, so its result is exact
+		if (transpositionTable != null && figureLocation == -1)
+			transpositionTable.store(board.getHash(), depth,
+				TranspositionTable.EXACT, result.getMaximumAdvantageN(),
+				bestMoves[0]);
+		for (int i = 0; i < bestMoveCount; i++)
+			bestVariations[i] = extendVariation(bestVariations[i]);
+		result.setPrincipalVariation(bestVariations[0]);
+		return result;
+	}
+
+	/**
+	 * Searches the best plies of the start position within a window. The
+	 * first ply is searched with the full window, the other plies with a
+	 * null window first (principal variation search), which only proves that
+	 * they are worse than the best ply so far. Plies that are not worse are
+	 * searched again to compute their exact evaluation.
+	 * @param figureLocation - see
+	 * {@link AlphaBetaSearch#search(int)}.
+	 * @param alpha - the lower bound of the window.
+	 * @param beta - the upper bound of the window.
+	 * @return The best plies and their evaluation, which is not better than
+	 * alpha or not worse than beta, if the evaluation is outside the window.
+	 * */
+	private PositionComputationResult searchRoot(int figureLocation,
+			int alpha, int beta)
+	{
+		PositionComputationResult result = new PositionComputationResult();
+		int bestEvaluation = Integer.MIN_VALUE;
+		bestMoveCount = 0;
+		int count = board.generateLegalMoves(moves[0]);
+		// search the best ply of an earlier search first
+		if (transpositionTable != null && count > 0)
+		{
+			int hashMove = TranspositionTable.getMove(
+					transpositionTable.probe(board.getHash()));
+			for (int j = 0; j < count; j++)
+				if (moves[0][j] == hashMove)
+				{
+					moves[0][j] = moves[0][firstPly % count];
+					moves[0][firstPly % count] = hashMove;
+					break;
+				}
+		}
+		for (int j = 0; j < count && bestEvaluation < beta; j++)
+		{
+			int move = moves[0][(j + firstPly) % count];
+			if (figureLocation != -1 && Move.getFrom(move) != figureLocation)
+				continue;
+			nodeCount++;
+			board.makeMove(move);
+			int evaluation;
+			if (bestEvaluation == Integer.MIN_VALUE)
+				evaluation = -search(depth - 1, -beta, -alpha);
+			else
+			{
+				// searching with bound = best - 1 computes the exact
+				// evaluation of all plies that are as good as the best ply
+				// found so far
+				int bound = Math.max(alpha, bestEvaluation - 1);
+				evaluation = -search(depth - 1, -bound - 1, -bound);
+				if (evaluation > bound)
+					evaluation = -search(depth - 1, -beta, -bound);
+			}
+			if (evaluation > bestEvaluation)
+			{
+				bestEvaluation = evaluation;
+				result.getPositions().clear();
+				bestMoveCount = 0;
+			}
+			if (evaluation == bestEvaluation)
+			{
+				result.getPositions().add(board.toPosition());
+				bestVariations[bestMoveCount] = getVariation(move);
+				bestMoves[bestMoveCount++] = move;
+			}
+			board.unmakeMove();
+			if (aborted)
+				break;
+		}
+		result.setMaximumAdvantageN(bestEvaluation);
+		return result;
+	}
+
+	/**
+	 * The negamax search with alpha-beta pruning. The first ply is searched
+	 * with the full window, the other plies with a null window first
+	 * (principal variation search): only plies that turn out to be better
+	 * than alpha are searched again with the full window. The best plies of
+	 * the positions with an exact evaluation are collected as principal
+	 * variation.
+	 * @param depth - the number of plies left to consider.
+	 * @param alpha - the evaluation the player at move is already sure to
+	 * reach.
+	 * @param beta - the evaluation the opponent is already sure to reach,
+	 * negated.
+	 * @return The evaluation of the board for the player at move, if it is
+	 * between alpha and beta. Otherwise, a bound that is not better than
+	 * alpha or not worse than beta.
+	 * */
+	private int search(int depth, int alpha, int beta) {
+		int ply = board.getPlyCount();
+		variationLengths[ply] = ply;
+		if (checkAborted())
+			return 0;
+		if (depth == 0)
+			return quiescence? quiesce(alpha, beta, 0): board.evaluate();
+		// look up the position in the transposition table
+		long key = 0;
+		int hashMove = Move.NONE;
+		if (transpositionTable != null)
+		{
+			key = board.getHash();
+			long entry = transpositionTable.probe(key);
+			if (entry != 0)
+				hashMove = TranspositionTable.getMove(entry);
+			if (entry != 0 && TranspositionTable.getDepth(entry) >= depth)
+			{
+				int evaluation = TranspositionTable.getEvaluation(entry);
+				int bound = TranspositionTable.getBound(entry);
+				if (bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER_BOUND
+							&& evaluation >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND
+							&& evaluation <= alpha))
+					return evaluation;
+			}
+		}
+		// pass the right to move and cut off, if the position is still good
+		// enough for the player at move
+		boolean inChess = (nullMovePruning || lateMoveReductions)
+			&& board.isInChess();
+		if (nullMovePruning && depth >= NULL_MOVE_MINIMUM_DEPTH && !inChess
+				&& board.getLastMove() != Move.NONE
+				&& board.hasPieces(board.getColor())
+				&& board.evaluate() >= beta)
+		{
+			nullMoveCount++;
+			board.makeNullMove();
+			int evaluation = -search(depth - 1 - NULL_MOVE_REDUCTION, -beta,
+					-beta + 1);
+			board.unmakeMove();
+			if (evaluation >= beta && !aborted)
+			{
+				nullMoveCutoffCount++;
+				return evaluation;
+			}
+		}
+		int[] depthMoves = moves[depth];
+		int[] depthScores = scores[depth];
+		int count = board.generateMoves(depthMoves);
+		moveOrdering.score(depthMoves, depthScores, count, hashMove, ply,
+				board.getColor());
+		int initialAlpha = alpha;
+		int bestEvaluation = -INFINITY;
+		int bestMove = Move.NONE;
+		for (int i = 0; i < count; i++)
+		{
+			int move = moveOrdering.select(depthMoves, depthScores, count, i);
+			nodeCount++;
+			board.makeMove(move);
+			int evaluation;
+			if (i == 0)
+				evaluation = -search(depth - 1, -beta, -alpha);
+			else
+			{
+				// search late quiet plies with reduced depth first, only
+				// plies that raise alpha are searched with the full depth
+				boolean reduced = lateMoveReductions
+					&& depth >= REDUCTION_MINIMUM_DEPTH
+					&& i >= REDUCTION_MINIMUM_MOVES && !inChess
+					&& MoveOrdering.isQuiet(depthScores[i])
+					&& !board.isInChess();
+				if (reduced)
+					reductionCount++;
+				evaluation = -search(reduced? depth - 2: depth - 1,
+						-alpha - 1, -alpha);
+				if (reduced && evaluation > alpha)
+				{
+					reductionReSearchCount++;
+					evaluation = -search(depth - 1, -alpha - 1, -alpha);
+				}
+				if (evaluation > alpha && evaluation < beta)
+					evaluation = -search(depth - 1, -beta, -alpha);
+			}
+			board.unmakeMove();
+			if (evaluation > bestEvaluation)
+			{
+				bestEvaluation = evaluation;
+				bestMove = move;
+				if (evaluation > alpha)
+				{
+					alpha = evaluation;
+					updateVariation(ply, move);
+					if (alpha >= beta)
+					{
+						if (!aborted)
+						{
+							cutoffCount++;
+							if (i == 0)
+								firstMoveCutoffCount++;
+							moveOrdering.cutoff(move, ply, board.getColor(),
+									depth);
+						}
+						break;
+					}
+				}
+			}
+		}
+		// store the result in the transposition table
+		if (aborted)
+			return 0;
+		if (transpositionTable != null)
+			transpositionTable.store(key, depth, 
+				bestEvaluation <= initialAlpha? TranspositionTable.UPPER_BOUND:
+				bestEvaluation >= beta? TranspositionTable.LOWER_BOUND:
+				TranspositionTable.EXACT, bestEvaluation, bestMove);
+		return bestEvaluation;
+	}
+
+	/**
+	 * Collects the principal variation of the position at ply: move,
+	 * followed by the principal variation of the position after move.
+	 * @param ply - the number of plies from the start position.
+	 * @param move - the best ply of the position.
+	 * */
+	private void updateVariation(int ply, int move) {
+		int[] variation = variations[ply];
+		variation[ply] = move;
+		int length = variationLengths[ply + 1];
+		System.arraycopy(variations[ply + 1], ply + 1, variation, ply + 1,
+				length - ply - 1);
+		variationLengths[ply] = length;
+	}
+
+	/**
+	 * @param move - a ply of the start position, which is made on the board.
+	 * @return move, followed by the principal variation of the position
+	 * after move.
+	 * */
+	private int[] getVariation(int move) {
+		int[] variation = new int[Math.max(variationLengths[1], 1)];
+		variation[0] = move;
+		System.arraycopy(variations[1], 1, variation, 1, variation.length - 1);
+		return variation;
+	}
+
+	/**
+	 * Extends a principal variation that ends before the depth (because the
+	 * search found the evaluation of a position in the transposition table)
+	 * by the best plies of the exact entries in the table.
+	 * @param variation - a principal variation of the start position.
+	 * @return The extended principal variation.
+	 * */
+	private int[] extendVariation(int[] variation) {
+		if (transpositionTable == null || variation.length >= depth)
+			return variation;
+		int[] result = new int[depth];
+		System.arraycopy(variation, 0, result, 0, variation.length);
+		int length = variation.length;
+		for (int i = 0; i < length; i++)
+			board.makeMove(result[i]);
+		while (length < depth)
+		{
+			long entry = transpositionTable.probe(board.getHash());
+			if (entry == 0 || TranspositionTable.getBound(entry)
+					!= TranspositionTable.EXACT)
+				break;
+			// the entry may stem from another position with the same key
+			int move = TranspositionTable.getMove(entry);
+			int count = board.generateMoves(moves[0]);
+			int i = 0;
+			while (i < count && moves[0][i] != move)
+				i++;
+			if (i == count)
+				break;
+			board.makeMove(move);
+			result[length++] = move;
+		}
+		for (int i = 0; i < length; i++)
+			board.unmakeMove();
+		int[] extended = new int[length];
+		System.arraycopy(result, 0, extended, 0, length);
+		return extended;
+	}
+
+	/**
+	 * The quiescence search, which searches the plies that take figures or
+	 * transform pawns into queens.
+	 * @param alpha - see {@link AlphaBetaSearch#search(int, int, int)}.
+	 * @param beta - see {@link AlphaBetaSearch#search(int, int, int)}.
+	 * @param ply - the number of plies searched after the depth.
+	 * @return See {@link AlphaBetaSearch#search(int, int, int)}.
+	 * */
+	private int quiesce(int alpha, int beta, int ply) {
+		// the first position of the quiescence search is checked by search
+		if (ply > 0 && checkAborted())
+			return 0;
+		// the player at move can choose not to take any figure
+		int standPat = board.evaluate();
+		if (standPat >= beta || ply == MAXIMUM_QUIESCENCE_DEPTH)
+			return standPat;
+		if (standPat > alpha)
+			alpha = standPat;
+		if (quiescenceMoves[ply] == null)
+		{
+			quiescenceMoves[ply] = new int[SearchBoard.MAX_MOVES];
+			quiescenceScores[ply] = new int[SearchBoard.MAX_MOVES];
+		}
+		int[] plyMoves = quiescenceMoves[ply];
+		int[] plyScores = quiescenceScores[ply];
+		int count = board.generateCaptures(plyMoves);
+		moveOrdering.scoreCaptures(plyMoves, plyScores, count);
+		int bestEvaluation = standPat;
+		for (int i = 0; i < count; i++)
+		{
+			int move = moveOrdering.select(plyMoves, plyScores, count, i);
+			// skip captures that cannot raise the evaluation to alpha, even
+			// if the taking figure is not taken back
+			if (Move.getPromotion(move) == 0 && standPat + DELTA_MARGIN
+					+ BitBoard.VALUES[Move.getCaptured(move)] <= alpha)
+				continue;
+			nodeCount++;
+			quiescenceNodeCount++;
+			board.makeMove(move);
+			int evaluation = -quiesce(-beta, -alpha, ply + 1);
+			board.unmakeMove();
+			if (evaluation > bestEvaluation)
+			{
+				bestEvaluation = evaluation;
+				if (evaluation > alpha)
+				{
+					alpha = evaluation;
+					if (alpha >= beta)
+						break;
+				}
+			}
+		}
+		return aborted? 0: bestEvaluation;
+	}
+
+	/**
+	 * Is called for every position. Checks on every
+	 * {@link AlphaBetaSearch#DEADLINE_CHECK_INTERVAL}th call, if the deadline
+	 * is reached or the search was stopped, and sets
+	 * {@link AlphaBetaSearch#aborted}.
+	 * @return true, iff the search is aborted.
+	 * */
+	private boolean checkAborted() {
+		if (--deadlineCheckCountdown == 0)
+		{
+			deadlineCheckCountdown = DEADLINE_CHECK_INTERVAL;
+			if (stopped || System.currentTimeMillis() > deadline)
+				aborted = true;
+		}
+		return aborted;
+	}
+}
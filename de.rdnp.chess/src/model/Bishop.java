@@ -22,6 +22,11 @@ public class Bishop extends Figure {
 		return 300d;
 	}
 	
+	@Override
+	public final int getPieceType() {
+		return BitBoard.BISHOP;
+	}
+	
 	@Override
 	public final String toString() {
 		return super.toString()+"B";
@@ -37,7 +42,7 @@ public class Bishop extends Figure {
 	}
 
 	@Override
-	public final int getHashKey(int location) {
+	public final long getHashKey(int location) {
 		return getOwner().getHashKeyProvider().getHashKey(location, this);
 	}
 
@@ -0,0 +1,387 @@
+package model;
+
+import game.Player;
+
+/**
+ * An alternative board representation for {@link Position} that holds the
+ * locations of the figures in twelve <code>long</code> bit masks (one for each
+ * combination of figure type and owner) plus one occupancy mask for each
+ * {@link Player}.
+ * <br>
+ * The bit index of a location is the same as the index of the location in
+ * the figure array of {@link Position}:<br>
+ * 		x-coordinate * 8 + y-coordinate<br>
+ * Queries that would otherwise walk the figure array (e.g. collecting the
+ * figures of a player) can be answered with a few bit operations. The sums of
+ * the {@link PieceSquareTables} values of both players are updated with each
+ * figure that is placed or removed, and the evaluation of the pawn structure
+ * is kept until the pawns change, so evaluating the board takes constant
+ * time in most positions.
+ * <br>
+ * See {@link Position#setBoardBackend(int)} on how to select the board
+ * representation used by {@link Position}.
+ * @author Richard Pohl*/
+public class BitBoard {
+
+	/* THE FIGURE TYPES */
+	/** Figure type constant for a {@link Pawn}. */
+	public static final int PAWN 	= 0;
+	/** Figure type constant for a {@link Knight}. */
+	public static final int KNIGHT 	= 1;
+	/** Figure type constant for a {@link Bishop}. */
+	public static final int BISHOP 	= 2;
+	/** Figure type constant for a {@link Rook}. */
+	public static final int ROOK 	= 3;
+	/** Figure type constant for a {@link Queen}. */
+	public static final int QUEEN 	= 4;
+	/** Figure type constant for a {@link King}. */
+	public static final int KING 	= 5;
+
+	/* THE COLORS */
+	/** Color constant for {@link Player#WHITE}. */
+	public static final int WHITE 	= 0;
+	/** Color constant for {@link Player#BLACK}. */
+	public static final int BLACK 	= 1;
+
+	/** The number of piece masks (figure types times colors). */
+	public static final int PIECE_COUNT = 12;
+
+	/** The values of the figure types in centipawns, indexed by figure type.
+	 * These are the values returned by {@link Figure#getValue()}. */
+	static final int[] VALUES = {100, 320, 300, 450, 950, 100000};
+
+	// the locations attacked by a knight/king, indexed by location
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	// the locations attacked by a pawn, indexed by color and location
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+	static {
+		int[][] knightOffsets = {{-2, -1}, {-2, 1}, {2, -1}, {2, 1},
+				{-1, -2}, {-1, 2}, {1, -2}, {1, 2}};
+		int[][] kingOffsets = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1},
+				{0, 1}, {1, -1}, {1, 0}, {1, 1}};
+		for (int location = 0; location < 64; location++)
+		{
+			KNIGHT_ATTACKS[location] = computeAttacks(location, knightOffsets);
+			KING_ATTACKS[location] = computeAttacks(location, kingOffsets);
+			PAWN_ATTACKS[WHITE][location] = computeAttacks(location,
+					new int[][] {{-1, 1}, {1, 1}});
+			PAWN_ATTACKS[BLACK][location] = computeAttacks(location,
+					new int[][] {{-1, -1}, {1, -1}});
+		}
+	}
+
+	/** The piece masks, indexed by {@link BitBoard#getPieceIndex(int, int)}.
+	 * */
+	private final long[] pieces;
+
+	/** The occupancy masks, indexed by color. */
+	private final long[] occupancy;
+
+	/** The sums of the middlegame values of the figures (see
+	 * {@link PieceSquareTables}), indexed by color. */
+	private final int[] middlegameValues = new int[2];
+
+	/** The sums of the endgame values of the figures, indexed by color. */
+	private final int[] endgameValues = new int[2];
+
+	/** The game phase, see {@link PieceSquareTables#taper(int, int, int)}. */
+	private int phase;
+
+	/** See {@link BitBoard#getPawnKey()}. */
+	private long pawnKey;
+
+	/** The pawn scores of the last call of {@link BitBoard#evaluate(int)}
+	 * (see {@link PawnStructure#evaluate(long, long)}). */
+	private long pawnScores;
+	/** The pawn key the {@link BitBoard#pawnScores} were computed for XOR
+	 * the pawn scores. Like the entries of a {@link PawnHashTable}, the
+	 * scores are only used, if the XOR of both values results in the
+	 * current pawn key, so they can be computed by multiple threads without
+	 * locking. */
+	private long pawnScoresCheck;
+
+	/**
+	 * Constructs a {@link BitBoard} from a figure array in the format used by
+	 * {@link Position}.
+	 * @param figures - the figures, indexed by location.
+	 * */
+	BitBoard(Figure[] figures) {
+		pieces = new long[PIECE_COUNT];
+		occupancy = new long[2];
+		for (int i = 0; i < 64; i++)
+			if (figures[i] != null)
+				set(i, figures[i].getPieceIndex());
+		// no pawn scores are computed yet
+		pawnScoresCheck = ~pawnKey;
+	}
+
+	/**
+	 * Constructs a copy of a {@link BitBoard}.
+	 * @param bitBoard - the BitBoard to copy.
+	 * */
+	BitBoard(BitBoard bitBoard) {
+		pieces = new long[PIECE_COUNT];
+		occupancy = new long[2];
+		System.arraycopy(bitBoard.pieces, 0, pieces, 0, PIECE_COUNT);
+		occupancy[WHITE] = bitBoard.occupancy[WHITE];
+		occupancy[BLACK] = bitBoard.occupancy[BLACK];
+		middlegameValues[WHITE] = bitBoard.middlegameValues[WHITE];
+		middlegameValues[BLACK] = bitBoard.middlegameValues[BLACK];
+		endgameValues[WHITE] = bitBoard.endgameValues[WHITE];
+		endgameValues[BLACK] = bitBoard.endgameValues[BLACK];
+		phase = bitBoard.phase;
+		pawnKey = bitBoard.pawnKey;
+		// most copies keep the pawn structure and thus the pawn scores
+		pawnScores = bitBoard.pawnScores;
+		pawnScoresCheck = bitBoard.pawnScoresCheck;
+	}
+
+	/**
+	 * @param type - one of the figure type constants defined in
+	 * {@link BitBoard}.
+	 * @param color - {@link BitBoard#WHITE} or {@link BitBoard#BLACK}.
+	 * @return The index of the piece mask for figures of type and color.
+	 * */
+	public static int getPieceIndex(int type, int color) {
+		return color * 6 + type;
+	}
+
+	/**
+	 * @param location - the location of the knight.
+	 * @return The locations attacked by a knight at location.
+	 * */
+	public static long getKnightAttacks(int location) {
+		return KNIGHT_ATTACKS[location];
+	}
+
+	/**
+	 * @param location - the location of the king.
+	 * @return The locations attacked by a king at location (without 
+	 * castling).
+	 * */
+	public static long getKingAttacks(int location) {
+		return KING_ATTACKS[location];
+	}
+
+	/**
+	 * @param color - the color of the pawn.
+	 * @param location - the location of the pawn.
+	 * @return The locations a pawn of the given color at location attacks
+	 * (diagonally in its direction of movement).
+	 * */
+	public static long getPawnAttacks(int color, int location) {
+		return PAWN_ATTACKS[color][location];
+	}
+
+	/** Computes the locations reachable from location with the given 
+	 * (x-offset, y-offset) pairs. */
+	private static long computeAttacks(int location, int[][] offsets) {
+		long attacks = 0;
+		for (int[] offset: offsets)
+		{
+			int x = location / 8 + offset[0], y = location % 8 + offset[1];
+			if (x >= 0 && x < 8 && y >= 0 && y < 8)
+				attacks |= 1L << (x * 8 + y);
+		}
+		return attacks;
+	}
+
+	/**
+	 * @param player - a {@link Player}.
+	 * @return The color constant corresponding to player.
+	 * */
+	public static int getColor(Player player) {
+		return player == Player.BLACK? BLACK: WHITE;
+	}
+
+	/** Places a piece on a location.
+	 * @param location - the index of the location.
+	 * @param pieceIndex - the index of the piece mask to set the bit in. */
+	final void set(int location, int pieceIndex) {
+		long bit = 1L << location;
+		pieces[pieceIndex] |= bit;
+		occupancy[pieceIndex / 6] |= bit;
+		middlegameValues[pieceIndex / 6]
+			+= PieceSquareTables.getMiddlegameValue(pieceIndex, location);
+		endgameValues[pieceIndex / 6]
+			+= PieceSquareTables.getEndgameValue(pieceIndex, location);
+		phase += PieceSquareTables.getPhase(pieceIndex);
+		if (pieceIndex % 6 == PAWN)
+			pawnKey ^= getPawnKey(pieceIndex, location);
+	}
+
+	/** Removes a piece from a location.
+	 * @param location - the index of the location.
+	 * @param pieceIndex - the index of the piece mask to clear the bit in. */
+	final void clear(int location, int pieceIndex) {
+		long bit = ~(1L << location);
+		pieces[pieceIndex] &= bit;
+		occupancy[pieceIndex / 6] &= bit;
+		middlegameValues[pieceIndex / 6]
+			-= PieceSquareTables.getMiddlegameValue(pieceIndex, location);
+		endgameValues[pieceIndex / 6]
+			-= PieceSquareTables.getEndgameValue(pieceIndex, location);
+		phase -= PieceSquareTables.getPhase(pieceIndex);
+		if (pieceIndex % 6 == PAWN)
+			pawnKey ^= getPawnKey(pieceIndex, location);
+	}
+
+	/** @return The pawn key of the board, i.e. the XOR of the hash keys of
+	 * all pawns (see {@link HashKeyProvider#getPawnKey(int)}). It identifies
+	 * the pawn structure, see {@link PawnHashTable}. */
+	public final long getPawnKey() {
+		return pawnKey;
+	}
+
+	/**
+	 * @param pieceIndex - the index of the piece mask to return (see
+	 * {@link BitBoard#getPieceIndex(int, int)}).
+	 * @return The locations of all figures of the given type and color.
+	 * */
+	public final long getPieces(int pieceIndex) {
+		return pieces[pieceIndex];
+	}
+
+	/**
+	 * @param color - {@link BitBoard#WHITE} or {@link BitBoard#BLACK}.
+	 * @return The locations of all figures of the given color.
+	 * */
+	public final long getOccupancy(int color) {
+		return occupancy[color];
+	}
+
+	/** @return The locations of all figures on the board. */
+	public final long getOccupancy() {
+		return occupancy[WHITE] | occupancy[BLACK];
+	}
+
+	/**
+	 * @param location - the index of the location.
+	 * @return The index of the piece mask that contains location, -1 if the
+	 * location is empty.
+	 * */
+	public final int getPieceIndex(int location) {
+		long bit = 1L << location;
+		if (((occupancy[WHITE] | occupancy[BLACK]) & bit) == 0)
+			return -1;
+		for (int i = 0; i < PIECE_COUNT; i++)
+			if ((pieces[i] & bit) != 0)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * @param location - the index of the location.
+	 * @param byColor - the color of the attacking figures.
+	 * @return true, iff a figure of byColor could take a figure at location
+	 * with its next ply. The attacks are looked up from location outwards.
+	 * */
+	public final boolean isAttacked(int location, int byColor) {
+		long occupied = getOccupancy();
+		long queens = pieces[getPieceIndex(QUEEN, byColor)];
+		return (getKnightAttacks(location)
+				& pieces[getPieceIndex(KNIGHT, byColor)]) != 0
+			|| (getPawnAttacks(1 - byColor, location)
+				& pieces[getPieceIndex(PAWN, byColor)]) != 0
+			|| (getKingAttacks(location)
+				& pieces[getPieceIndex(KING, byColor)]) != 0
+			|| (SlidingAttacks.getBishopAttacks(location, occupied)
+				& (queens | pieces[getPieceIndex(BISHOP, byColor)])) != 0
+			|| (SlidingAttacks.getRookAttacks(location, occupied)
+				& (queens | pieces[getPieceIndex(ROOK, byColor)])) != 0;
+	}
+
+	/**
+	 * @param color - the color of the attacking figures.
+	 * @return The locations at which a figure of color could take a figure
+	 * with its next ply (the attack map of color).
+	 * */
+	public final long getAttacks(int color) {
+		long occupied = getOccupancy();
+		long attacks = 0;
+		for (long p = pieces[getPieceIndex(PAWN, color)]; p != 0; p &= p - 1)
+			attacks |= getPawnAttacks(color, Long.numberOfTrailingZeros(p));
+		for (long p = pieces[getPieceIndex(KNIGHT, color)]; p != 0; p &= p - 1)
+			attacks |= getKnightAttacks(Long.numberOfTrailingZeros(p));
+		for (long p = pieces[getPieceIndex(KING, color)]; p != 0; p &= p - 1)
+			attacks |= getKingAttacks(Long.numberOfTrailingZeros(p));
+		long queens = pieces[getPieceIndex(QUEEN, color)];
+		for (long p = pieces[getPieceIndex(BISHOP, color)] | queens; p != 0;
+				p &= p - 1)
+			attacks |= SlidingAttacks.getBishopAttacks(
+					Long.numberOfTrailingZeros(p), occupied);
+		for (long p = pieces[getPieceIndex(ROOK, color)] | queens; p != 0;
+				p &= p - 1)
+			attacks |= SlidingAttacks.getRookAttacks(
+					Long.numberOfTrailingZeros(p), occupied);
+		return attacks;
+	}
+
+	/**
+	 * @param color - the color to evaluate the board for.
+	 * @return The advantage of color in centipawns, computed as in
+	 * {@link Position#evaluate(Player)} from the sums of the
+	 * {@link PieceSquareTables} values and the {@link PawnStructure}. The
+	 * pawn structure is only evaluated again, if the pawn key changed.
+	 * */
+	public final int evaluate(int color) {
+		long scores = pawnScores;
+		if ((pawnScoresCheck ^ scores) != pawnKey)
+		{
+			scores = PawnStructure.evaluate(
+					pieces[getPieceIndex(PAWN, WHITE)],
+					pieces[getPieceIndex(PAWN, BLACK)]);
+			pawnScores = scores;
+			pawnScoresCheck = pawnKey ^ scores;
+		}
+		return evaluate(color, scores);
+	}
+
+	/**
+	 * @param color - the color to evaluate the board for.
+	 * @param pawnScores - the pawn scores of the board (see
+	 * {@link PawnStructure#evaluate(long, long)}), e.g. from a
+	 * {@link PawnHashTable}.
+	 * @return See {@link BitBoard#evaluate(int)}.
+	 * */
+	public final int evaluate(int color, long pawnScores) {
+		int sign = color == WHITE? 1: -1;
+		return PieceSquareTables.taper(
+				middlegameValues[color] - middlegameValues[1 - color]
+					+ sign * PawnStructure.getMiddlegameValue(pawnScores),
+				endgameValues[color] - endgameValues[1 - color]
+					+ sign * PawnStructure.getEndgameValue(pawnScores),
+				phase);
+	}
+
+	/** @return The pawn key of a pawn at location. */
+	private static long getPawnKey(int pieceIndex, int location) {
+		return (pieceIndex / 6 == WHITE? Player.WHITE: Player.BLACK)
+			.getHashKeyProvider().getPawnKey(location);
+	}
+
+	/** Two {@link BitBoard} objects are equal, iff all of their piece masks
+	 * are equal. */
+	@Override
+	public final boolean equals(Object obj) {
+		if (obj instanceof BitBoard)
+		{
+			BitBoard anotherBitBoard = (BitBoard) obj;
+			for (int i = 0; i < PIECE_COUNT; i++)
+				if (pieces[i] != anotherBitBoard.pieces[i])
+					return false;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public final int hashCode() {
+		long hash = 0;
+		for (int i = 0; i < PIECE_COUNT; i++)
+			hash = hash * 31 + pieces[i];
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
@@ -10,6 +10,11 @@ public abstract class Figure {
 	/** The {@link Player} of the {@link Figure}. */
 	protected Player owner;
 	
+	/** The index of the figure in the piece lists of the positions, -1 if
+	 * no index was assigned yet. The index is assigned when the figure first
+	 * enters a position (see {@link Position#getFigureLocation(Figure)}). */
+	volatile int pieceListIndex = -1;
+	
 	
 	/** Constructs a {@link Figure}.
 	 * @param owner - the {@link Player} that owns the {@link Figure}.  
@@ -23,9 +28,33 @@ public abstract class Figure {
 		return owner;
 	}
 	
-	/** @return The value of the figure (in centipawns). */
-	public abstract double getValue();
+	/** 
+	 * Assigns an index in the piece lists of the positions to the figure, 
+	 * unless an index was assigned before (possibly by another thread).
+	 * @param index - the index to assign.
+	 * @return The index of the figure.
+	 * */
+	final synchronized int assignPieceListIndex(int index) {
+		if (pieceListIndex < 0)
+			pieceListIndex = index;
+		return pieceListIndex;
+	}
 	
+	/** @return The material value of the figure (in centipawns), regardless
+	 * of its location (see {@link PieceSquareTables}). */
+	public abstract double getValue();
+
+	/** @return The type of the figure - one of the figure type constants
+	 * defined in {@link BitBoard}. */
+	public abstract int getPieceType();
+
+	/** @return The index of the piece mask in a {@link BitBoard} that holds
+	 * figures of this figure's type and owner. */
+	public final int getPieceIndex() {
+		return BitBoard.getPieceIndex(getPieceType(),
+				BitBoard.getColor(owner));
+	}
+
 	/** @return true iff the figure collides with a figure of the own player. */
 	protected final boolean isCollidingWithOwn(Position position, int x, int y)
 	{
@@ -50,6 +79,12 @@ public abstract class Figure {
 	protected final ChessLocation[]	
 	                             computeBishopOnePlyLocations(Position position)
 	{
+		// with a bit board, the reachable locations are a table lookup
+		BitBoard bitBoard = position.getBitBoard();
+		if (bitBoard != null)
+			return computeSlidingOnePlyLocations(bitBoard, 
+				SlidingAttacks.getBishopAttacks(
+					getLocationIndex(position), bitBoard.getOccupancy()), 15);
 		ChessLocation[] result = new ChessLocation[15];
 		int resultIndex = 0;
 		// the assumed position of the Bishop-compatible figure
@@ -122,6 +157,12 @@ public abstract class Figure {
 	protected final ChessLocation[] computeRookOnePlyLocations(
 			Position position)
 	{
+		// with a bit board, the reachable locations are a table lookup
+		BitBoard bitBoard = position.getBitBoard();
+		if (bitBoard != null)
+			return computeSlidingOnePlyLocations(bitBoard, 
+				SlidingAttacks.getRookAttacks(
+					getLocationIndex(position), bitBoard.getOccupancy()), 15);
 		ChessLocation[] result = new ChessLocation[15];
 		int resultIndex = 0;
 		// the assumed position of the Rook-compatible figure
@@ -181,6 +222,41 @@ public abstract class Figure {
 		return result;
 	}
 	
+	/** Converts the locations attacked by a sliding figure into the 
+	 * {@link ChessLocation} instances reachable with one legal ply, i.e. 
+	 * removes the locations of figures of the own player.
+	 * @param bitBoard - the {@link BitBoard} of the position.
+	 * @param attacks - the locations attacked by this figure (see 
+	 * {@link SlidingAttacks}).
+	 * @param size - the size of the result array.
+	 * @return An array with the resulting ChessLocation instances.
+	 * The array is of fixed size. 
+	 * The last elements of the result array are null. */
+	protected final ChessLocation[] computeSlidingOnePlyLocations(
+			BitBoard bitBoard, long attacks, int size)
+	{
+		ChessLocation[] result = new ChessLocation[size];
+		int resultIndex = 0;
+		long targets 
+			= attacks & ~bitBoard.getOccupancy(BitBoard.getColor(owner));
+		while (targets != 0)
+		{
+			int location = Long.numberOfTrailingZeros(targets);
+			result[resultIndex++] = new ChessLocation(location / 8, 
+					location % 8);
+			targets &= targets - 1;
+		}
+		return result;
+	}
+	
+	/** @return The index (x-coordinate * 8 + y-coordinate) of the location
+	 * of this figure in position. */
+	protected final int getLocationIndex(Position position)
+	{
+		ChessLocation location = position.getFigureLocation(this);
+		return location.x * 8 + location.y;
+	}
+	
 	/** Computes the positions of this figure after one legal ply, starting 
 	 *  from position. 
 	 *  The array is of fixed size. 
@@ -214,6 +290,6 @@ public abstract class Figure {
 	 * @return One of 64 ids depending on the position, the {@link Figure} owner
 	 * and the figure type (used for hashing, see 
 	 * {@link Position#computeZobristHash}). */
-	public abstract int getHashKey(int location);
+	public abstract long getHashKey(int location);
 	
 }
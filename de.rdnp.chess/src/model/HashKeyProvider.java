@@ -9,6 +9,10 @@ import java.util.Random;
  * (see {@link Position#computeZobristHash}). Is usually owned by a 
  * {@link Player} and provides hash keys that depend on the state of a location
  * and the Player.
+ * <br>
+ * The keys are 64 bit wide. The keys for the state of a position that does
+ * not depend on a Player (castling history, en passant line and the Player
+ * at move) are provided by static methods.
  * 
  * Remark: This is actually a GOF visitor.
  * @author Richard Pohl
@@ -24,20 +28,75 @@ public class HashKeyProvider {
 	private static final int BISHOP_OFFSET 	= 64;
 	private static final int PAWN_OFFSET	= 0;
 	
+	// the seed of the keys that do not depend on a player
+	private static final int POSITION_SEED = 1512;
+	
+	// the keys of all castling histories, indexed by castling history
+	private static final long[] CASTLING_KEYS = new long[16];
+	// the keys of the en passant lines, indexed by line
+	private static final long[] EN_PASSANT_KEYS = new long[8];
+	// the key of positions in which black is at move
+	private static final long BLACK_AT_MOVE_KEY;
+	
+	static {
+		Random random = new Random(POSITION_SEED);
+		// one key per castling type, the key of a castling history is the XOR
+		// of the keys of all allowed castling types
+		long[] castlingTypeKeys = new long[4];
+		for (int i = 0; i < castlingTypeKeys.length; i++)
+			castlingTypeKeys[i] = random.nextLong();
+		for (int i = 0; i < CASTLING_KEYS.length; i++)
+			for (int type = 0; type < castlingTypeKeys.length; type++)
+				if ((i & (1 << type)) != 0)
+					CASTLING_KEYS[i] ^= castlingTypeKeys[type];
+		for (int i = 0; i < EN_PASSANT_KEYS.length; i++)
+			EN_PASSANT_KEYS[i] = random.nextLong();
+		BLACK_AT_MOVE_KEY = random.nextLong();
+	}
+	
 	// the hash keys are pre-computed for fast access
-	private final int[] hashKeys;
+	private final long[] hashKeys;
 	
 	public HashKeyProvider(int seed) {
-		hashKeys = new int[384];
+		hashKeys = new long[384];
 		Random random = new Random(seed);
 		for (int i = 0; i < hashKeys.length; i++)
-			hashKeys[i] = random.nextInt();
+			hashKeys[i] = random.nextLong();
+	}
+	
+	/**
+	 * @param castlingHistory - a castling history (see 
+	 * {@link Position#getCastlingHistory()}).
+	 * @return The hash key of the castling history.
+	 * */
+	public static final long getCastlingKey(int castlingHistory)
+	{
+		return CASTLING_KEYS[castlingHistory & 0x0F];
+	}
+	
+	/**
+	 * @param enPassantLine - an en passant line (see 
+	 * {@link Position#getEnPassantLine()}).
+	 * @return The hash key of the en passant line, 0 if enPassantLine is -1.
+	 * */
+	public static final long getEnPassantKey(int enPassantLine)
+	{
+		return enPassantLine == -1? 0: EN_PASSANT_KEYS[enPassantLine];
+	}
+	
+	/**
+	 * @param player - the {@link Player} at move.
+	 * @return The hash key of the Player at move, 0 for {@link Player#WHITE}.
+	 * */
+	public static final long getPlayerKey(Player player)
+	{
+		return player == Player.BLACK? BLACK_AT_MOVE_KEY: 0;
 	}
 	
 	/**
 	 * @return A hash key for the constellation defined by the parameters.
 	 * */
-	public final int getHashKey(int location, King king)
+	public final long getHashKey(int location, King king)
 	{
 		int hashIndex = location + KING_OFFSET;
 		return hashKeys[hashIndex]; 
@@ -46,7 +105,7 @@ public class HashKeyProvider {
 	/**
 	 * @return A hash key for the constellation defined by the parameters.
 	 * */
-	public final int getHashKey(int location, Queen queen)
+	public final long getHashKey(int location, Queen queen)
 	{
 		int hashIndex = location + QUEEN_OFFSET;
 		return hashKeys[hashIndex]; 
@@ -55,7 +114,7 @@ public class HashKeyProvider {
 	/**
 	 * @return A hash key for the constellation defined by the parameters.
 	 * */
-	public final int getHashKey(int location, Rook rook)
+	public final long getHashKey(int location, Rook rook)
 	{
 		int hashIndex = location + ROOK_OFFSET;
 		return hashKeys[hashIndex]; 
@@ -64,7 +123,7 @@ public class HashKeyProvider {
 	/**
 	 * @return A hash key for the constellation defined by the parameters.
 	 * */
-	public final int getHashKey(int location, Knight knight)
+	public final long getHashKey(int location, Knight knight)
 	{
 		int hashIndex = location + KNIGHT_OFFSET;
 		return hashKeys[hashIndex]; 
@@ -73,7 +132,7 @@ public class HashKeyProvider {
 	/**
 	 * @return A hash key for the constellation defined by the parameters.
 	 * */
-	public final int getHashKey(int location, Bishop bishop)
+	public final long getHashKey(int location, Bishop bishop)
 	{
 		int hashIndex = location + BISHOP_OFFSET;
 		return hashKeys[hashIndex]; 
@@ -82,7 +141,17 @@ public class HashKeyProvider {
 	/**
 	 * @return A hash key for the constellation defined by the parameters.
 	 * */
-	public final int getHashKey(int location, Pawn pawn)
+	public final long getHashKey(int location, Pawn pawn)
+	{
+		return getPawnKey(location);
+	}
+
+	/**
+	 * @param location - the index of a location.
+	 * @return The hash key of a pawn at location, which is also used for
+	 * the pawn keys of {@link BitBoard#getPawnKey()}.
+	 * */
+	public final long getPawnKey(int location)
 	{
 		int hashIndex = location + PAWN_OFFSET;
 		return hashKeys[hashIndex]; 
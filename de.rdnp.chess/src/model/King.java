@@ -16,6 +16,11 @@ public class King extends Figure {
 		return 100000d;
 	}
 	
+	@Override
+	public final int getPieceType() {
+		return BitBoard.KING;
+	}
+	
 	@Override
 	public final String toString() {
 		return super.toString()+"K";
@@ -198,7 +203,12 @@ public class King extends Figure {
 					position.getFigureLocation(this).y);
 		};
 		// return if no rook was found to save time
-		if (rook == null) 
+		if (rook == null || rook.getClass() != Rook.class 
+				|| rook.getOwner() != getOwner()) 
+			return null;
+		// the king has to be on its initial location
+		if (kingLocation.x != 4 || kingLocation.y 
+				!= (getOwner() == Player.BLACK? 7: 0))
 			return null;
 		// check, if all fields are free
 		boolean castleLegal =
@@ -212,11 +222,11 @@ public class King extends Figure {
 		// to increase performance return if castle fails here, because chess
 		// check is costly
 		if (!castleLegal) 	return null; 
-		castleLegal &=
 		// check for chess and threats to fields the king moves across:
-			!(getOwner().chess(position, new ChessLocation [] {kingLocation,
-					castleKingLocation,
-					castleRookLocation}));
+		long attackMap = position.getAttackMap(getOwner().getOpponent());
+		castleLegal &= (attackMap & (1L << (kingLocation.x * 8 + kingLocation.y)
+				| 1L << (castleKingLocation.x * 8 + castleKingLocation.y)
+				| 1L << (castleRookLocation.x * 8 + castleRookLocation.y))) == 0;
 		if (castleLegal)
 		{
 			// now build the position after castle in two steps:
@@ -230,7 +240,7 @@ public class King extends Figure {
 	}
 	
 	@Override
-	public final int getHashKey(int location) {
+	public final long getHashKey(int location) {
 		return getOwner().getHashKeyProvider().getHashKey(location, this);
 	}
 }
@@ -58,6 +58,11 @@ public class Knight extends Figure {
 		return 320d;
 	}
 	
+	@Override
+	public final int getPieceType() {
+		return BitBoard.KNIGHT;
+	}
+	
 	@Override
 	public final String toString() {
 		return super.toString()+"N";
@@ -73,7 +78,7 @@ public class Knight extends Figure {
 	}
 
 	@Override
-	public final int getHashKey(int location) {
+	public final long getHashKey(int location) {
 		return getOwner().getHashKeyProvider().getHashKey(location, this);
 	}
 }
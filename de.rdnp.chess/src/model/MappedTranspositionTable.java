@@ -0,0 +1,130 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link TranspositionTable} whose entries are kept outside of the heap,
+ * so that the garbage collector does not need to visit them. The entries
+ * are either
+ * <ul>
+ * <li>kept in a file that is mapped into memory, so that they survive the
+ * end of the application and can be shared by several applications that map
+ * the same file, or</li>
+ * <li>kept in anonymous (direct) memory, if they do not need to persist.</li>
+ * </ul>
+ * The entries are packed and verified like the entries of a
+ * {@link TranspositionTable}, so that the table can be written without
+ * locking, even by several applications. An entry of another application or
+ * of a table with another size is only found, if it verifies against the
+ * probed key. The generation of the searches (see
+ * {@link TranspositionTable#newSearch()}) is not shared.
+ * <br>
+ * Since a buffer holds at most 2 gigabytes, the entries are split into
+ * segments of 1 gigabyte.
+ * @author Richard Pohl*/
+public class MappedTranspositionTable extends TranspositionTable {
+
+	// the number of long values of a segment (1 gigabyte)
+	private static final int SEGMENT_SHIFT = 27;
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	/** The buffers of the segments. */
+	private final ByteBuffer[] buffers;
+	/** The long views of the buffers, in the native byte order. */
+	private final LongBuffer[] segments;
+
+	/**
+	 * Constructs an empty {@link MappedTranspositionTable} in anonymous
+	 * memory.
+	 * @param megabytes - see
+	 * {@link TranspositionTable#TranspositionTable(int)}.
+	 * */
+	public MappedTranspositionTable(int megabytes) {
+		super(megabytes, false);
+		buffers = new ByteBuffer[getSegmentCount()];
+		for (int i = 0; i < buffers.length; i++)
+			buffers[i] = ByteBuffer.allocateDirect(getSegmentSize(i));
+		segments = getSegments(buffers);
+	}
+
+	/**
+	 * Constructs a {@link MappedTranspositionTable} that is kept in a file.
+	 * @param megabytes - see
+	 * {@link TranspositionTable#TranspositionTable(int)}.
+	 * @param file - the file of the table. It is created, if it does not
+	 * exist, and its entries are kept, if it does. The file is extended to
+	 * the size of the table, if it is shorter, but never shortened, which
+	 * would invalidate the mappings of other tables of the file.
+	 * @throws IOException - if the file cannot be opened or mapped.
+	 * */
+	public MappedTranspositionTable(int megabytes, File file)
+		throws IOException
+	{
+		super(megabytes, false);
+		buffers = new ByteBuffer[getSegmentCount()];
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			if (randomAccessFile.length() < getSize())
+				randomAccessFile.setLength(getSize());
+			FileChannel channel = randomAccessFile.getChannel();
+			// the mappings stay valid after the file is closed
+			for (int i = 0; i < buffers.length; i++)
+				buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+						(long) i << (SEGMENT_SHIFT + 3), getSegmentSize(i));
+		} finally {
+			randomAccessFile.close();
+		}
+		segments = getSegments(buffers);
+	}
+
+	/** Writes the entries that are kept in a file to the file. */
+	public final void flush() {
+		for (ByteBuffer buffer: buffers)
+			if (buffer instanceof MappedByteBuffer)
+				((MappedByteBuffer) buffer).force();
+	}
+
+	@Override
+	public final void clear() {
+		for (LongBuffer segment: segments)
+			for (int i = 0; i < segment.capacity(); i++)
+				segment.put(i, 0L);
+	}
+
+	@Override
+	protected final long getEntry(int index) {
+		return segments[index >>> SEGMENT_SHIFT].get(index & SEGMENT_MASK);
+	}
+
+	@Override
+	protected final void setEntry(int index, long value) {
+		segments[index >>> SEGMENT_SHIFT].put(index & SEGMENT_MASK, value);
+	}
+
+	/** @return The number of segments of the table. */
+	private int getSegmentCount() {
+		return (int) ((getSize() - 1 >> (SEGMENT_SHIFT + 3)) + 1);
+	}
+
+	/** @return The size of the segment with index in bytes. */
+	private int getSegmentSize(int index) {
+		return (int) Math.min(getSize() - ((long) index << (SEGMENT_SHIFT + 3)),
+				1L << (SEGMENT_SHIFT + 3));
+	}
+
+	/** @return The long views of buffers, in the native byte order. */
+	private static LongBuffer[] getSegments(ByteBuffer[] buffers) {
+		LongBuffer[] segments = new LongBuffer[buffers.length];
+		for (int i = 0; i < buffers.length; i++)
+			segments[i] = buffers[i].order(ByteOrder.nativeOrder())
+				.asLongBuffer();
+		return segments;
+	}
+}
@@ -0,0 +1,146 @@
+package model;
+
+/**
+ * Encodes plies as <code>int</code> values for the {@link SearchBoard}.
+ * A move holds the location the figure is moved from, the location it is
+ * moved to, the type of the moved figure, the type of the taken figure (if
+ * any), the figure type a pawn is transformed into (if any) and flags for
+ * the special plies (castling, en passant and moving a pawn by two rows).
+ * Moves are plain values, so generating, sorting and storing them does not
+ * create any objects.
+ * <br>
+ * Locations are indexed as in {@link BitBoard} (x-coordinate * 8 +
+ * y-coordinate), figure types are the type constants defined in
+ * {@link BitBoard}.
+ * @author Richard Pohl*/
+public final class Move {
+
+	/** Constant for an empty move, i.e. no move at all. */
+	public static final int NONE = 0;
+
+	/** Constant for the taken figure type of a move that takes no figure. */
+	public static final int NO_CAPTURE = -1;
+
+	/* THE MOVE FLAGS */
+	/** Flag of a move that moves a pawn by two rows. */
+	public static final int DOUBLE_PAWN_PUSH 	= 0x1;
+	/** Flag of a move that takes a pawn en passant. */
+	public static final int EN_PASSANT 			= 0x2;
+	/** Flag of a castling move (the move of the king). */
+	public static final int CASTLING 			= 0x4;
+
+	// bit offsets of the fields in a move
+	private static final int TO_SHIFT 			= 6;
+	private static final int PROMOTION_SHIFT 	= 12;
+	private static final int FLAGS_SHIFT 		= 15;
+	private static final int PIECE_SHIFT 		= 18;
+	private static final int CAPTURED_SHIFT 	= 21;
+
+	private Move() {}
+
+	/**
+	 * @param from - the location the figure is moved from.
+	 * @param to - the location the figure is moved to.
+	 * @param piece - the type of the moved figure.
+	 * @param captured - the type of the taken figure, {@link Move#NO_CAPTURE}
+	 * if the move takes no figure.
+	 * @param promotion - the type of the figure a pawn is transformed into,
+	 * 0 if the move is no pawn transformation (there is no transformation
+	 * into a pawn).
+	 * @param flags - a combination of the move flags defined in {@link Move}.
+	 * @return The encoded move.
+	 * */
+	public static int create(int from, int to, int piece, int captured,
+			int promotion, int flags)
+	{
+		// the taken figure type is stored incremented, so 0 means no capture
+		return from | to << TO_SHIFT | promotion << PROMOTION_SHIFT
+			| flags << FLAGS_SHIFT | piece << PIECE_SHIFT
+			| (captured + 1) << CAPTURED_SHIFT;
+	}
+
+	/** @return The location the figure is moved from. */
+	public static int getFrom(int move) {
+		return move & 0x3F;
+	}
+
+	/** @return The location the figure is moved to. */
+	public static int getTo(int move) {
+		return (move >>> TO_SHIFT) & 0x3F;
+	}
+
+	/** @return The type of the moved figure. */
+	public static int getPiece(int move) {
+		return (move >>> PIECE_SHIFT) & 0x7;
+	}
+
+	/** @return The type of the taken figure, {@link Move#NO_CAPTURE} if the
+	 * move takes no figure. */
+	public static int getCaptured(int move) {
+		return ((move >>> CAPTURED_SHIFT) & 0x7) - 1;
+	}
+
+	/** @return true, iff the move takes a figure. */
+	public static boolean isCapture(int move) {
+		return (move >>> CAPTURED_SHIFT & 0x7) != 0;
+	}
+
+	/** @return The figure type a pawn is transformed into, 0 if the move is no
+	 * pawn transformation. */
+	public static int getPromotion(int move) {
+		return (move >>> PROMOTION_SHIFT) & 0x7;
+	}
+
+	/** @return The move flags of the move. */
+	public static int getFlags(int move) {
+		return (move >>> FLAGS_SHIFT) & 0x7;
+	}
+
+	/** @return true, iff the move is a castling move. */
+	public static boolean isCastling(int move) {
+		return (getFlags(move) & CASTLING) != 0;
+	}
+
+	/** @return true, iff the move takes a pawn en passant. */
+	public static boolean isEnPassant(int move) {
+		return (getFlags(move) & EN_PASSANT) != 0;
+	}
+
+	/** @return true, iff the move moves a pawn by two rows. */
+	public static boolean isDoublePawnPush(int move) {
+		return (getFlags(move) & DOUBLE_PAWN_PUSH) != 0;
+	}
+
+	/**
+	 * @return The move in coordinate notation, e.g. "e2e4" or "e7e8q".
+	 * */
+	public static String toString(int move) {
+		String result = new ChessLocation(getFrom(move) / 8, getFrom(move) % 8)
+			.toString() + new ChessLocation(getTo(move) / 8, getTo(move) % 8);
+		switch (getPromotion(move))
+		{
+			case BitBoard.KNIGHT: 	result += "n"; break;
+			case BitBoard.BISHOP: 	result += "b"; break;
+			case BitBoard.ROOK: 	result += "r"; break;
+			case BitBoard.QUEEN: 	result += "q"; break;
+			default:
+		}
+		return result;
+	}
+
+	/**
+	 * @param moves - a sequence of moves, e.g. a principal variation.
+	 * @return The moves in coordinate notation (see
+	 * {@link Move#toString(int)}), separated by spaces.
+	 * */
+	public static String toString(int[] moves) {
+		StringBuilder result = new StringBuilder();
+		for (int move: moves)
+		{
+			if (result.length() > 0)
+				result.append(' ');
+			result.append(toString(move));
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,166 @@
+package model;
+
+/**
+ * Orders the moves of an {@link AlphaBetaSearch}, so that the moves that
+ * most likely cause a cut-off are searched first:
+ * <ol>
+ * <li>the best move of an earlier search of the position (the hash move),</li>
+ * <li>the moves that take figures or transform pawns, the most valuable
+ * taken figure first and, for the same taken figure, the least valuable
+ * taking figure first (MVV-LVA),</li>
+ * <li>the killer moves, i.e. the last two moves that caused a cut-off in a
+ * position with the same number of plies from the start position,</li>
+ * <li>all other moves, by the history table, which counts how often a
+ * figure type moved to a location caused a cut-off (weighted by the
+ * remaining depth).</li>
+ * </ol>
+ * The moves are scored in an array that is parallel to the move array, and
+ * each move is selected when it is searched. If the first move causes a
+ * cut-off, the other moves are never sorted.
+ * <br>
+ * A MoveOrdering keeps the killer moves and the history table of one search
+ * and is not thread-safe.
+ * @author Richard Pohl*/
+public class MoveOrdering {
+
+	/* THE SCORES OF THE MOVE CLASSES */
+	private static final int HASH_MOVE_SCORE 	= 1 << 30;
+	private static final int CAPTURE_SCORE 		= 1 << 29;
+	private static final int KILLER_MOVE_SCORE 	= 1 << 28;
+
+	// the history scores are halved when one reaches this value, so that
+	// they stay below the killer moves and adapt to new positions
+	private static final int MAXIMUM_HISTORY_SCORE = 1 << 20;
+
+	/** The two killer moves, indexed by the number of plies from the start
+	 * position. */
+	private final int[][] killerMoves;
+
+	/** The history scores, indexed by the piece index (see
+	 * {@link BitBoard#getPieceIndex(int, int)}) and the target location. */
+	private final int[][] historyScores
+		= new int[BitBoard.PIECE_COUNT][64];
+
+	/**
+	 * Constructs an empty {@link MoveOrdering}.
+	 * @param maximumPly - the maximum number of plies from the start position
+	 * of the positions to order the moves of.
+	 * */
+	public MoveOrdering(int maximumPly) {
+		killerMoves = new int[maximumPly + 1][2];
+	}
+
+	/**
+	 * Scores the moves of a position.
+	 * @param moves - the moves, encoded by {@link Move}.
+	 * @param scores - the array that receives the scores.
+	 * @param count - the number of moves.
+	 * @param hashMove - the hash move, {@link Move#NONE} if there is none.
+	 * @param ply - the number of plies from the start position.
+	 * @param color - the color at move.
+	 * */
+	public final void score(int[] moves, int[] scores, int count,
+			int hashMove, int ply, int color)
+	{
+		int[] killers = killerMoves[ply];
+		for (int i = 0; i < count; i++)
+		{
+			int move = moves[i];
+			if (move == hashMove)
+				scores[i] = HASH_MOVE_SCORE;
+			else if (Move.isCapture(move) || Move.getPromotion(move) != 0)
+				scores[i] = getCaptureScore(move);
+			else if (move == killers[0])
+				scores[i] = KILLER_MOVE_SCORE;
+			else if (move == killers[1])
+				scores[i] = KILLER_MOVE_SCORE - 1;
+			else
+				scores[i] = historyScores[BitBoard.getPieceIndex(
+						Move.getPiece(move), color)][Move.getTo(move)];
+		}
+	}
+
+	/**
+	 * Scores moves that take figures or transform pawns by MVV-LVA.
+	 * @param moves - the moves, encoded by {@link Move}.
+	 * @param scores - the array that receives the scores.
+	 * @param count - the number of moves.
+	 * */
+	public final void scoreCaptures(int[] moves, int[] scores, int count) {
+		for (int i = 0; i < count; i++)
+			scores[i] = getCaptureScore(moves[i]);
+	}
+
+	/**
+	 * Selects the move with the highest score among the moves from index on
+	 * and swaps it (and its score) to index.
+	 * @param moves - the scored moves.
+	 * @param scores - the scores of the moves.
+	 * @param count - the number of moves.
+	 * @param index - the index of the move to select.
+	 * @return The selected move.
+	 * */
+	public final int select(int[] moves, int[] scores, int count, int index) {
+		int best = index;
+		for (int i = index + 1; i < count; i++)
+			if (scores[i] > scores[best])
+				best = i;
+		int move = moves[best];
+		moves[best] = moves[index];
+		moves[index] = move;
+		int score = scores[best];
+		scores[best] = scores[index];
+		scores[index] = score;
+		return move;
+	}
+
+	/**
+	 * @param score - the score of a move, see
+	 * {@link MoveOrdering#score(int[], int[], int, int, int, int)}.
+	 * @return true, iff the move is neither the hash move, nor a move that
+	 * takes a figure or transforms a pawn, nor a killer move, i.e. it is
+	 * ordered by the history table only.
+	 * */
+	public static boolean isQuiet(int score) {
+		return score < KILLER_MOVE_SCORE - 1;
+	}
+
+	/**
+	 * Registers a move that caused a cut-off as killer move and in the
+	 * history table. Moves that take figures or transform pawns are already
+	 * searched early and not registered.
+	 * @param move - the move that caused the cut-off.
+	 * @param ply - the number of plies from the start position.
+	 * @param color - the color at move.
+	 * @param depth - the remaining depth of the position.
+	 * */
+	public final void cutoff(int move, int ply, int color, int depth) {
+		if (Move.isCapture(move) || Move.getPromotion(move) != 0)
+			return;
+		int[] killers = killerMoves[ply];
+		if (killers[0] != move)
+		{
+			killers[1] = killers[0];
+			killers[0] = move;
+		}
+		int[] pieceScores = historyScores[BitBoard.getPieceIndex(
+				Move.getPiece(move), color)];
+		pieceScores[Move.getTo(move)] += depth * depth;
+		if (pieceScores[Move.getTo(move)] >= MAXIMUM_HISTORY_SCORE)
+			for (int[] scores: historyScores)
+				for (int i = 0; i < 64; i++)
+					scores[i] /= 2;
+	}
+
+	/** @return The MVV-LVA score of a move that takes a figure or transforms
+	 * a pawn. */
+	private static int getCaptureScore(int move) {
+		int value = Move.isCapture(move)?
+				BitBoard.VALUES[Move.getCaptured(move)]: 0;
+		if (Move.getPromotion(move) != 0)
+			value += BitBoard.VALUES[Move.getPromotion(move)];
+		// the figure types of the taking figures are ordered by value, except
+		// for knights and bishops
+		return CAPTURE_SCORE + value * 8 - Move.getPiece(move);
+	}
+}
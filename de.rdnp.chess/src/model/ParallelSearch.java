@@ -0,0 +1,322 @@
+package model;
+
+import game.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A parallel search of all plies of a start position with several threads
+ * (lazy SMP). The main search runs on the calling thread. The helpers run on
+ * the threads of an executor, which are kept across searches. Each helper
+ * searches the same start position with its own {@link AlphaBetaSearch}, but
+ * all searches share one {@link TranspositionTable}, which is accessed without
+ * locking. The helpers fill the table with the results of the positions they
+ * visit, so the main search finds many positions already searched. To avoid
+ * that all threads search the same positions at the same time, the helpers
+ * vary the order of the first plies and every second helper searches one ply
+ * deeper.
+ * <br>
+ * The result is the result of the main search, the helpers are stopped as
+ * soon as it is finished.
+ * @author Richard Pohl*/
+public class ParallelSearch {
+
+	/** The {@link Player} at move in the start position. */
+	private final Player player;
+	/** The {@link Position} to start the search from. */
+	private final Position start;
+	/** The search that computes the result. */
+	private final AlphaBetaSearch mainSearch;
+	/** The searches of the helper threads. */
+	private final AlphaBetaSearch[] helperSearches;
+	/** The executor that runs the helper searches. */
+	private final ExecutorService executor;
+	/** The result of the last search. */
+	private PositionComputationResult result;
+
+	/**
+	 * Constructs a {@link ParallelSearch}.
+	 * @param player - the {@link Player} at move in start.
+	 * @param start - the {@link Position} to start the search from.
+	 * @param depth - the number of plies to consider, see
+	 * {@link AlphaBetaSearch#AlphaBetaSearch(Player, Position, int)}.
+	 * @param transpositionTable - the table shared by all threads.
+	 * @param executor - the executor to run the helper searches, which should
+	 * have at least threadCount - 1 threads.
+	 * @param threadCount - the number of threads to search with, including
+	 * the calling thread.
+	 * */
+	public ParallelSearch(Player player, Position start, int depth,
+			TranspositionTable transpositionTable, ExecutorService executor,
+			int threadCount)
+	{
+		this.player = player;
+		this.executor = executor;
+		this.start = start;
+		mainSearch = new AlphaBetaSearch(player, start, depth,
+				transpositionTable);
+		helperSearches = new AlphaBetaSearch[Math.max(0, threadCount - 1)];
+		for (int i = 0; i < helperSearches.length; i++)
+		{
+			helperSearches[i] = new AlphaBetaSearch(player, start,
+					depth + (i & 1), transpositionTable);
+			helperSearches[i].setFirstPly(i + 1);
+		}
+	}
+
+	/**
+	 * Sets a deadline for the search, see
+	 * {@link AlphaBetaSearch#setDeadline(long)}.
+	 * @param deadline - the time in milliseconds.
+	 * */
+	public void setDeadline(long deadline) {
+		mainSearch.setDeadline(deadline);
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			helperSearch.setDeadline(deadline);
+	}
+
+	/**
+	 * Sets the table that caches the evaluations of the pawn structures for
+	 * all threads, see {@link AlphaBetaSearch#setPawnHashTable(PawnHashTable)}.
+	 * @param pawnHashTable - the table shared by all threads.
+	 * */
+	public void setPawnHashTable(PawnHashTable pawnHashTable) {
+		mainSearch.setPawnHashTable(pawnHashTable);
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			helperSearch.setPawnHashTable(pawnHashTable);
+	}
+
+	/**
+	 * Enables or disables the quiescence search of all threads, see
+	 * {@link AlphaBetaSearch#setQuiescence(boolean)}.
+	 * @param quiescence - true to enable the quiescence search.
+	 * */
+	public void setQuiescence(boolean quiescence) {
+		mainSearch.setQuiescence(quiescence);
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			helperSearch.setQuiescence(quiescence);
+	}
+
+	/**
+	 * Sets the expected evaluation of all threads, see
+	 * {@link AlphaBetaSearch#setExpectedEvaluation(int)}.
+	 * @param expectedEvaluation - the expected evaluation,
+	 * Integer.MIN_VALUE to search without an aspiration window.
+	 * */
+	public void setExpectedEvaluation(int expectedEvaluation) {
+		mainSearch.setExpectedEvaluation(expectedEvaluation);
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			helperSearch.setExpectedEvaluation(expectedEvaluation);
+	}
+
+	/**
+	 * Enables or disables the null-move pruning of all threads, see
+	 * {@link AlphaBetaSearch#setNullMovePruning(boolean)}.
+	 * @param nullMovePruning - true to enable null-move pruning.
+	 * */
+	public void setNullMovePruning(boolean nullMovePruning) {
+		mainSearch.setNullMovePruning(nullMovePruning);
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			helperSearch.setNullMovePruning(nullMovePruning);
+	}
+
+	/**
+	 * Enables or disables the late-move reductions of all threads, see
+	 * {@link AlphaBetaSearch#setLateMoveReductions(boolean)}.
+	 * @param lateMoveReductions - true to enable late-move reductions.
+	 * */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		mainSearch.setLateMoveReductions(lateMoveReductions);
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			helperSearch.setLateMoveReductions(lateMoveReductions);
+	}
+
+	/**
+	 * Searches the best plies of the start position with all threads.
+	 * @return See {@link AlphaBetaSearch#search()}.
+	 * */
+	public PositionComputationResult search() {
+		Future<?>[] helpers = new Future<?>[helperSearches.length];
+		for (int i = 0; i < helpers.length; i++)
+		{
+			final AlphaBetaSearch helperSearch = helperSearches[i];
+			helpers[i] = executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					helperSearch.search();
+				}
+			});
+		}
+		result = mainSearch.search();
+		// the results of the helpers are in the transposition table
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			helperSearch.stop();
+		for (Future<?> helper: helpers)
+		{
+			try {
+				helper.get();
+			}
+			catch (InterruptedException e) {
+				// the result of the main search is complete, the stopped
+				// helpers are not waited for
+				Thread.currentThread().interrupt();
+				break;
+			}
+			catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		return result;
+	}
+
+	/** Stops a running search, see {@link AlphaBetaSearch#stop()}. This may
+	 * be called by any thread. The helpers are stopped with the main
+	 * search. */
+	public void stop() {
+		mainSearch.stop();
+	}
+
+	/** @return true, iff the last search was aborted at the deadline or
+	 * because it was stopped. Its results are incomplete and must not be
+	 * used. */
+	public boolean isAborted() {
+		return mainSearch.isAborted();
+	}
+
+	/** @return The number of positions visited by all threads. */
+	public long getNodeCount() {
+		long nodeCount = mainSearch.getNodeCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			nodeCount += helperSearch.getNodeCount();
+		return nodeCount;
+	}
+
+	/** @return The number of positions visited by the quiescence searches of
+	 * all threads. */
+	public long getQuiescenceNodeCount() {
+		long nodeCount = mainSearch.getQuiescenceNodeCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			nodeCount += helperSearch.getQuiescenceNodeCount();
+		return nodeCount;
+	}
+
+	/** @return The principal variations of the best plies of the main
+	 * search, see {@link AlphaBetaSearch#getPrincipalVariations()}. */
+	public int[][] getPrincipalVariations() {
+		return mainSearch.getPrincipalVariations();
+	}
+
+	/** @return The number of repeated searches of the start position of the
+	 * main search, see
+	 * {@link AlphaBetaSearch#getAspirationReSearchCount()}. */
+	public long getAspirationReSearchCount() {
+		return mainSearch.getAspirationReSearchCount();
+	}
+
+	/** @return The number of null moves searched by all threads, see
+	 * {@link AlphaBetaSearch#getNullMoveCount()}. */
+	public long getNullMoveCount() {
+		long nullMoveCount = mainSearch.getNullMoveCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			nullMoveCount += helperSearch.getNullMoveCount();
+		return nullMoveCount;
+	}
+
+	/** @return The number of null moves of all threads that caused a
+	 * cut-off, see {@link AlphaBetaSearch#getNullMoveCutoffCount()}. */
+	public long getNullMoveCutoffCount() {
+		long cutoffCount = mainSearch.getNullMoveCutoffCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			cutoffCount += helperSearch.getNullMoveCutoffCount();
+		return cutoffCount;
+	}
+
+	/** @return The number of plies searched with a reduced depth by all
+	 * threads, see {@link AlphaBetaSearch#getReductionCount()}. */
+	public long getReductionCount() {
+		long reductionCount = mainSearch.getReductionCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			reductionCount += helperSearch.getReductionCount();
+		return reductionCount;
+	}
+
+	/** @return The number of reduced plies of all threads that were searched
+	 * again, see {@link AlphaBetaSearch#getReductionReSearchCount()}. */
+	public long getReductionReSearchCount() {
+		long reSearchCount = mainSearch.getReductionReSearchCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			reSearchCount += helperSearch.getReductionReSearchCount();
+		return reSearchCount;
+	}
+
+	/** @return The number of lookups in the {@link PawnHashTable} of all
+	 * threads. */
+	public long getPawnHashProbeCount() {
+		long probeCount = mainSearch.getPawnHashProbeCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			probeCount += helperSearch.getPawnHashProbeCount();
+		return probeCount;
+	}
+
+	/** @return The number of lookups in the {@link PawnHashTable} of all
+	 * threads that found the pawn structure. */
+	public long getPawnHashHitCount() {
+		long hitCount = mainSearch.getPawnHashHitCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			hitCount += helperSearch.getPawnHashHitCount();
+		return hitCount;
+	}
+
+	/** @return The number of cut-offs of all threads, see
+	 * {@link AlphaBetaSearch#getCutoffCount()}. */
+	public long getCutoffCount() {
+		long cutoffCount = mainSearch.getCutoffCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			cutoffCount += helperSearch.getCutoffCount();
+		return cutoffCount;
+	}
+
+	/** @return The number of cut-offs by the first ply of all threads, see
+	 * {@link AlphaBetaSearch#getFirstMoveCutoffCount()}. */
+	public long getFirstMoveCutoffCount() {
+		long cutoffCount = mainSearch.getFirstMoveCutoffCount();
+		for (AlphaBetaSearch helperSearch: helperSearches)
+			cutoffCount += helperSearch.getFirstMoveCutoffCount();
+		return cutoffCount;
+	}
+
+	/**
+	 * @return The result of the last search, split by the figures that are
+	 * moved in the first ply. There is a result for each figure of the
+	 * player, which is empty if none of the figure's plies is a best ply.
+	 * */
+	public Map<Figure, PositionComputationResult> getFigureResults() {
+		Map<Figure, PositionComputationResult> figureResults
+			= new HashMap<Figure, PositionComputationResult>();
+		for (Figure figure: player.getFigures(start))
+		{
+			PositionComputationResult figureResult
+				= new PositionComputationResult();
+			figureResult.setMaximumAdvantageN(Integer.MIN_VALUE);
+			figureResults.put(figure, figureResult);
+		}
+		int[] bestMoves = mainSearch.getBestMoves();
+		int[][] principalVariations = mainSearch.getPrincipalVariations();
+		int i = 0;
+		for (Position position: result.getPositions())
+		{
+			PositionComputationResult figureResult = figureResults.get(
+					start.getFigureAt(Move.getFrom(bestMoves[i])));
+			figureResult.setMaximumAdvantageN(result.getMaximumAdvantageN());
+			if (figureResult.getPositions().isEmpty())
+				figureResult.setPrincipalVariation(principalVariations[i]);
+			figureResult.getPositions().add(position);
+			i++;
+		}
+		return figureResults;
+	}
+}
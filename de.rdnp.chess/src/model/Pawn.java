@@ -31,6 +31,11 @@ public class Pawn extends Figure {
 		return 100d;
 	}
 
+	@Override
+	public final int getPieceType() {
+		return BitBoard.PAWN;
+	}
+	
 	@Override
 	public final String toString() {
 		return super.toString()+"P";
@@ -125,9 +130,13 @@ public class Pawn extends Figure {
 			direction == -1 && position.getFigureLocation(this).y == 1)
 			transform = true;
 		addNormalOnePlyLocations(result, position);
-		enPassant = 
-			addTakingOnePlylocations(result, position,  1) ||
-			addTakingOnePlylocations(result, position, -1);
+		// both directions need to be computed, even if the first one is an 
+		// en passant ply
+		boolean enPassantRight 
+			= addTakingOnePlylocations(result, position,  1);
+		boolean enPassantLeft
+			= addTakingOnePlylocations(result, position, -1);
+		enPassant = enPassantRight || enPassantLeft;
 		return result;
 	}
 
@@ -185,7 +194,7 @@ public class Pawn extends Figure {
 	}
 	
 	@Override
-	public final int getHashKey(int location) {
+	public final long getHashKey(int location) {
 		return getOwner().getHashKeyProvider().getHashKey(location, this);
 	}
 }
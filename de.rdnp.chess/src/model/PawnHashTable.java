@@ -0,0 +1,85 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A hash table that caches the evaluation of pawn structures (see
+ * {@link PawnStructure}). The pawns move rarely, so most positions of a
+ * search share their pawn structure with many other positions. The table is
+ * indexed by the pawn key of a position (see {@link BitBoard#getPawnKey()}).
+ * <br>
+ * The table has a fixed size in megabytes, independent of the
+ * {@link TranspositionTable}, and is backed by a single <code>long</code>
+ * array. Each entry consists of three <code>long</code> values: the pawn key
+ * XOR the pawn scores XOR the passed pawns, the pawn scores and the passed
+ * pawns. Like in a TranspositionTable, a read entry is only accepted, if the
+ * XOR of all values results in the probed key, so the table can be shared by
+ * multiple search threads without locking. Entries are always replaced.
+ * @author Richard Pohl*/
+public class PawnHashTable {
+
+	/** The number of bytes of an entry (three longs). */
+	public static final int ENTRY_SIZE = 24;
+
+	/** The entries, three longs per entry. */
+	private final long[] entries;
+	/** The mask to compute the entry index from a key. */
+	private final int entryMask;
+
+	/**
+	 * Constructs an empty {@link PawnHashTable}.
+	 * @param megabytes - the maximum size of the table in megabytes. The
+	 * number of entries is the largest power of two that fits in this size.
+	 * */
+	public PawnHashTable(int megabytes) {
+		long entryCount
+			= Math.max(1L, megabytes * 1024L * 1024L / ENTRY_SIZE);
+		// use a power of two and stay within the limits of arrays
+		entryCount = Math.min(Long.highestOneBit(entryCount), 1L << 28);
+		entries = new long[(int) entryCount * 3];
+		entryMask = (int) entryCount - 1;
+	}
+
+	/** @return The size of the table in bytes. */
+	public final long getSize() {
+		return entries.length * 8L;
+	}
+
+	/** Removes all entries from the table. */
+	public final void clear() {
+		Arrays.fill(entries, 0L);
+	}
+
+	/**
+	 * Looks up the entry of a pawn structure.
+	 * @param pawnKey - the pawn key of the position.
+	 * @param entry - an array of two elements, which receives the pawn scores
+	 * (see {@link PawnStructure#evaluate(long, long)}) and the passed pawns
+	 * (see {@link PawnStructure#getPassedPawns(long, long)}), if the entry is
+	 * found.
+	 * @return true, iff there is an entry for the pawn structure.
+	 * */
+	public final boolean probe(long pawnKey, long[] entry) {
+		int index = ((int) pawnKey & entryMask) * 3;
+		long scores = entries[index + 1];
+		long passedPawns = entries[index + 2];
+		if ((entries[index] ^ scores ^ passedPawns) != pawnKey)
+			return false;
+		entry[0] = scores;
+		entry[1] = passedPawns;
+		return true;
+	}
+
+	/**
+	 * Stores the evaluation of a pawn structure in the table.
+	 * @param pawnKey - the pawn key of the position.
+	 * @param scores - the pawn scores.
+	 * @param passedPawns - the locations of the passed pawns.
+	 * */
+	public final void store(long pawnKey, long scores, long passedPawns) {
+		int index = ((int) pawnKey & entryMask) * 3;
+		entries[index] = pawnKey ^ scores ^ passedPawns;
+		entries[index + 1] = scores;
+		entries[index + 2] = passedPawns;
+	}
+}
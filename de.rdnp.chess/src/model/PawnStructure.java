@@ -0,0 +1,154 @@
+package model;
+
+/**
+ * Evaluates the pawn structure of a position, i.e. the terms of the
+ * evaluation that only depend on the locations of the pawns of both players:
+ * <ul>
+ * <li>doubled pawns (more than one pawn of a player on a line),</li>
+ * <li>isolated pawns (no pawn of the same player on the neighbouring
+ * lines),</li>
+ * <li>passed pawns (no opponent pawn in front of the pawn on its own or the
+ * neighbouring lines and no pawn of the same player in front of it), which
+ * are worth more the closer they are to their transformation.</li>
+ * </ul>
+ * Like the values of the {@link PieceSquareTables}, the terms have a
+ * middlegame and an endgame value. Both are packed into one
+ * <code>long</code> value (the pawn scores), which holds the advantage of
+ * white. Since pawns move rarely, the pawn scores are cached in a
+ * {@link PawnHashTable}.
+ * @author Richard Pohl*/
+public final class PawnStructure {
+
+	/* THE VALUES OF THE TERMS (MIDDLEGAME, ENDGAME) */
+	private static final int DOUBLED_MIDDLEGAME 	= -10;
+	private static final int DOUBLED_ENDGAME 		= -20;
+	private static final int ISOLATED_MIDDLEGAME 	= -10;
+	private static final int ISOLATED_ENDGAME 		= -15;
+	/** The bonus of a passed pawn, indexed by the number of rows it has
+	 * moved. */
+	private static final int[] PASSED_MIDDLEGAME
+		= {0, 5, 10, 15, 25, 40, 60, 0};
+	private static final int[] PASSED_ENDGAME
+		= {0, 10, 15, 25, 45, 70, 100, 0};
+
+	// the locations of a line, indexed by line
+	private static final long[] LINE_MASKS = new long[8];
+	// the locations of the neighbouring lines, indexed by line
+	private static final long[] NEIGHBOUR_LINE_MASKS = new long[8];
+	// the locations in front of a pawn on its own and the neighbouring lines,
+	// indexed by color and location
+	private static final long[][] PASSED_MASKS = new long[2][64];
+	// the locations in front of a pawn on its own line, indexed by color
+	// and location
+	private static final long[][] FRONT_MASKS = new long[2][64];
+
+	static {
+		for (int x = 0; x < 8; x++)
+			LINE_MASKS[x] = 0xFFL << (x * 8);
+		for (int x = 0; x < 8; x++)
+			NEIGHBOUR_LINE_MASKS[x] = (x > 0? LINE_MASKS[x - 1]: 0)
+				| (x < 7? LINE_MASKS[x + 1]: 0);
+		for (int location = 0; location < 64; location++)
+		{
+			int x = location / 8, y = location % 8;
+			for (int front = 0; front < 8; front++)
+			{
+				// the rows in front of the pawn for white and black
+				long whiteRow = front > y? 1L << front: 0;
+				long blackRow = front < y? 1L << front: 0;
+				for (int line = Math.max(0, x - 1); line <= Math.min(7, x + 1);
+						line++)
+				{
+					PASSED_MASKS[BitBoard.WHITE][location] |= whiteRow
+						<< (line * 8);
+					PASSED_MASKS[BitBoard.BLACK][location] |= blackRow
+						<< (line * 8);
+				}
+				FRONT_MASKS[BitBoard.WHITE][location] |= whiteRow << (x * 8);
+				FRONT_MASKS[BitBoard.BLACK][location] |= blackRow << (x * 8);
+			}
+		}
+	}
+
+	private PawnStructure() {}
+
+	/**
+	 * @param whitePawns - the locations of the white pawns.
+	 * @param blackPawns - the locations of the black pawns.
+	 * @return The pawn scores, i.e. the middlegame and endgame advantage of
+	 * white by the pawn structure.
+	 * */
+	public static long evaluate(long whitePawns, long blackPawns) {
+		long passedPawns = getPassedPawns(whitePawns, blackPawns);
+		int middlegame = 0, endgame = 0;
+		for (int color = BitBoard.WHITE; color <= BitBoard.BLACK; color++)
+		{
+			int sign = color == BitBoard.WHITE? 1: -1;
+			long own = color == BitBoard.WHITE? whitePawns: blackPawns;
+			for (int x = 0; x < 8; x++)
+			{
+				int count = Long.bitCount(own & LINE_MASKS[x]);
+				if (count > 1)
+				{
+					middlegame += sign * (count - 1) * DOUBLED_MIDDLEGAME;
+					endgame += sign * (count - 1) * DOUBLED_ENDGAME;
+				}
+				if (count > 0 && (own & NEIGHBOUR_LINE_MASKS[x]) == 0)
+				{
+					middlegame += sign * count * ISOLATED_MIDDLEGAME;
+					endgame += sign * count * ISOLATED_ENDGAME;
+				}
+			}
+			for (long passed = passedPawns & own; passed != 0;
+					passed &= passed - 1)
+			{
+				int y = Long.numberOfTrailingZeros(passed) % 8;
+				// (pawns of set up positions may stand on their first row)
+				int rows = Math.max(0, color == BitBoard.WHITE? y - 1: 6 - y);
+				middlegame += sign * PASSED_MIDDLEGAME[rows];
+				endgame += sign * PASSED_ENDGAME[rows];
+			}
+		}
+		return pack(middlegame, endgame);
+	}
+
+	/**
+	 * @param whitePawns - the locations of the white pawns.
+	 * @param blackPawns - the locations of the black pawns.
+	 * @return The locations of the passed pawns of both players.
+	 * */
+	public static long getPassedPawns(long whitePawns, long blackPawns) {
+		long passedPawns = 0;
+		for (long pawns = whitePawns; pawns != 0; pawns &= pawns - 1)
+		{
+			int location = Long.numberOfTrailingZeros(pawns);
+			if ((blackPawns & PASSED_MASKS[BitBoard.WHITE][location]) == 0
+				&& (whitePawns & FRONT_MASKS[BitBoard.WHITE][location]) == 0)
+				passedPawns |= 1L << location;
+		}
+		for (long pawns = blackPawns; pawns != 0; pawns &= pawns - 1)
+		{
+			int location = Long.numberOfTrailingZeros(pawns);
+			if ((whitePawns & PASSED_MASKS[BitBoard.BLACK][location]) == 0
+				&& (blackPawns & FRONT_MASKS[BitBoard.BLACK][location]) == 0)
+				passedPawns |= 1L << location;
+		}
+		return passedPawns;
+	}
+
+	/** @return The pawn scores with the given middlegame and endgame
+	 * values. */
+	public static long pack(int middlegame, int endgame) {
+		return (long) middlegame << 32 | (endgame & 0xFFFFFFFFL);
+	}
+
+	/** @return The middlegame value of pawn scores. */
+	public static int getMiddlegameValue(long scores) {
+		return (int) (scores >> 32);
+	}
+
+	/** @return The endgame value of pawn scores. */
+	public static int getEndgameValue(long scores) {
+		return (int) scores;
+	}
+}
@@ -0,0 +1,179 @@
+package model;
+
+/**
+ * The values of the figures (in centipawns) depending on their location,
+ * which make up the evaluation of a position. Each figure has a value for
+ * the middlegame and one for the endgame, which both include the material
+ * value of its type (see {@link Figure#getValue()}). A position is evaluated
+ * by blending the sums of both values by the game phase, which is computed
+ * from the knights, bishops, rooks and queens left on the board (tapered
+ * evaluation):
+ * <br>
+ * (middlegame * phase + endgame * (24 - phase)) / 24
+ * <br>
+ * Since the values only depend on the figure and its location, the sums
+ * can be updated incrementally with each move (see {@link BitBoard}).
+ * @author Richard Pohl*/
+public final class PieceSquareTables {
+
+	/** The phase of a position with all knights, bishops, rooks and queens
+	 * of the start position. */
+	public static final int MAXIMUM_PHASE = 24;
+
+	/** The contribution of the figure types to the phase. */
+	private static final int[] PHASES = {0, 1, 1, 2, 4, 0};
+
+	/* THE TABLES FOR WHITE, FROM THE 8TH ROW (TOP) TO THE 1ST ROW (BOTTOM) */
+	private static final int[] PAWN_MIDDLEGAME = {
+		 0,   0,   0,   0,   0,   0,   0,   0,
+		50,  50,  50,  50,  50,  50,  50,  50,
+		10,  10,  20,  30,  30,  20,  10,  10,
+		 5,   5,  10,  25,  25,  10,   5,   5,
+		 0,   0,   0,  20,  20,   0,   0,   0,
+		 5,  -5, -10,   0,   0, -10,  -5,   5,
+		 5,  10,  10, -20, -20,  10,  10,   5,
+		 0,   0,   0,   0,   0,   0,   0,   0};
+	private static final int[] PAWN_ENDGAME = {
+		 0,   0,   0,   0,   0,   0,   0,   0,
+		80,  80,  80,  80,  80,  80,  80,  80,
+		50,  50,  50,  50,  50,  50,  50,  50,
+		30,  30,  30,  30,  30,  30,  30,  30,
+		20,  20,  20,  20,  20,  20,  20,  20,
+		10,  10,  10,  10,  10,  10,  10,  10,
+		10,  10,  10,  10,  10,  10,  10,  10,
+		 0,   0,   0,   0,   0,   0,   0,   0};
+	private static final int[] KNIGHT = {
+		-50, -40, -30, -30, -30, -30, -40, -50,
+		-40, -20,   0,   0,   0,   0, -20, -40,
+		-30,   0,  10,  15,  15,  10,   0, -30,
+		-30,   5,  15,  20,  20,  15,   5, -30,
+		-30,   0,  15,  20,  20,  15,   0, -30,
+		-30,   5,  10,  15,  15,  10,   5, -30,
+		-40, -20,   0,   5,   5,   0, -20, -40,
+		-50, -40, -30, -30, -30, -30, -40, -50};
+	private static final int[] BISHOP = {
+		-20, -10, -10, -10, -10, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   5,   5,  10,  10,   5,   5, -10,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-10,  10,  10,  10,  10,  10,  10, -10,
+		-10,   5,   0,   0,   0,   0,   5, -10,
+		-20, -10, -10, -10, -10, -10, -10, -20};
+	private static final int[] ROOK_MIDDLEGAME = {
+		 0,   0,   0,   0,   0,   0,   0,   0,
+		 5,  10,  10,  10,  10,  10,  10,   5,
+		-5,   0,   0,   0,   0,   0,   0,  -5,
+		-5,   0,   0,   0,   0,   0,   0,  -5,
+		-5,   0,   0,   0,   0,   0,   0,  -5,
+		-5,   0,   0,   0,   0,   0,   0,  -5,
+		-5,   0,   0,   0,   0,   0,   0,  -5,
+		 0,   0,   0,   5,   5,   0,   0,   0};
+	private static final int[] ROOK_ENDGAME = new int[64];
+	private static final int[] QUEEN = {
+		-20, -10, -10,  -5,  -5, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		 -5,   0,   5,   5,   5,   5,   0,  -5,
+		  0,   0,   5,   5,   5,   5,   0,  -5,
+		-10,   5,   5,   5,   5,   5,   0, -10,
+		-10,   0,   5,   0,   0,   0,   0, -10,
+		-20, -10, -10,  -5,  -5, -10, -10, -20};
+	private static final int[] KING_MIDDLEGAME = {
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-20, -30, -30, -40, -40, -30, -30, -20,
+		-10, -20, -20, -20, -20, -20, -20, -10,
+		 20,  20,   0,   0,   0,   0,  20,  20,
+		 20,  30,  10,   0,   0,  10,  30,  20};
+	private static final int[] KING_ENDGAME = {
+		-50, -40, -30, -20, -20, -30, -40, -50,
+		-30, -20, -10,   0,   0, -10, -20, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -30,   0,   0,   0,   0, -30, -30,
+		-50, -30, -30, -30, -30, -30, -30, -50};
+
+	/** The middlegame values including the material, indexed by piece index
+	 * (see {@link BitBoard#getPieceIndex(int, int)}) and location. */
+	private static final int[][] MIDDLEGAME_VALUES
+		= new int[BitBoard.PIECE_COUNT][64];
+	/** The endgame values including the material, indexed like
+	 * {@link PieceSquareTables#MIDDLEGAME_VALUES}. */
+	private static final int[][] ENDGAME_VALUES
+		= new int[BitBoard.PIECE_COUNT][64];
+
+	static {
+		int[][] middlegameTables = {PAWN_MIDDLEGAME, KNIGHT, BISHOP,
+				ROOK_MIDDLEGAME, QUEEN, KING_MIDDLEGAME};
+		int[][] endgameTables = {PAWN_ENDGAME, KNIGHT, BISHOP, ROOK_ENDGAME,
+				QUEEN, KING_ENDGAME};
+		for (int type = BitBoard.PAWN; type <= BitBoard.KING; type++)
+			for (int row = 0; row < 8; row++)
+				for (int x = 0; x < 8; x++)
+				{
+					int index = row * 8 + x;
+					// the tables are mirrored for black
+					int white = BitBoard.getPieceIndex(type, BitBoard.WHITE);
+					int black = BitBoard.getPieceIndex(type, BitBoard.BLACK);
+					MIDDLEGAME_VALUES[white][x * 8 + 7 - row]
+						= BitBoard.VALUES[type] + middlegameTables[type][index];
+					MIDDLEGAME_VALUES[black][x * 8 + row]
+						= BitBoard.VALUES[type] + middlegameTables[type][index];
+					ENDGAME_VALUES[white][x * 8 + 7 - row]
+						= BitBoard.VALUES[type] + endgameTables[type][index];
+					ENDGAME_VALUES[black][x * 8 + row]
+						= BitBoard.VALUES[type] + endgameTables[type][index];
+				}
+	}
+
+	private PieceSquareTables() {}
+
+	/**
+	 * @param pieceIndex - the piece index of a figure, see
+	 * {@link BitBoard#getPieceIndex(int, int)}.
+	 * @param location - the index of the location of the figure.
+	 * @return The middlegame value of the figure at location.
+	 * */
+	public static int getMiddlegameValue(int pieceIndex, int location) {
+		return MIDDLEGAME_VALUES[pieceIndex][location];
+	}
+
+	/**
+	 * @param pieceIndex - the piece index of a figure, see
+	 * {@link BitBoard#getPieceIndex(int, int)}.
+	 * @param location - the index of the location of the figure.
+	 * @return The endgame value of the figure at location.
+	 * */
+	public static int getEndgameValue(int pieceIndex, int location) {
+		return ENDGAME_VALUES[pieceIndex][location];
+	}
+
+	/**
+	 * @param pieceIndex - the piece index of a figure, see
+	 * {@link BitBoard#getPieceIndex(int, int)}.
+	 * @return The contribution of the figure to the game phase.
+	 * */
+	public static int getPhase(int pieceIndex) {
+		return PHASES[pieceIndex % 6];
+	}
+
+	/**
+	 * Blends a middlegame and an endgame evaluation by the game phase.
+	 * @param middlegame - the middlegame evaluation.
+	 * @param endgame - the endgame evaluation.
+	 * @param phase - the sum of the phases of the figures on the board (more
+	 * than {@link PieceSquareTables#MAXIMUM_PHASE} after pawn
+	 * transformations).
+	 * @return The tapered evaluation.
+	 * */
+	public static int taper(int middlegame, int endgame, int phase) {
+		phase = Math.min(phase, MAXIMUM_PHASE);
+		return (middlegame * phase + endgame * (MAXIMUM_PHASE - phase))
+			/ MAXIMUM_PHASE;
+	}
+}
@@ -2,6 +2,8 @@ package model;
 
 import game.Player;
 
+import java.util.Arrays;
+
 /**
  * Represents a chess position. 
  * <br>
@@ -20,11 +22,31 @@ import game.Player;
  * {@link Position#WHITE_CASTLE_QUEEN_SIDE},
  * {@link Position#BLACK_CASTLE_KING_SIDE}, and
  * {@link Position#BLACK_CASTLE_QUEEN_SIDE}
+ * <br>
+ * The figures are always held in an array. Additionally, a {@link BitBoard} 
+ * can be maintained for each position, which allows to answer many queries
+ * with bit operations instead of walking the array. See 
+ * {@link Position#setBoardBackend(int)} on how to select the board backend.
  *  @author Richard Pohl*/
 public class Position {
 	
-	/** A pre-computed hash code. */
-	private int hash;
+	/* TWO CONSTANTS FOR THE BOARD BACKEND */
+	/** Constant to select a board backend that only holds the figures in an 
+	 * array (see {@link Position#setBoardBackend(int)}). */
+	public static final int ARRAY_BOARD = 0x0;
+	/** Constant to select a board backend that holds a {@link BitBoard} in 
+	 * addition to the figure array (see 
+	 * {@link Position#setBoardBackend(int)}). */
+	public static final int BIT_BOARD = 0x1;
+	
+	/** The board backend used for newly constructed positions. */
+	private static volatile int boardBackend = BIT_BOARD;
+	
+	/** The 64 bit Zobrist hash of the position, without the {@link Player} at
+	 * move (see {@link Position#getHash(Player)}). It is computed from scratch
+	 * for new positions and updated incrementally for positions that are
+	 * constructed from another position. */
+	private long hash;
 	
 	/** 
 	 * The figures in the position, held in an array. A figure's location is
@@ -38,6 +60,40 @@ public class Position {
 	 * using a two-dimensional array to keep figures).
 	 */
 	private final Figure [] figures;
+	
+	/** The {@link BitBoard} of the position, null if the position was 
+	 * constructed with the {@link Position#ARRAY_BOARD} backend. */
+	private final BitBoard bitBoard;
+	
+	/** The piece list of the position: the location of the figure with
+	 * each piece list index (see {@link Figure#pieceListIndex}), -1 for
+	 * unused indices. */
+	private final byte[] pieceLocations;
+	
+	/** true, iff all figures of the position are in the piece list. This is
+	 * false, if the piece list was full or if the index of a figure was 
+	 * already used by another figure. */
+	private boolean pieceListComplete = true;
+	
+	/** The attack maps of both players, indexed by the color constants of
+	 * {@link BitBoard}. They are computed when they are needed first, see
+	 * {@link Position#getAttackMap(Player)}. */
+	private volatile long[] attackMaps;
+	
+	/** The {@link BitBoard} that evaluates a position of the
+	 * {@link Position#ARRAY_BOARD} backend. It is built when it is needed
+	 * first, see {@link Position#getEvaluationBoard()}. */
+	private volatile BitBoard evaluationBoard;
+	
+	// the number of indices in a piece list
+	private static final int PIECE_LIST_SIZE = 32;
+	
+	// the (x-offset, y-offset) pairs of the plies of a knight
+	private static final int[][] KNIGHT_OFFSETS = {{1, 2}, {2, 1}, {2, -1}, 
+		{1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+	// the directions of rooks (first four) and bishops (last four)
+	private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, 
+		{0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
 
 	/* FOUR CONSTANTS FOR CASTLING */
 	/** Constant to indicate a white castling to the King's side. It is used in
@@ -96,6 +152,9 @@ public class Position {
 			for (int x=0; x<8; x++)
 				figures[x*8+p] = new Pawn(player);
 		}
+		bitBoard = boardBackend == BIT_BOARD? new BitBoard(figures): null;
+		pieceLocations = new byte[PIECE_LIST_SIZE];
+		initializePieceList();
 		computeZobristHash();
 	}
 	
@@ -111,20 +170,86 @@ public class Position {
 		ChessLocation oldFigureLocation = null;
 		if (figure != null)
 			oldFigureLocation = position.getFigureLocation(figure);
+		hash = position.hash;
 		// remove old figure
 		if (figure != null && oldFigureLocation != null)
+		{
 			figures[oldFigureLocation.x*8+oldFigureLocation.y] = null;
+			hash ^= figure.getHashKey(oldFigureLocation.x*8+oldFigureLocation.y);
+		}
 		// insert new figure at location
+		Figure replacedFigure = null;
 		if (location != null)
+		{
+			replacedFigure = figures[location.x*8+location.y];
 			figures[location.x*8+location.y] = figure;
+			if (replacedFigure != null)
+				hash ^= replacedFigure.getHashKey(location.x*8+location.y);
+			if (figure != null)
+				hash ^= figure.getHashKey(location.x*8+location.y);
+		}
+		// keep the piece list in sync with the figure array
+		pieceLocations = position.pieceLocations.clone();
+		pieceListComplete = position.pieceListComplete;
+		if (figure != null && oldFigureLocation != null)
+			removeFromPieceList(figure, 
+					oldFigureLocation.x*8+oldFigureLocation.y);
+		if (replacedFigure != null)
+			removeFromPieceList(replacedFigure, location.x*8+location.y);
+		if (figure != null && location != null)
+			addToPieceList(figure, location.x*8+location.y);
+		// keep the bit board in sync with the figure array
+		if (boardBackend != BIT_BOARD)
+			bitBoard = null;
+		else if (position.bitBoard == null)
+			bitBoard = new BitBoard(figures);
+		else
+		{
+			bitBoard = new BitBoard(position.bitBoard);
+			if (figure != null && oldFigureLocation != null)
+				bitBoard.clear(oldFigureLocation.x*8+oldFigureLocation.y, 
+						figure.getPieceIndex());
+			if (replacedFigure != null)
+				bitBoard.clear(location.x*8+location.y, 
+						replacedFigure.getPieceIndex());
+			if (figure != null && location != null)
+				bitBoard.set(location.x*8+location.y, figure.getPieceIndex());
+		}
 		// update castling rights: if king or rook moved, cancel corresponding
 		// rights
+		castlingHistory = position.castlingHistory;
 		if (figure != null )
 		{
 			updateCastlingHistory(position, figure);
 			if (oldFigureLocation != null)
 				updateEnPassantLine(position, figure);
 		}
+		// a figure entering a rook's initial location takes the rook (or the
+		// rook has moved before), so castling with it is no longer possible
+		if (location != null)
+			updateCornerCastlingHistory(location);
+		hash ^= HashKeyProvider.getCastlingKey(position.castlingHistory)
+			^ HashKeyProvider.getCastlingKey(castlingHistory)
+			^ HashKeyProvider.getEnPassantKey(position.enPassantLine)
+			^ HashKeyProvider.getEnPassantKey(enPassantLine);
+	}
+	
+	/** Create a position from a figure array, e.g. as a snapshot of a 
+	 * {@link SearchBoard}.
+	 * @param figures - the figures, indexed by location (x-coordinate * 8 +
+	 * y-coordinate). The array is copied.
+	 * @param castlingHistory - see {@link Position#getCastlingHistory()}.
+	 * @param enPassantLine - see {@link Position#getEnPassantLine()}.
+	 * */
+	Position(Figure[] figures, int castlingHistory, int enPassantLine)
+	{
+		this.figures = new Figure[64];
+		System.arraycopy(figures, 0, this.figures, 0, 64);
+		this.castlingHistory = castlingHistory;
+		this.enPassantLine = enPassantLine;
+		bitBoard = boardBackend == BIT_BOARD? new BitBoard(figures): null;
+		pieceLocations = new byte[PIECE_LIST_SIZE];
+		initializePieceList();
 		computeZobristHash();
 	}
 	
@@ -133,12 +258,84 @@ public class Position {
 	 * @return A {@link ChessLocation} representing the location of figure.*/
 	public final ChessLocation getFigureLocation(Figure figure)
 	{
+		// look up the figure in the piece list
+		int index = figure.pieceListIndex;
+		if (index >= 0)
+		{
+			int location = pieceLocations[index];
+			if (location >= 0 && figures[location] == figure)
+				return new ChessLocation(location / 8, location % 8);
+		}
+		if (pieceListComplete)
+			return null;
+		// the figure may be missing in the piece list
 		for (int i = 0; i < 64; i++)
 			if (figure.equals(figures[i]))
 				return new ChessLocation(i/8, i%8);
 		return null;
 	}
 	
+	/** 
+	 * @param player - a {@link Player}.
+	 * @return The locations of all figures of player as a bit mask 
+	 * (x-coordinate * 8 + y-coordinate).
+	 * */
+	public final long getLocations(Player player)
+	{
+		if (bitBoard != null)
+			return bitBoard.getOccupancy(BitBoard.getColor(player));
+		long locations = 0;
+		if (pieceListComplete)
+		{
+			for (int i = 0; i < PIECE_LIST_SIZE; i++)
+				if (pieceLocations[i] >= 0 
+						&& figures[pieceLocations[i]].getOwner() == player)
+					locations |= 1L << pieceLocations[i];
+		}
+		else for (int i = 0; i < 64; i++)
+			if (figures[i] != null && figures[i].getOwner() == player)
+				locations |= 1L << i;
+		return locations;
+	}
+	
+	/** Adds all figures of the position to the empty piece list. */
+	private void initializePieceList()
+	{
+		Arrays.fill(pieceLocations, (byte) -1);
+		for (int i = 0; i < 64; i++)
+			if (figures[i] != null)
+				addToPieceList(figures[i], i);
+	}
+	
+	/** Adds figure at location to the piece list. A figure enters the piece 
+	 * list with the index it got in another position, if possible. */
+	private void addToPieceList(Figure figure, int location)
+	{
+		int index = figure.pieceListIndex;
+		if (index < 0)
+		{
+			// assign the first unused index to the figure
+			for (index = 0; index < PIECE_LIST_SIZE 
+					&& pieceLocations[index] >= 0; index++)
+				;
+			if (index < PIECE_LIST_SIZE)
+				index = figure.assignPieceListIndex(index);
+		}
+		if (index < PIECE_LIST_SIZE && (pieceLocations[index] < 0 
+				|| figures[pieceLocations[index]] == figure))
+			pieceLocations[index] = (byte) location;
+		else
+			pieceListComplete = false;
+	}
+	
+	/** Removes figure at location from the piece list. */
+	private void removeFromPieceList(Figure figure, int location)
+	{
+		int index = figure.pieceListIndex;
+		if (index >= 0 && pieceLocations[index] == location)
+			pieceLocations[index] = -1;
+	}
+	
 	/** 
 	 * @param location - a {@link ChessLocation} representing the location to 
 	 * look at.
@@ -149,6 +346,152 @@ public class Position {
 		return figures[location.x * 8 + location.y];
 	}
 	
+	/** 
+	 * @param location - the index of the location to look at 
+	 * (x-coordinate * 8 + y-coordinate).
+	 * @return The {@link Figure} at location. 
+	 * */
+	public final Figure getFigureAt(int location)
+	{
+		return figures[location];
+	}
+	
+	/** 
+	 * @return The {@link BitBoard} of the position, null if the position was
+	 * constructed with the {@link Position#ARRAY_BOARD} backend.
+	 * */
+	public final BitBoard getBitBoard()
+	{
+		return bitBoard;
+	}
+	
+	/** 
+	 * @param player - the {@link Player} whose king to look for.
+	 * @return The location of player's king, null if player has no king in
+	 * the position.
+	 * */
+	public final ChessLocation getKingLocation(Player player)
+	{
+		if (bitBoard != null)
+		{
+			long king = bitBoard.getPieces(BitBoard.getPieceIndex(
+					BitBoard.KING, BitBoard.getColor(player)));
+			if (king == 0)
+				return null;
+			int location = Long.numberOfTrailingZeros(king);
+			return new ChessLocation(location / 8, location % 8);
+		}
+		for (long own = getLocations(player); own != 0; own &= own - 1)
+		{
+			int location = Long.numberOfTrailingZeros(own);
+			if (figures[location].getPieceType() == BitBoard.KING)
+				return new ChessLocation(location / 8, location % 8);
+		}
+		return null;
+	}
+	
+	/** 
+	 * @param location - the {@link ChessLocation} to check.
+	 * @param player - the attacking {@link Player}.
+	 * @return true, iff a figure of player could take a figure at location 
+	 * with its next ply. This is looked up in the attack map, if it was
+	 * computed already, otherwise the lines through location are scanned
+	 * outwards for attacking figures.
+	 * */
+	public final boolean isAttacked(ChessLocation location, Player player)
+	{
+		int index = location.x * 8 + location.y;
+		long[] maps = attackMaps;
+		if (maps != null)
+			return (maps[BitBoard.getColor(player)] >>> index & 1) != 0;
+		if (bitBoard != null)
+			return bitBoard.isAttacked(index, BitBoard.getColor(player));
+		// knights
+		for (int[] offset: KNIGHT_OFFSETS)
+			if (isFigureAt(location.x + offset[0], location.y + offset[1], 
+					player, BitBoard.KNIGHT))
+				return true;
+		// pawns, which attack in their direction of movement
+		int pawnY = location.y + (player == Player.WHITE? -1: 1);
+		if (isFigureAt(location.x - 1, pawnY, player, BitBoard.PAWN)
+				|| isFigureAt(location.x + 1, pawnY, player, BitBoard.PAWN))
+			return true;
+		// king, rooks, bishops and queens
+		for (int d = 0; d < DIRECTIONS.length; d++)
+		{
+			int dx = DIRECTIONS[d][0], dy = DIRECTIONS[d][1];
+			int slidingType = d < 4? BitBoard.ROOK: BitBoard.BISHOP;
+			if (isFigureAt(location.x + dx, location.y + dy, player, 
+					BitBoard.KING))
+				return true;
+			for (int x = location.x + dx, y = location.y + dy; 
+					x >= 0 && x < 8 && y >= 0 && y < 8; x += dx, y += dy)
+			{
+				Figure figure = figures[x * 8 + y];
+				if (figure != null)
+				{
+					if (figure.getOwner() == player 
+							&& (figure.getPieceType() == slidingType
+								|| figure.getPieceType() == BitBoard.QUEEN))
+						return true;
+					break;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/** 
+	 * @param player - the attacking {@link Player}.
+	 * @return The attack map of player: a bit mask of the locations 
+	 * (x-coordinate * 8 + y-coordinate) at which a figure of player could 
+	 * take a figure with its next ply. The attack maps are computed once for
+	 * each position.
+	 * */
+	public final long getAttackMap(Player player)
+	{
+		long[] maps = attackMaps;
+		if (maps == null)
+		{
+			BitBoard board = getEvaluationBoard();
+			maps = new long[] {board.getAttacks(BitBoard.WHITE), 
+					board.getAttacks(BitBoard.BLACK)};
+			attackMaps = maps;
+		}
+		return maps[BitBoard.getColor(player)];
+	}
+	
+	/** @return true, iff there is a figure of player and type at (x, y). */
+	private boolean isFigureAt(int x, int y, Player player, int type)
+	{
+		if (x < 0 || x >= 8 || y < 0 || y >= 8)
+			return false;
+		Figure figure = figures[x * 8 + y];
+		return figure != null && figure.getOwner() == player 
+			&& figure.getPieceType() == type;
+	}
+	
+	/** 
+	 * @return The board backend used for newly constructed positions - 
+	 * {@link Position#ARRAY_BOARD} or {@link Position#BIT_BOARD}.
+	 * */
+	public static int getBoardBackend()
+	{
+		return boardBackend;
+	}
+	
+	/** 
+	 * Selects the board backend used for newly constructed positions. 
+	 * Positions that already exist keep their backend. The public interface 
+	 * of {@link Position} and {@link Figure} does not depend on the backend.
+	 * @param backend - {@link Position#ARRAY_BOARD} or 
+	 * {@link Position#BIT_BOARD} (the default).
+	 * */
+	public static void setBoardBackend(int backend)
+	{
+		boardBackend = backend;
+	}
+	
 	/** @return The castling history in the position - one of the following:
 	 	{@link Position#WHITE_CASTLE_KING_SIDE}, 
 	 	{@link Position#WHITE_CASTLE_QUEEN_SIDE},
@@ -166,8 +509,9 @@ public class Position {
 	 	{@link Position#BLACK_CASTLE_QUEEN_SIDE},
 	 */
 	public final void setCastlingHistory(int castlingHistory) {
+		hash ^= HashKeyProvider.getCastlingKey(this.castlingHistory)
+			^ HashKeyProvider.getCastlingKey(castlingHistory);
 		this.castlingHistory = castlingHistory;
-		computeZobristHash();
 	}
 	
 	/**@return The x-position, on which a pawn can be taken en passant; -1 if no 
@@ -182,13 +526,23 @@ public class Position {
 	 * The x-position, on which a pawn can be taken en passant; -1 if no 
 	 * en passant ply is legal.*/
 	public final void setEnPassantLine(int enPassantLine) {
+		hash ^= HashKeyProvider.getEnPassantKey(this.enPassantLine)
+			^ HashKeyProvider.getEnPassantKey(enPassantLine);
 		this.enPassantLine = enPassantLine;
-		computeZobristHash();
+	}
+	
+	/**
+	 * @param playerAtMove - the {@link Player} at move in the position.
+	 * @return The 64 bit Zobrist hash of the position with playerAtMove at
+	 * move.
+	 * */
+	public final long getHash(Player playerAtMove) {
+		return hash ^ HashKeyProvider.getPlayerKey(playerAtMove);
 	}
 	
 	@Override
 	public final int hashCode() {
-		return hash;
+		return (int) (hash ^ (hash >>> 32));
 	}
 	
 	@Override
@@ -196,7 +550,12 @@ public class Position {
 		if (obj instanceof Position)
 		{
 			Position anotherPosition = (Position)obj;
-//			if (hash != anotherPosition.hash) return false;
+			if (hash != anotherPosition.hash) 
+				return false;
+			if (bitBoard != null && anotherPosition.bitBoard != null)
+				return bitBoard.equals(anotherPosition.bitBoard)
+					&& enPassantLine == anotherPosition.enPassantLine
+					&& castlingHistory == anotherPosition.castlingHistory;
 			for (int i = 0; i < 64; i++)
 			{
 				if (figures[i]==null)
@@ -235,40 +594,47 @@ public class Position {
 	}
 	
 	/**
-	 * Computes the Zobrist hash for this {@link Position} and stores the result
-	 * in {@link Position#hash}.
+	 * Computes the Zobrist hash for this {@link Position} from scratch and 
+	 * stores the result in {@link Position#hash}.
 	 * */
 	private void computeZobristHash() {
+		hash = 0;
 		for (int i = 0; i < 64; i++)
 		{
 			if (figures[i] != null)
 				hash ^= figures[i].getHashKey(i);
 		}
-		hash ^= castlingHistory;
-		hash ^= enPassantLine;
+		hash ^= HashKeyProvider.getCastlingKey(castlingHistory);
+		hash ^= HashKeyProvider.getEnPassantKey(enPassantLine);
 	}
 	
 	/**
 	 * @param player - the {@link Player} for which the {@link Position} should
 	 * be evaluated.
-	 * @return The advantage of player (in centipawns).
+	 * @return The advantage of player (in centipawns), i.e. the difference of
+	 * the values of the figures of both players at their locations, see
+	 * {@link PieceSquareTables}, plus the evaluation of the
+	 * {@link PawnStructure}. With the bit board backend, the values are
+	 * updated with each ply instead of summing them up for each call. With
+	 * the array backend, they are summed up once for each position.
 	 * */
 	public final int evaluate(Player player)
 	{
-		int value = 0;
-		for (int i = 0; i < 64; i++)
-			if (figures[i] != null)
-			{
-				// sign determines wheter to add a positive advantage
-				// or a negative advantage for the given figure.
-				int sign = 0;
-				if (figures[i].getOwner().equals(player))
-					sign = 1;
-				else 
-					sign = -1;
-				value += sign * figures[i].getValue();
-			}
-		return value;
+		return getEvaluationBoard().evaluate(BitBoard.getColor(player));
+	}
+	
+	/** @return The {@link BitBoard} of the position, which is built once
+	 * for a position of the {@link Position#ARRAY_BOARD} backend. */
+	private BitBoard getEvaluationBoard() {
+		if (bitBoard != null)
+			return bitBoard;
+		BitBoard board = evaluationBoard;
+		if (board == null)
+		{
+			board = new BitBoard(figures);
+			evaluationBoard = board;
+		}
+		return board;
 	}
 	
 	/** @param castleType - one of the four castling constants defined in
@@ -291,7 +657,7 @@ public class Position {
 	private void castle(int castleType)
 	{
 		// clear the bit at the position where castleType is 1
-		castlingHistory ^= castleType;
+		castlingHistory &= ~castleType;
 	}
 	
 	/** 
@@ -318,11 +684,15 @@ public class Position {
 			{
 				ChessLocation oldRookLocation 
 					= position.getFigureLocation(figure);
+				// the initial row of the player's rooks
+				int row = figure.getOwner() == Player.BLACK? 7: 0;
 				// king's rook ply
-				if (oldRookLocation != null && oldRookLocation.x == 0)
+				if (oldRookLocation != null && oldRookLocation.x == 7
+						&& oldRookLocation.y == row)
 					castle(castleKingSideCode);
 				// queen's rook ply
-				if (oldRookLocation != null && oldRookLocation.x == 7)
+				if (oldRookLocation != null && oldRookLocation.x == 0
+						&& oldRookLocation.y == row)
 					castle(castleQueenSideCode);
 			}
 		}	
@@ -347,6 +717,22 @@ public class Position {
 		}
 	}
 	
+	/** 
+	 * Updates {@link Position#castlingHistory} when a figure is moved to
+	 * location. If location is the initial location of a rook, castling with
+	 * that rook is no longer possible. */
+	private void updateCornerCastlingHistory(ChessLocation location)
+	{
+		if (location.y == 0 && location.x == 7)
+			castle(WHITE_CASTLE_KING_SIDE);
+		else if (location.y == 0 && location.x == 0)
+			castle(WHITE_CASTLE_QUEEN_SIDE);
+		else if (location.y == 7 && location.x == 7)
+			castle(BLACK_CASTLE_KING_SIDE);
+		else if (location.y == 7 && location.x == 0)
+			castle(BLACK_CASTLE_QUEEN_SIDE);
+	}
+	
 	/** 
 	 * Updates {@link Position#enPassantLine}, depending on the last move per-
 	 * formed. The last move is specified in terms of the last position and
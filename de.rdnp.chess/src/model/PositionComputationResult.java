@@ -11,6 +11,7 @@ public class PositionComputationResult {
 
 	private Collection<Position> positions;
 	private int maximumAdvantageN;
+	private int[] principalVariation = new int[0];
 	
 	/**
 	 * Constructs a {@link PositionComputationResult}.
@@ -39,6 +40,26 @@ public class PositionComputationResult {
 		this.maximumAdvantageN = maximumAdvantageN;
 	}
 	
+	/**
+	 * @return The principal variation of the first {@link Position} of the
+	 * result, i.e. the plies that are expected to follow from the start
+	 * position when both players play their best plies, encoded by
+	 * {@link Move}. Empty, if the {@link PositionComputer} does not compute
+	 * it.
+	 * */
+	public int[] getPrincipalVariation() {
+		return principalVariation;
+	}
+	
+	/**
+	 * Sets the principal variation of the first {@link Position} of the
+	 * result. Called by {@link AlphaBetaSearch} instances.
+	 * @param principalVariation - the plies, encoded by {@link Move}.
+	 * */
+	void setPrincipalVariation(int[] principalVariation) {
+		this.principalVariation = principalVariation;
+	}
+	
 	/**
 	 * @return A {@link Collection} with {@link Position} instances found in a 
 	 * position computation executed by a {@link PositionComputer} instance.
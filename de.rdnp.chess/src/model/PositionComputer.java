@@ -1,25 +1,20 @@
 package model;
 
 
-import game.Automaton;
 import game.Player;
 
-import java.util.Map;
-
-
-import main.ChessApplication;
+import java.util.concurrent.Callable;
 
 
 /** 
- * Represents a Thread that computes positions and builds the 
+ * Represents a task that computes positions and builds the 
  * {@link PositionTree}, starting with a particular start position and a
- * particular figure.
+ * particular figure. It is run by an executor, which returns its result as
+ * a future.
  * @author Richard Pohl*/
-public class PositionComputer extends Thread {
+public class PositionComputer implements Callable<PositionComputationResult> {
 
-	private Automaton automaton;
 	private Player player;
-	private Map<Figure, PositionComputationResult> bestPlies;
 	private Position start;
 	private Figure figure;
 	/** The limit of the computation. This defines, how many successive legal 
@@ -29,12 +24,9 @@ public class PositionComputer extends Thread {
 	/** The value of the best move found after considering 
 	 * {@link PositionComputer#quality} moves. */
 	private int maximumFigureAdvantageN = Integer.MIN_VALUE;
-
+	
 	/** Constructs a PositionComputer. 
-	 * @param automaton - the {@link Automaton} to compute the best positions 
-	 * for.
-	 * @param bestPlies - a map where the computation results are registered by 
-	 * {@link Figure} instances.
+	 * @param player - the {@link Player} to compute the best positions for.
 	 * @param start - the {@link Position} to start the compuation from
 	 * @param figure - the {@link Figure} to initially move in the compuation. 
 	 * In the first ply, a {@link PositionComputer} will only consider
@@ -42,13 +34,10 @@ public class PositionComputer extends Thread {
 	 * On all successive plies, the movements of all figures are considered.
 	 * @param quality - see {@link PositionComputer#quality}.
 	 * */
-	public PositionComputer(Automaton automaton, 
-			Map<Figure, PositionComputationResult> bestPlies, Position start, 
-			Figure figure, int quality) 
+	public PositionComputer(Player player, Position start, Figure figure,
+			int quality) 
 	{
-		this.automaton = automaton;
-		player = automaton.getPlayer();
-		this.bestPlies = bestPlies;
+		this.player = player;
 		this.start = start;
 		this.figure = figure;
 		this.quality = quality;
@@ -56,16 +45,14 @@ public class PositionComputer extends Thread {
 	
 	/** 
 	 * This does a search for each possible initial ply do a to find 
-	 * the best outcome and some other parameters. The results are registered by 
-	 * {@link Figure} keys in a Map.
-	 * See {@link PositionComputer#PositionComputer(Automaton, Map, Position, 
-	 * Figure, int)} and {@link PositionComputer} for further details.*/
+	 * the best outcome and some other parameters.
+	 * See {@link PositionComputer#PositionComputer(Player, Position, 
+	 * Figure, int)} and {@link PositionComputer} for further details.
+	 * @return The best plies of the figure and their evaluation. */
 	@Override
-	public void run() {
-		// acquire semaphore
-		automaton.getPositionComputerSemaphore().acquireUninterruptibly();
+	public PositionComputationResult call() {
 		// initialize position vector for figure
-		bestPlies.put(figure, new PositionComputationResult());
+		PositionComputationResult result = new PositionComputationResult();
 		// build position tree for figure
 		PositionTree positionTree 
 			= new PositionTree(player, start, figure, quality);
@@ -87,28 +74,15 @@ public class PositionComputer extends Thread {
 			}
 		}
 		// add maximum advantage to result structure
-		bestPlies.get(figure).setMaximumAdvantageN(maximumFigureAdvantageN);
+		result.setMaximumAdvantageN(maximumFigureAdvantageN);
 		// add all plies that have maximum advantage to result list
 		for (Position initialPly: positionTree.getTargets(start))
 		{
 			if (positionTree.getEvaluation(initialPly, player) 
 				== maximumFigureAdvantageN)
-			bestPlies.get(figure).getPositions().add(initialPly);
-		}
-		// release semaphore
-		automaton.getPositionComputerSemaphore().release();
-		// send notification if all figures are computed and there are no 
-		// more working threads (checks Semaphore's permits).
-		boolean allFiguresComputed = true;
-		for (Figure figure: player.getFigures(start))
-			if (bestPlies.get(figure) == null)
-				allFiguresComputed = false;
-		synchronized (automaton.getPositionComputerSemaphore()) {
-			if (automaton.getPositionComputerSemaphore().availablePermits() 
-					== ChessApplication.getInstance().getMaxThreadNumber() && 
-					allFiguresComputed)
-					automaton.getPositionComputerSemaphore().notify();
+			result.getPositions().add(initialPly);
 		}
+		return result;
 	}
 	
 	/** @return The value of the best move found after considering 
@@ -0,0 +1,199 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Stores the nodes of a {@link PositionTree} in parallel primitive arrays
+ * (struct of arrays) instead of one object per node. A node is identified by
+ * its index, which is assigned in the order the nodes are added. It keeps
+ * <ul>
+ * <li>the hash key of its position (the Zobrist hash without the key of the
+ * player at move, see {@link Position#getHash(game.Player)}),</li>
+ * <li>the index of its source (parent) node,</li>
+ * <li>the indices of its first target (child) node and of its next sibling,
+ * which link the targets of a node to a list,</li>
+ * <li>the move that leads from the source to the node, encoded by
+ * {@link Move},</li>
+ * <li>its evaluation, its reachability (depth) and the color at move.</li>
+ * </ul>
+ * The positions are not stored, but materialized from the moves on demand
+ * (see {@link PositionTree}). The nodes are found by their hash key in an
+ * open-addressing hash table of node indices.
+ * @author Richard Pohl*/
+final class PositionNodeStore {
+
+	/** The index of a missing node. */
+	static final int NONE = -1;
+
+	// the initial number of nodes the arrays can hold
+	private static final int INITIAL_CAPACITY = 64;
+
+	/* THE FIELDS OF THE NODES, INDEXED BY NODE */
+	private long[] keys;
+	private int[] sources;
+	private int[] firstTargets;
+	private int[] nextTargets;
+	private int[] moves;
+	private int[] evaluations;
+	private byte[] reachabilities;
+	private byte[] colors;
+
+	/** The number of nodes. */
+	private int size;
+
+	/** The hash table of the node indices plus 1 (0 marks an empty slot),
+	 * with linear probing. Its length is a power of two of at least twice
+	 * the capacity of the node arrays. */
+	private int[] table;
+
+	/** Constructs an empty {@link PositionNodeStore}. */
+	PositionNodeStore() {
+		keys = new long[INITIAL_CAPACITY];
+		sources = new int[INITIAL_CAPACITY];
+		firstTargets = new int[INITIAL_CAPACITY];
+		nextTargets = new int[INITIAL_CAPACITY];
+		moves = new int[INITIAL_CAPACITY];
+		evaluations = new int[INITIAL_CAPACITY];
+		reachabilities = new byte[INITIAL_CAPACITY];
+		colors = new byte[INITIAL_CAPACITY];
+		table = new int[INITIAL_CAPACITY * 2];
+	}
+
+	/** @return The number of nodes. */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Adds a node without targets, whose evaluation is Integer.MIN_VALUE
+	 * (a node is assumed to be very bad until it is evaluated).
+	 * @param key - the hash key of the position, which must not be in the
+	 * store yet.
+	 * @param source - the index of the source node, {@link #NONE} if there
+	 * is none.
+	 * @param move - the move from the source to the position, encoded by
+	 * {@link Move}, {@link Move#NONE} if there is none.
+	 * @param reachability - the number of plies from the root.
+	 * @param color - the color at move in the position.
+	 * @return The index of the new node.
+	 * */
+	int add(long key, int source, int move, int reachability, int color) {
+		if (size == keys.length)
+			grow();
+		int node = size++;
+		keys[node] = key;
+		sources[node] = source;
+		firstTargets[node] = NONE;
+		nextTargets[node] = NONE;
+		moves[node] = move;
+		evaluations[node] = Integer.MIN_VALUE;
+		reachabilities[node] = (byte) reachability;
+		colors[node] = (byte) color;
+		insert(node);
+		return node;
+	}
+
+	/**
+	 * @param key - the hash key of a position.
+	 * @return The index of the node of the position, {@link #NONE} if there
+	 * is none.
+	 * */
+	int find(long key) {
+		int mask = table.length - 1;
+		for (int slot = (int) (key ^ (key >>> 32)) & mask; table[slot] != 0;
+				slot = (slot + 1) & mask)
+			if (keys[table[slot] - 1] == key)
+				return table[slot] - 1;
+		return NONE;
+	}
+
+	/**
+	 * Adds a node to the front of the targets of another node. A node can
+	 * only be the target of one node.
+	 * @param node - the index of the node.
+	 * @param target - the index of the target node.
+	 * */
+	void addTarget(int node, int target) {
+		nextTargets[target] = firstTargets[node];
+		firstTargets[node] = target;
+	}
+
+	/** @return The index of the last added target of node, {@link #NONE} if
+	 * there is none. */
+	int getFirstTarget(int node) {
+		return firstTargets[node];
+	}
+
+	/** @return The index of the target added to the source of node before
+	 * node, {@link #NONE} if there is none. */
+	int getNextTarget(int node) {
+		return nextTargets[node];
+	}
+
+	/** @return The hash key of the position of node. */
+	long getKey(int node) {
+		return keys[node];
+	}
+
+	/** @return The index of the source of node, {@link #NONE} if there is
+	 * none. */
+	int getSource(int node) {
+		return sources[node];
+	}
+
+	/** Sets the index of the source of node. */
+	void setSource(int node, int source) {
+		sources[node] = source;
+	}
+
+	/** @return The move from the source to node, encoded by {@link Move}. */
+	int getMove(int node) {
+		return moves[node];
+	}
+
+	/** @return The evaluation of node for the color at move. */
+	int getEvaluation(int node) {
+		return evaluations[node];
+	}
+
+	/** Sets the evaluation of node for the color at move. */
+	void setEvaluation(int node, int evaluation) {
+		evaluations[node] = evaluation;
+	}
+
+	/** @return The number of plies from the root to node. */
+	int getReachability(int node) {
+		return reachabilities[node];
+	}
+
+	/** @return The color at move in node. */
+	int getColor(int node) {
+		return colors[node];
+	}
+
+	/** Doubles the capacity of the arrays and rebuilds the hash table. */
+	private void grow() {
+		int capacity = keys.length * 2;
+		keys = Arrays.copyOf(keys, capacity);
+		sources = Arrays.copyOf(sources, capacity);
+		firstTargets = Arrays.copyOf(firstTargets, capacity);
+		nextTargets = Arrays.copyOf(nextTargets, capacity);
+		moves = Arrays.copyOf(moves, capacity);
+		evaluations = Arrays.copyOf(evaluations, capacity);
+		reachabilities = Arrays.copyOf(reachabilities, capacity);
+		colors = Arrays.copyOf(colors, capacity);
+		table = new int[capacity * 2];
+		for (int node = 0; node < size; node++)
+			insert(node);
+	}
+
+	/** Inserts node into the hash table. */
+	private void insert(int node) {
+		int mask = table.length - 1;
+		long key = keys[node];
+		int slot = (int) (key ^ (key >>> 32)) & mask;
+		while (table[slot] != 0)
+			slot = (slot + 1) & mask;
+		table[slot] = node + 1;
+	}
+}
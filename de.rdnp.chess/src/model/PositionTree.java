@@ -3,68 +3,95 @@ package model;
 
 import game.Player;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Stack;
 
 
 
-/** 
+/**
  * This is an n-ary tree implementation to store chess positions in an ordered
  * way. Supports operations to determine a best ply for a player and to get
  * information about stored positions.
+ * <br>
+ * The nodes are kept in a {@link PositionNodeStore}, which stores the move
+ * that leads to each position instead of the position itself. The positions
+ * are materialized on demand by making the moves from the root position on a
+ * {@link SearchBoard}. Only the root position and the positions added by
+ * {@link PositionTree#addNode(Position, Player, int)} are stored.
  * @author Richard Pohl*/
 public class PositionTree {
 
-	/** The root position of the position tree. */
-	private Position root;
-	private int depth;	
-	
+	/* THE ORDER OF THE PLIES OF THE FIGURES, SEE orderMoves */
+	// indexed by (dx + 2) * 5 + dy + 2
+	private static final int[] KNIGHT_ORDER = {
+		-1, 0, -1, 1, -1,
+		4, -1, -1, -1, 5,
+		-1, -1, -1, -1, -1,
+		6, -1, -1, -1, 7,
+		-1, 2, -1, 3, -1};
+	private static final int[] KING_ORDER = {
+		-1, -1, -1, -1, -1,
+		-1, 0, 7, 1, -1,
+		-1, 5, -1, 4, -1,
+		-1, 2, 6, 3, -1,
+		-1, -1, -1, -1, -1};
+	// indexed by the figure type a pawn is transformed into
+	private static final int[] PROMOTION_ORDER = {0, 1, 0, 3, 2, 0};
+
+	/** The number of plies from the root to the evaluated positions. */
+	private int depth;
+
 	/** The nodes of the position tree. */
-	private Map<Position, PositionNode> nodes;
-	
+	private PositionNodeStore nodes;
+
+	/** The positions that are stored instead of materialized, by node
+	 * index. */
+	private Map<Integer, Position> positions;
+
 	/**
 	 * Constructs the position tree, assuming the activePlayer is active in
-	 * the given root position. 
+	 * the given root position.
 	 * @param activePlayer - the player at move.
 	 * @param root - the current position in the game.
 	 * @param figure - the figure to compute the PositionTree for.
-	 * @param depth - a measure for the depth, i.e. quality of the 
+	 * @param depth - a measure for the depth, i.e. quality of the
 	 * PositionTree. Higher values require more time and memory, but enable
 	 * a more precise estimation of the advantages.
 	 * */
-	public PositionTree(Player activePlayer, Position root, Figure figure, 
-			int depth) 
+	public PositionTree(Player activePlayer, Position root, Figure figure,
+			int depth)
 	{
-		nodes = new HashMap<Position, PositionNode>();
-		this.root = root;
+		nodes = new PositionNodeStore();
+		positions = new HashMap<Integer, Position>();
 		this.depth = depth;
 		initialize(activePlayer, root, figure);
 		evaluate();
 	}
-	
-	private PositionNode getPositionNode(Position position)
+
+	/** @return The index of the node of position,
+	 * {@link PositionNodeStore#NONE} if there is none. */
+	private int getNode(Position position)
 	{
-		return nodes.get(position);
+		return nodes.find(getKey(position));
 	}
 
-	/** 
-	 * @param position - the {@link Position} for which the {@link Player} at 
+	/**
+	 * @param position - the {@link Position} for which the {@link Player} at
 	 * move should be determined.
 	 * @return The {@link Player} at move in position.
 	 *  */
 	public Player getPlayer(Position position)
 	{
-		PositionNode positionNode = getPositionNode(position);
-		return positionNode != null? positionNode.getPlayer(): null;
+		int node = getNode(position);
+		return node != PositionNodeStore.NONE? getPlayer(node): null;
 	}
-	
-	/** Sets the evaluation of a {@link Position}, 
+
+	/** Sets the evaluation of a {@link Position},
 	 * which is held as a pre-computed
-	 * value in a {@link PositionNode} for performance reasons.
+	 * value in the tree for performance reasons.
 	 * @param position - the {@link Position} to set the evaluation for.
 	 * @param evaluation - the advantage of the {@link Player} at move in the
 	 * {@link Position} of this {@link Position}. Can be obtained by calling
@@ -72,266 +99,353 @@ public class PositionTree {
 	 * */
 	public void setEvaluation(Position position, int evaluation)
 	{
-		PositionNode positionNode = getPositionNode(position);
-		positionNode.setEvaluation(evaluation);
+		nodes.setEvaluation(getNode(position), evaluation);
 	}
 
 	/**
-	 * @param player - the {@link Player} for which the {@link Position} 
+	 * @param player - the {@link Player} for which the {@link Position}
 	 * shall be evaluated.
 	 * @param position - the {@link Position} to get the evaluation for.
 	 * @return The evaluation of the position for player. This is a pre-computed
-	 * value that is stored in a {@link PositionNode} by a 
-	 * {@link PositionComputer}. 
+	 * value that is stored in the tree by a {@link PositionComputer}.
 	 * */
 	public int getEvaluation(Position position, Player player)
 	{
-		PositionNode positionNode = getPositionNode(position);
-		return positionNode != null?
-			positionNode.getEvaluation(player): Integer.MIN_VALUE;
+		int node = getNode(position);
+		if (node == PositionNodeStore.NONE)
+			return Integer.MIN_VALUE;
+		if (getPlayer(node).equals(player))
+			return nodes.getEvaluation(node);
+		else
+			return nodes.getEvaluation(node) * -1;
 	}
-	
-	/** 
+
+	/**
 	 * @param position - the position to get the reachability for.
-	 * @return The number of legal plies in which the {@link Position} 
-	 * can be reached starting from the root Position 
+	 * @return The number of legal plies in which the {@link Position}
+	 * can be reached starting from the root Position
 	 * of the {@link PositionTree}.
 	 * */
 	public int getReachability(Position position)
 	{
-		PositionNode positionNode = getPositionNode(position);
-		return positionNode != null? positionNode.getReachability(): -1;
+		int node = getNode(position);
+		return node != PositionNodeStore.NONE?
+			nodes.getReachability(node): -1;
 	}
-	
-	/** 
+
+	/**
 	 * @param position - the position to get the sources for.
-	 * @return A {@link Position} instance from which the 
+	 * @return A {@link Position} instance from which the
 	 * {@link Position} can be reached with a legal ply. */
 	public Position getSource(Position position)
 	{
-		PositionNode positionNode = getPositionNode(position);
-		return positionNode != null? positionNode.getSource(): null;
+		int node = getNode(position);
+		if (node == PositionNodeStore.NONE
+				|| nodes.getSource(node) == PositionNodeStore.NONE)
+			return null;
+		return getPosition(nodes.getSource(node));
 	}
-	
+
 	/**
-	 * @param position - the {@link Position} for which the source shall be 
+	 * @param position - the {@link Position} for which the source shall be
 	 * set.
-	 * @param source - a {@link Position} instance from which the 
-	 * position can be reached with a 
-	 * legal ply that should be captured in this PositionTree.
+	 * @param source - a {@link Position} instance from which the
+	 * position can be reached with a
+	 * legal ply that should be captured in this PositionTree. It is added to
+	 * the tree, if it is not in the tree yet.
 	 * */
 	public void setSource(Position position, Position source)
 	{
-		getPositionNode(position).setSource(source);
+		int node = getNode(position);
+		addNode(source, getPlayer(node).getOpponent(),
+				nodes.getReachability(node) - 1);
+		nodes.setSource(node, getNode(source));
 	}
 
-	/** 
+	/**
 	 * @param position - the position to get the targets for.
-	 * @return A {@link List} of {@link Position} instances that can be reached 
+	 * @return A {@link List} of {@link Position} instances that can be reached
 	 * with a legal ply in this {@link PositionTree}.
 	 */
 	public List<Position> getTargets(Position position)
 	{
-		PositionNode positionNode = getPositionNode(position);
-		return positionNode != null? positionNode.getTargets(): null;
+		int node = getNode(position);
+		if (node == PositionNodeStore.NONE)
+			return null;
+		List<Position> targets = new ArrayList<Position>();
+		SearchBoard board = null;
+		for (int target = nodes.getFirstTarget(node);
+				target != PositionNodeStore.NONE;
+				target = nodes.getNextTarget(target))
+		{
+			if (positions.containsKey(target))
+				targets.add(positions.get(target));
+			else
+			{
+				// materialize the targets from the board of position
+				if (board == null)
+					board = getBoard(node);
+				board.makeMove(nodes.getMove(target));
+				targets.add(board.toPosition());
+				board.unmakeMove();
+			}
+		}
+		// the targets are linked in the reverse order of their addition
+		Collections.reverse(targets);
+		return targets;
 	}
 
 	/**
 	 * Adds a node to this {@link PositionTree}, if there is not already a node
-	 * for the {@link Position} given or if the node in the PositionTree has
-	 * a reachability that is greater than the new node to be added.
-	 * @param position - the {@link Position} to add a {@link PositionNode} for.
+	 * for the {@link Position} given. The position is stored in the tree.
+	 * @param position - the {@link Position} to add a node for.
 	 * @param player - the {@link Player} at move in the {@link Position}.
-	 * @param reachability - the distance of the new {@link PositionNode} to the
+	 * @param reachability - the distance of the new node to the
 	 * root of this PositionTree.
-	 * @return true, if a {@link PositionNode} was added, false otherwise.
+	 * @return true, if a node was added, false otherwise.
 	 * */
 	public boolean addNode(Position position, Player player, int reachability)
 	{
 		// do not allow cycles, since this is a tree:
-		if (nodes.get(position) == null 
-//				|| (nodes.get(position).getReachability() > reachability)
-				)
+		if (getNode(position) == PositionNodeStore.NONE)
 		{
-			PositionNode positionNode = new PositionNode(position, player, 
-				reachability);
-			nodes.put(position, positionNode);
+			int node = nodes.add(getKey(position), PositionNodeStore.NONE,
+				Move.NONE, reachability, BitBoard.getColor(player));
+			positions.put(node, position);
 			return true;
 		}
 		return false;
 	}
 
 	/**
-	 * @param position - the {@link Position} for which the target shall be 
+	 * @param position - the {@link Position} for which the target shall be
 	 * added.
-	 * @param target - a {@link Position} instance that can be reached 
+	 * @param target - a {@link Position} instance that can be reached
 	 * with a legal ply from the position
-	 * that should be captured in this PositionTree.
+	 * that should be captured in this PositionTree. It is added to the tree,
+	 * if it is not in the tree yet, and can only be the target of one
+	 * position.
 	 * */
 	public void addTarget(Position position, Position target)
 	{
-		getPositionNode(position).addTarget(target);
+		int node = getNode(position);
+		addNode(target, getPlayer(node).getOpponent(),
+				nodes.getReachability(node) + 1);
+		nodes.addTarget(node, getNode(target));
 	}
-	
+
 	public int size()
 	{
 		return nodes.size();
 	}
-	
-	/** Builds the tree of the best positions for figure. 
-	 * @param activePlayer - the {@link Player} at move in the root or start 
+
+	/** Builds the tree of the best positions for figure.
+	 * @param activePlayer - the {@link Player} at move in the root or start
 	 * {@link Position}.
 	 * @param root - the root or start position of the {@link PositionTree}.
-	 * @param figure - the {@link Figure} to compute the {@link PositionTree} 
-	 * for. This means that in the first ply only movements of figure are 
-	 * considered, in all subsequent plies, all figures are moved. 
-	 * */	
+	 * @param figure - the {@link Figure} to compute the {@link PositionTree}
+	 * for. This means that in the first ply only movements of figure are
+	 * considered, in all subsequent plies, all figures are moved.
+	 * */
 	private void initialize(Player activePlayer, Position root, Figure figure)
 	{
-		// breadth-first-search through possible plies
-		Queue<Position> q = new LinkedList<Position>(); 
-		// level counter to track the distance to root, 
-		int level = 0; 
-		// player at move
-		Player movePlayer = activePlayer;
 		// insert root position into position tree
-		addNode(root, movePlayer, level);
-		q.add(root); 
-		while (!q.isEmpty()) {
-			Position currentPosition = q.poll();
-			// get player and level of the ply
-			level = getReachability(currentPosition);
+		addNode(root, activePlayer, 0);
+		SearchBoard board = new SearchBoard(root, activePlayer);
+		int[] moves = new int[SearchBoard.MAX_MOVES];
+		int[] path = new int[Math.max(depth, 1)];
+		// breadth-first-search through possible plies: the nodes are added
+		// in breadth-first order, so the node indices are the queue
+		for (int node = 0; node < nodes.size(); node++)
+		{
+			// get level of the ply
+			int level = nodes.getReachability(node);
+			// if we did not cross the thinkThreshold, continue with search,
+			// else the positions were evaluated when they were added
+			if (level >= depth)
+				break;
+			// make the moves from the root to the position
+			int pathLength = 0;
+			for (int n = node; nodes.getSource(n) != PositionNodeStore.NONE;
+					n = nodes.getSource(n))
+				path[pathLength++] = nodes.getMove(n);
+			for (int i = pathLength - 1; i >= 0; i--)
+				board.makeMove(path[i]);
 			if (level == 1)
 				System.out.println("Thinking about what would happen, if I did "
-						+ "this (ply #"+currentPosition.hashCode()
-						+"):\n"+currentPosition.toString());
-			movePlayer = getPlayer(currentPosition);
-			// the positions for the next iteration of the dfs
-			Position[] nextPositions;
-			// on the first level compute plies for given figure
+						+ "this (ply #"+board.toPosition().hashCode()
+						+"):\n"+board.toPosition().toString());
+			int count;
+			// on the first level compute the legal plies for given figure
 			if (level == 0)
 			{
-				nextPositions = figure.computeOnePly(currentPosition);
-				// figure computation doesn't consider side effects on other figures,
-				// such as chess .. so it needs to be checked if the move is at all
-				// legal.
-				for (int i = 0; nextPositions[i] != null; i++) {
-					if (movePlayer.chess(nextPositions[i])) 
-						// this move is illegal
-						nextPositions[i] = null;
-				}
-				// now filter out nulled out moves
-				int newIndex = 0;
-				for (int i = 0; i < nextPositions.length; i++) {
-					if (nextPositions[i] != null) {
-						nextPositions[newIndex++] = nextPositions[i];
-					}
-				}
-				if (nextPositions[0] == null)
-					System.out.println("No ply found in "+currentPosition
-						+" for "+figure.getClass().getName()+" figure" 
-						+" at (x="+currentPosition.getFigureLocation(figure).x
-						+", y="+currentPosition.getFigureLocation(figure).y
+				count = board.generateLegalMoves(moves);
+				int figureCount = 0;
+				for (int i = 0; i < count; i++)
+					if (board.getFigureAt(Move.getFrom(moves[i])) == figure)
+						moves[figureCount++] = moves[i];
+				count = figureCount;
+				if (count == 0)
+					System.out.println("No ply found in "+root
+						+" for "+figure.getClass().getName()+" figure"
+						+" at (x="+root.getFigureLocation(figure).x
+						+", y="+root.getFigureLocation(figure).y
 						+")");
-				
-			}
-			// on all other levels compute all possible plies 
-			else 
-			{
-				nextPositions = movePlayer.computePlies(currentPosition, false);
 			}
-			// if we did not cross the thinkThreshold, continue with search
-			//   fill stack, add an inner node & switch player
-			if (level < depth) 
+			// on all other levels compute all possible plies
+			else
+				count = board.generateMoves(moves);
+			orderMoves(moves, count);
+			// add an inner node for each target that is not already in the
+			// tree (avoid running into cycles)
+			for (int i = 0; i < count; i++)
 			{
-				for (int i = 0; nextPositions[i] != null; i++)
+				board.makeMove(moves[i]);
+				long key = getKey(board);
+				if (nodes.find(key) == PositionNodeStore.NONE)
 				{
-					Position target = nextPositions[i];
-					boolean proceedWithTarget =
-						addNode(target, movePlayer.getOpponent(), 
-							level + 1);
-					// only proceed if not already processed (avoid running into
-					// cycles)
-					if (proceedWithTarget)
-					{
-						addTarget(currentPosition, target);
-						setSource(target, currentPosition);
-						q.add(target);
-					}
+					int target = nodes.add(key, node, moves[i], level + 1,
+						board.getColor());
+					nodes.addTarget(node, target);
+					// we reached the thinkThreshold, which is the point we
+					// stop computation. The plies at this point in the
+					// search need to be evaluated
+					if (level + 1 == depth)
+						nodes.setEvaluation(target, board.evaluate());
 				}
+				board.unmakeMove();
 			}
-			// else we reached the thinkThreshold, which is the point we stop
-			// computation. The plies at this point in the search need to be
-			// evaluated
-			else
-				getPositionNode(currentPosition).evaluate();
-		} 
+			for (int i = 0; i < pathLength; i++)
+				board.unmakeMove();
+		}
 		System.out.println("I built the position tree.");
 	}
-	
-	/** Propagates the evaluations of the target positions to their sources.*/
-	private void evaluate() {
-		// post-order depth-first-search to find targets:
-		// s used for an initial pre-order dfs that builds p
-		// p is used to save the (reverse) order of the dfs to process the 
-		// visited elements after the search in post-order
-		Stack<Position> s = new Stack<Position>(), 
-					    p = new Stack<Position>();
-		// build p with a normal pre-order dfs
-		s.push(root); 
-		while (!s.isEmpty())
+
+	/**
+	 * Sorts moves into the order in which the {@link Player} and its
+	 * {@link Figure}s compute the plies (see
+	 * {@link Player#computePlies(Position, boolean)}). Since a position is
+	 * added to the tree with the first ply that reaches it, the order
+	 * determines the source of the positions that can be reached on several
+	 * ways, and hence the evaluations.
+	 * @param moves - the moves, encoded by {@link Move}.
+	 * @param count - the number of moves.
+	 * */
+	private static void orderMoves(int[] moves, int count)
+	{
+		// insertion sort, since there are only few moves
+		for (int i = 1; i < count; i++)
+		{
+			int move = moves[i], order = getOrder(move);
+			int j = i;
+			for (; j > 0 && getOrder(moves[j - 1]) > order; j--)
+				moves[j] = moves[j - 1];
+			moves[j] = move;
+		}
+	}
+
+	/** @return The rank of move in the order of the plies, see
+	 * {@link PositionTree#orderMoves(int[], int)}. */
+	private static int getOrder(int move)
+	{
+		int from = Move.getFrom(move), to = Move.getTo(move);
+		int offset = (to / 8 - from / 8 + 2) * 5 + to % 8 - from % 8 + 2;
+		switch (Move.getPiece(move))
 		{
-			Position position = s.pop();
-			p.push(position);
-			// dfs-add
-			List<Position> targets = getTargets(position);
-			for (int i = 0; i < targets.size(); i++)
-				s.push(targets.get(i));
+		case BitBoard.PAWN:
+			// the pawns follow the other figures by location: first the
+			// normal plies, then the taking plies, then the transformations
+			// into bishops, knights, queens and rooks
+			int kind = to / 8 > from / 8? 2: to / 8 < from / 8? 3:
+				(Move.getFlags(move) & Move.DOUBLE_PAWN_PUSH) != 0? 1: 0;
+			return (64 + from) * 64
+				+ PROMOTION_ORDER[Move.getPromotion(move)] * 4 + kind;
+		case BitBoard.KNIGHT:
+			return (63 - from) * 64 + KNIGHT_ORDER[offset];
+		case BitBoard.KING:
+			// the king is the last figure, castling is its last ply
+			return 128 * 64 + (Math.abs(to / 8 - from / 8) == 2?
+				(to > from? 8: 9): KING_ORDER[offset]);
+		default:
+			// the other figures are ordered by location in reverse order,
+			// their plies by target location
+			return (63 - from) * 64 + to;
 		}
-		// process elements in p 
-		// (the processing order is the order of a post-order dfs)
-		while (!p.isEmpty())
+	}
+
+	/** Propagates the evaluations of the target positions to their sources.*/
+	private void evaluate() {
+		// the targets are added after their sources, so processing the nodes
+		// in reverse order processes all targets of a node before the node
+		for (int node = nodes.size() - 1; node > 0; node--)
 		{
-			Position position = p.pop();
-			// propagate position's evaluation to its sources
-			Position source = getSource(position);
-			if (source != null)
+			// propagate position's evaluation to its source
+			int source = nodes.getSource(node);
+			if (source != PositionNodeStore.NONE)
 			{
-				// player at move in source
-				Player sourcePlayer = getPlayer(source);
-				// values of source and position for this player
-				int positionValue = getEvaluation(position, 
-					sourcePlayer);
-				int sourceValue = getEvaluation(source, 
-					sourcePlayer);
+				// values of source and position for the player at move in
+				// source
+				int positionValue = nodes.getEvaluation(node);
+				if (nodes.getColor(node) != nodes.getColor(source))
+					positionValue *= -1;
+				int sourceValue = nodes.getEvaluation(source);
 				// this player can move at source => propagate best ply
 				// of position level to source level
-				int bestEvaluation = Math.max(sourceValue, positionValue);
-				setEvaluation(source, bestEvaluation);
-
-				// debug output:
-//				Position source1 = source;
-//				while (getReachability(source1) > 1)
-//					source1 = getSources(source1).get(0);
-//				if (source1.hashCode() == -1856444744 && (
-//						getReachability(position) < 4 
-//						|| position.getFigureLocation(
-//								root.getFigureAt(new ChessLocation(1, 5))) 
-//								== null)
-//								)
-//					System.out.println("Propagating an evaluation of "
-//						+getEvaluation(position, sourcePlayer)+" from level "+
-//						getReachability(position)+"("
-//						+position+", "
-//						+getTargets(position).size()
-//						+" targets, hashCode="+position.hashCode()+") to level "
-//						+getReachability(source)
-//						+"("+source.hashCode()+") resulting in "+
-//						getEvaluation(source, sourcePlayer)+"("
-//						+getPlayer(source)+" at move)");
+				nodes.setEvaluation(source,
+						Math.max(sourceValue, positionValue));
 			}
-		}	
+		}
 		// output message for debugging:
 		System.out.println("I evaluated the position tree.");
 	}
+
+	/** @return The {@link Player} at move in node. */
+	private Player getPlayer(int node)
+	{
+		return nodes.getColor(node) == BitBoard.WHITE?
+			Player.WHITE: Player.BLACK;
+	}
+
+	/** @return The position of node, which is materialized, if it is not
+	 * stored. */
+	private Position getPosition(int node)
+	{
+		if (positions.containsKey(node))
+			return positions.get(node);
+		return getBoard(node).toPosition();
+	}
+
+	/** @return A {@link SearchBoard} with the position of node, which is
+	 * materialized by making the moves from the nearest stored position. */
+	private SearchBoard getBoard(int node)
+	{
+		List<Integer> path = new ArrayList<Integer>();
+		int stored = node;
+		while (!positions.containsKey(stored))
+		{
+			path.add(nodes.getMove(stored));
+			stored = nodes.getSource(stored);
+		}
+		SearchBoard board = new SearchBoard(positions.get(stored),
+				getPlayer(stored));
+		for (int i = path.size() - 1; i >= 0; i--)
+			board.makeMove(path.get(i));
+		return board;
+	}
+
+	/** @return The hash key of position without the player at move, so that
+	 * the nodes of the tree are identified like by {@link Position#equals}. */
+	private static long getKey(Position position)
+	{
+		return position.getHash(Player.WHITE)
+			^ HashKeyProvider.getPlayerKey(Player.WHITE);
+	}
+
+	/** @return The hash key of the position on board, see
+	 * {@link PositionTree#getKey(Position)}. */
+	private static long getKey(SearchBoard board)
+	{
+		return board.getHash() ^ HashKeyProvider.getPlayerKey(
+				board.getPlayer());
+	}
 }
@@ -14,6 +14,12 @@ public class Queen extends Figure {
 	@Override
 	protected final ChessLocation[] computeOnePlyLocations(Position position) 
 	{
+		// with a bit board, the reachable locations are a table lookup
+		BitBoard bitBoard = position.getBitBoard();
+		if (bitBoard != null)
+			return computeSlidingOnePlyLocations(bitBoard, 
+				SlidingAttacks.getQueenAttacks(
+					getLocationIndex(position), bitBoard.getOccupancy()), 29);
 		// the queen's plies are computed by combining the rook plies and the
 		// bishop plies.
 		ChessLocation[] result = new ChessLocation[29];
@@ -34,6 +40,11 @@ public class Queen extends Figure {
 		return 950d;
 	}
 	
+	@Override
+	public final int getPieceType() {
+		return BitBoard.QUEEN;
+	}
+	
 	@Override
 	public final String toString() {
 		return super.toString()+"Q";
@@ -49,7 +60,7 @@ public class Queen extends Figure {
 	}
 
 	@Override
-	public final int getHashKey(int location) {
+	public final long getHashKey(int location) {
 		return getOwner().getHashKeyProvider().getHashKey(location, this);
 	}
 }
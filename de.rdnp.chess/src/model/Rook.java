@@ -20,6 +20,11 @@ public class Rook extends Figure {
 		return 450d;
 	}
 	
+	@Override
+	public final int getPieceType() {
+		return BitBoard.ROOK;
+	}
+	
 	@Override
 	public final String toString() {
 		return super.toString()+"R";
@@ -35,7 +40,7 @@ public class Rook extends Figure {
 	}
 
 	@Override
-	public final int getHashKey(int location) {
+	public final long getHashKey(int location) {
 		return getOwner().getHashKeyProvider().getHashKey(location, this);
 	}
 }
@@ -0,0 +1,740 @@
+package model;
+
+import game.Player;
+
+/**
+ * A mutable chess board for searches. Instead of constructing a new
+ * {@link Position} for every ply, a {@link SearchBoard} is changed in place by
+ * {@link SearchBoard#makeMove(int)} and restored by
+ * {@link SearchBoard#unmakeMove()}. The information that cannot be derived
+ * from the move itself (the castling history, the en passant line and the
+ * hash) is kept on an undo stack. The moves carry the types of the moved and
+ * the taken figure, so that they can be ordered without looking at the
+ * board. The taken figures are kept by their types, so that a move that is
+ * unmade puts back the last taken figure of its type.
+ * <br>
+ * Moves are encoded by {@link Move}. The board applies the same rules as
+ * {@link Figure#computeOnePly(Position)}, so a snapshot obtained by
+ * {@link SearchBoard#toPosition()} equals the {@link Position} computed by the
+ * figures for the same ply. Snapshots keep the {@link Figure} instances of the
+ * position the board was constructed from.
+ * <br>
+ * A SearchBoard is not thread-safe; each search thread needs its own board.
+ * @author Richard Pohl*/
+public class SearchBoard {
+
+	/** The maximum number of moves generated for one position. */
+	public static final int MAX_MOVES = 256;
+
+	// initial size of the undo stack, grows on demand
+	private static final int INITIAL_UNDO_CAPACITY = 64;
+	// initial number of taken figures of a type, grows on demand
+	private static final int INITIAL_TAKEN_CAPACITY = 4;
+
+	/** The piece index (see {@link BitBoard#getPieceIndex(int, int)}) of the
+	 * figure on each location, -1 for empty locations. */
+	private final int[] pieces;
+
+	/** The figures on the board, indexed by location. */
+	private final Figure[] figures;
+
+	/** The bit board, kept in sync with {@link SearchBoard#pieces}. */
+	private final BitBoard bitBoard;
+
+	/** The locations of the kings, indexed by color, -1 if there is no king
+	 * of that color. */
+	private final int[] kingLocations;
+
+	/** The color at move. */
+	private int color;
+
+	/** See {@link Position#getCastlingHistory()}. */
+	private int castlingHistory;
+
+	/** See {@link Position#getEnPassantLine()}. */
+	private int enPassantLine;
+
+	/** The hash of the board, see {@link SearchBoard#getHash()}. */
+	private long hash;
+
+	/** The table that caches the pawn structure evaluations, null if the
+	 * pawn structure is evaluated for each position. */
+	private PawnHashTable pawnHashTable;
+	/** Receives the entries read from the {@link PawnHashTable}. */
+	private final long[] pawnEntry = new long[2];
+	/** The number of lookups in the {@link PawnHashTable}. */
+	private long pawnHashProbeCount;
+	/** The number of lookups that found an entry. */
+	private long pawnHashHitCount;
+
+	/* THE UNDO STACK */
+	private int plyCount;
+	private int[] undoMoves;
+	private Figure[] undoMovedFigures;
+	private int[] undoCastlingHistories;
+	private int[] undoEnPassantLines;
+	private long[] undoHashes;
+
+	/** The figures taken by the moves on the board, indexed by piece index
+	 * (see {@link BitBoard#getPieceIndex(int, int)}) in the order they were
+	 * taken. The moves are unmade in reverse order, so the last taken figure
+	 * of a type is the one to put back. */
+	private final Figure[][] takenFigures = new Figure[BitBoard.PIECE_COUNT][];
+	/** The number of taken figures, indexed by piece index. */
+	private final int[] takenFigureCounts = new int[BitBoard.PIECE_COUNT];
+
+	/**
+	 * Constructs a {@link SearchBoard} from a {@link Position}.
+	 * @param position - the Position to copy.
+	 * @param playerAtMove - the {@link Player} at move in position.
+	 * */
+	public SearchBoard(Position position, Player playerAtMove) {
+		pieces = new int[64];
+		figures = new Figure[64];
+		kingLocations = new int[] {-1, -1};
+		for (int i = 0; i < 64; i++)
+		{
+			figures[i] = position.getFigureAt(i);
+			pieces[i] = figures[i] != null? figures[i].getPieceIndex(): -1;
+			if (figures[i] != null
+					&& figures[i].getPieceType() == BitBoard.KING)
+				kingLocations[pieces[i] / 6] = i;
+		}
+		bitBoard = new BitBoard(figures);
+		color = BitBoard.getColor(playerAtMove);
+		castlingHistory = position.getCastlingHistory();
+		enPassantLine = position.getEnPassantLine();
+		hash = computeHash();
+		undoMoves = new int[INITIAL_UNDO_CAPACITY];
+		undoMovedFigures = new Figure[INITIAL_UNDO_CAPACITY];
+		undoCastlingHistories = new int[INITIAL_UNDO_CAPACITY];
+		undoEnPassantLines = new int[INITIAL_UNDO_CAPACITY];
+		undoHashes = new long[INITIAL_UNDO_CAPACITY];
+	}
+
+	/** @return The {@link Player} at move. */
+	public final Player getPlayer() {
+		return color == BitBoard.WHITE? Player.WHITE: Player.BLACK;
+	}
+
+	/** @return The color at move ({@link BitBoard#WHITE} or
+	 * {@link BitBoard#BLACK}). */
+	public final int getColor() {
+		return color;
+	}
+
+	/** @return The {@link BitBoard} of the board. It is changed by the moves
+	 * made on the board. */
+	public final BitBoard getBitBoard() {
+		return bitBoard;
+	}
+
+	/**
+	 * @param location - the index of the location.
+	 * @return The piece index of the figure at location, -1 if the location
+	 * is empty.
+	 * */
+	public final int getPieceIndex(int location) {
+		return pieces[location];
+	}
+
+	/**
+	 * @param location - the index of the location.
+	 * @return The {@link Figure} at location.
+	 * */
+	public final Figure getFigureAt(int location) {
+		return figures[location];
+	}
+
+	/** @return See {@link Position#getCastlingHistory()}. */
+	public final int getCastlingHistory() {
+		return castlingHistory;
+	}
+
+	/** @return See {@link Position#getEnPassantLine()}. */
+	public final int getEnPassantLine() {
+		return enPassantLine;
+	}
+
+	/** @return The 64 bit Zobrist hash of the board, including the player at
+	 * move. It equals {@link Position#getHash(Player)} of the board's snapshot
+	 * and is updated incrementally with every move. */
+	public final long getHash() {
+		return hash;
+	}
+
+	/** @return The last move made on the board, {@link Move#NONE} for a null
+	 * move (see {@link SearchBoard#makeNullMove()}) or if no move was made. */
+	public final int getLastMove() {
+		return plyCount == 0? Move.NONE: undoMoves[plyCount - 1];
+	}
+
+	/** @return The number of moves made on the board that can be unmade. */
+	public final int getPlyCount() {
+		return plyCount;
+	}
+
+	/**
+	 * Sets the table that caches the pawn structure evaluations.
+	 * @param pawnHashTable - the table, which may be shared with other
+	 * boards. null to evaluate the pawn structure for each position.
+	 * */
+	public final void setPawnHashTable(PawnHashTable pawnHashTable) {
+		this.pawnHashTable = pawnHashTable;
+	}
+
+	/** @return The number of lookups in the {@link PawnHashTable} so far. */
+	public final long getPawnHashProbeCount() {
+		return pawnHashProbeCount;
+	}
+
+	/** @return The number of lookups in the {@link PawnHashTable} that found
+	 * the pawn structure. */
+	public final long getPawnHashHitCount() {
+		return pawnHashHitCount;
+	}
+
+	/** @return The advantage of the player at move (in centipawns), see
+	 * {@link Position#evaluate(Player)}. The values of the figures are
+	 * maintained with each move, the evaluation of the pawn structure is
+	 * looked up in the {@link PawnHashTable} (if there is one). */
+	public final int evaluate() {
+		if (pawnHashTable == null)
+			return bitBoard.evaluate(color);
+		long pawnKey = bitBoard.getPawnKey();
+		pawnHashProbeCount++;
+		if (pawnHashTable.probe(pawnKey, pawnEntry))
+			pawnHashHitCount++;
+		else
+		{
+			long whitePawns = bitBoard.getPieces(
+					BitBoard.getPieceIndex(BitBoard.PAWN, BitBoard.WHITE));
+			long blackPawns = bitBoard.getPieces(
+					BitBoard.getPieceIndex(BitBoard.PAWN, BitBoard.BLACK));
+			pawnEntry[0] = PawnStructure.evaluate(whitePawns, blackPawns);
+			pawnEntry[1] = PawnStructure.getPassedPawns(whitePawns,
+					blackPawns);
+			pawnHashTable.store(pawnKey, pawnEntry[0], pawnEntry[1]);
+		}
+		return bitBoard.evaluate(color, pawnEntry[0]);
+	}
+
+	/** @return A {@link Position} snapshot of the board. */
+	public final Position toPosition() {
+		return new Position(figures, castlingHistory, enPassantLine);
+	}
+
+	/**
+	 * Performs a move on the board. The move is not checked for legality.
+	 * @param move - the move, encoded by {@link Move}. It has to be one of the
+	 * moves generated by {@link SearchBoard#generateMoves(int[])}.
+	 * */
+	public final void makeMove(int move) {
+		int from = Move.getFrom(move), to = Move.getTo(move);
+		Figure figure = figures[from];
+		// the location of the taken figure differs from the target
+		// location for en passant moves
+		int takenLocation = to;
+		if (Move.isEnPassant(move))
+			takenLocation = (to / 8) * 8 + from % 8;
+		// save the state that cannot be restored from the move
+		if (plyCount == undoMoves.length)
+			growUndoStack();
+		undoMoves[plyCount] = move;
+		undoMovedFigures[plyCount] = figure;
+		undoCastlingHistories[plyCount] = castlingHistory;
+		undoEnPassantLines[plyCount] = enPassantLine;
+		undoHashes[plyCount] = hash;
+		plyCount++;
+		// take a figure
+		if (Move.isCapture(move))
+		{
+			hash ^= figures[takenLocation].getHashKey(takenLocation);
+			pushTakenFigure(pieces[takenLocation], figures[takenLocation]);
+			clear(takenLocation);
+		}
+		// move the figure, replace transformed pawns
+		hash ^= figure.getHashKey(from);
+		clear(from);
+		if (Move.getPromotion(move) != 0)
+			figure = transform((Pawn) figure, Move.getPromotion(move));
+		put(to, figure);
+		hash ^= figure.getHashKey(to);
+		// move the rook of a castling
+		if (Move.isCastling(move))
+		{
+			int rookFrom = to / 8 == 6? 56 + to % 8: to % 8;
+			int rookTo = to / 8 == 6? 40 + to % 8: 24 + to % 8;
+			Figure rook = figures[rookFrom];
+			hash ^= rook.getHashKey(rookFrom);
+			clear(rookFrom);
+			put(rookTo, rook);
+			hash ^= rook.getHashKey(rookTo);
+		}
+		// update castling history, en passant line and the player at move
+		hash ^= HashKeyProvider.getCastlingKey(castlingHistory)
+			^ HashKeyProvider.getEnPassantKey(enPassantLine);
+		updateCastlingHistory(from, to, figure);
+		enPassantLine = -1;
+		if (Move.isDoublePawnPush(move))
+			updateEnPassantLine(to);
+		hash ^= HashKeyProvider.getCastlingKey(castlingHistory)
+			^ HashKeyProvider.getEnPassantKey(enPassantLine)
+			^ HashKeyProvider.getPlayerKey(Player.BLACK);
+		color = 1 - color;
+	}
+
+	/**
+	 * Passes the right to move to the opponent without moving a figure (a
+	 * null move), which is not allowed by the rules, but used to prune the
+	 * search. The null move is restored by {@link SearchBoard#unmakeMove()}.
+	 * */
+	public final void makeNullMove() {
+		if (plyCount == undoMoves.length)
+			growUndoStack();
+		undoMoves[plyCount] = Move.NONE;
+		undoCastlingHistories[plyCount] = castlingHistory;
+		undoEnPassantLines[plyCount] = enPassantLine;
+		undoHashes[plyCount] = hash;
+		plyCount++;
+		hash ^= HashKeyProvider.getEnPassantKey(enPassantLine)
+			^ HashKeyProvider.getPlayerKey(Player.BLACK);
+		enPassantLine = -1;
+		color = 1 - color;
+	}
+
+	/**
+	 * Restores the board to the state before the last move made by
+	 * {@link SearchBoard#makeMove(int)} or
+	 * {@link SearchBoard#makeNullMove()}.
+	 * */
+	public final void unmakeMove() {
+		plyCount--;
+		color = 1 - color;
+		int move = undoMoves[plyCount];
+		if (move == Move.NONE)
+		{
+			enPassantLine = undoEnPassantLines[plyCount];
+			hash = undoHashes[plyCount];
+			return;
+		}
+		int from = Move.getFrom(move), to = Move.getTo(move);
+		if (Move.isCastling(move))
+		{
+			int rookFrom = to / 8 == 6? 56 + to % 8: to % 8;
+			int rookTo = to / 8 == 6? 40 + to % 8: 24 + to % 8;
+			Figure rook = figures[rookTo];
+			clear(rookTo);
+			put(rookFrom, rook);
+		}
+		clear(to);
+		put(from, undoMovedFigures[plyCount]);
+		if (Move.isCapture(move))
+		{
+			int takenLocation = to;
+			if (Move.isEnPassant(move))
+				takenLocation = (to / 8) * 8 + from % 8;
+			int pieceIndex = BitBoard.getPieceIndex(Move.getCaptured(move),
+					1 - color);
+			put(takenLocation,
+					takenFigures[pieceIndex][--takenFigureCounts[pieceIndex]]);
+			takenFigures[pieceIndex][takenFigureCounts[pieceIndex]] = null;
+		}
+		undoMovedFigures[plyCount] = null;
+		castlingHistory = undoCastlingHistories[plyCount];
+		enPassantLine = undoEnPassantLines[plyCount];
+		hash = undoHashes[plyCount];
+	}
+
+	/**
+	 * @param location - the index of the location.
+	 * @param byColor - the color of the attacking figures.
+	 * @return true, iff a figure of byColor could take a figure at location
+	 * with its next ply.
+	 * */
+	public final boolean isAttacked(int location, int byColor) {
+		return bitBoard.isAttacked(location, byColor);
+	}
+
+	/**
+	 * @param color - a color.
+	 * @return true, iff the king of color could be taken by the opponent with
+	 * his next ply. false, if color has no king.
+	 * */
+	public final boolean isInChess(int color) {
+		return kingLocations[color] != -1
+			&& isAttacked(kingLocations[color], 1 - color);
+	}
+
+	/** @return true, iff the player at move is in chess. */
+	public final boolean isInChess() {
+		return isInChess(color);
+	}
+
+	/**
+	 * @param color - a color.
+	 * @return true, iff color has figures besides the king and the pawns.
+	 * Without such figures, positions in which every move worsens the
+	 * position (zugzwang) are common.
+	 * */
+	public final boolean hasPieces(int color) {
+		return (bitBoard.getOccupancy(color)
+			& ~bitBoard.getPieces(BitBoard.getPieceIndex(BitBoard.PAWN, color))
+			& ~bitBoard.getPieces(BitBoard.getPieceIndex(BitBoard.KING, color)))
+			!= 0;
+	}
+
+	/**
+	 * Generates the moves of the player at move, not considering chess (like
+	 * {@link Player#computePlies(Position, boolean)} with considerChess set
+	 * to false). Castling moves are only generated if they are legal.
+	 * @param moves - an array of at least {@link SearchBoard#MAX_MOVES}
+	 * elements that receives the moves.
+	 * @return The number of generated moves.
+	 * */
+	public final int generateMoves(int[] moves) {
+		return generateMoves(moves, false);
+	}
+
+	/**
+	 * Generates the moves of the player at move that take a figure or
+	 * transform a pawn into a queen, not considering chess. These are the
+	 * moves that change the material balance considerably, see
+	 * {@link AlphaBetaSearch#setQuiescence(boolean)}.
+	 * @param moves - an array of at least {@link SearchBoard#MAX_MOVES}
+	 * elements that receives the moves.
+	 * @return The number of generated moves.
+	 * */
+	public final int generateCaptures(int[] moves) {
+		return generateMoves(moves, true);
+	}
+
+	/**
+	 * Generates the moves of the player at move, not considering chess.
+	 * @param moves - the array that receives the moves.
+	 * @param capturesOnly - true to generate only the moves that take a
+	 * figure or transform a pawn into a queen.
+	 * @return The number of generated moves.
+	 * */
+	private int generateMoves(int[] moves, boolean capturesOnly) {
+		int count = 0;
+		long own = bitBoard.getOccupancy(color);
+		long occupancy = bitBoard.getOccupancy();
+		long opponent = bitBoard.getOccupancy(1 - color);
+		// the locations the figures (except pawns) may move to
+		long targetMask = capturesOnly? opponent: ~own;
+		// pawns
+		int direction = color == BitBoard.WHITE? 1: -1;
+		int transformRow = color == BitBoard.WHITE? 6: 1;
+		long figureLocations = bitBoard.getPieces(
+				BitBoard.getPieceIndex(BitBoard.PAWN, color));
+		long enPassantTarget = enPassantLine == -1? 0: 1L << (enPassantLine * 8
+				+ (color == BitBoard.WHITE? 5: 2));
+		while (figureLocations != 0)
+		{
+			int from = Long.numberOfTrailingZeros(figureLocations);
+			figureLocations &= figureLocations - 1;
+			int y = from % 8;
+			boolean transform = y == transformRow;
+			// normal movement by one or two rows
+			int to = from + direction;
+			if (y + direction >= 0 && y + direction < 8
+					&& (occupancy & (1L << to)) == 0
+					&& (transform || !capturesOnly))
+			{
+				count = addPawnMove(moves, count, from, to, Move.NO_CAPTURE,
+						transform, capturesOnly, 0);
+				if (!capturesOnly && (color == BitBoard.WHITE? y <= 1: y >= 6)
+						&& (occupancy & (1L << (to + direction))) == 0)
+					moves[count++] = Move.create(from, to + direction,
+							BitBoard.PAWN, Move.NO_CAPTURE, 0,
+							Move.DOUBLE_PAWN_PUSH);
+			}
+			// taking other figures, including en passant
+			long targets = BitBoard.getPawnAttacks(color, from);
+			long takes = targets & opponent & ~enPassantTarget;
+			while (takes != 0)
+			{
+				to = Long.numberOfTrailingZeros(takes);
+				count = addPawnMove(moves, count, from, to,
+						pieces[to] % 6, transform, capturesOnly, 0);
+				takes &= takes - 1;
+			}
+			if ((targets & enPassantTarget) != 0)
+				count = addPawnMove(moves, count, from,
+						Long.numberOfTrailingZeros(enPassantTarget),
+						BitBoard.PAWN, transform, capturesOnly,
+						Move.EN_PASSANT);
+		}
+		// knights
+		figureLocations = bitBoard.getPieces(
+				BitBoard.getPieceIndex(BitBoard.KNIGHT, color));
+		while (figureLocations != 0)
+		{
+			int from = Long.numberOfTrailingZeros(figureLocations);
+			figureLocations &= figureLocations - 1;
+			count = addMoves(moves, count, from, BitBoard.KNIGHT,
+					BitBoard.getKnightAttacks(from) & targetMask);
+		}
+		// bishops and queens on the diagonals
+		figureLocations = bitBoard.getPieces(
+				BitBoard.getPieceIndex(BitBoard.BISHOP, color))
+			| bitBoard.getPieces(BitBoard.getPieceIndex(BitBoard.QUEEN, color));
+		while (figureLocations != 0)
+		{
+			int from = Long.numberOfTrailingZeros(figureLocations);
+			figureLocations &= figureLocations - 1;
+			count = addMoves(moves, count, from, pieces[from] % 6,
+					SlidingAttacks.getBishopAttacks(from, occupancy)
+						& targetMask);
+		}
+		// rooks and queens on the lines
+		figureLocations = bitBoard.getPieces(
+				BitBoard.getPieceIndex(BitBoard.ROOK, color))
+			| bitBoard.getPieces(BitBoard.getPieceIndex(BitBoard.QUEEN, color));
+		while (figureLocations != 0)
+		{
+			int from = Long.numberOfTrailingZeros(figureLocations);
+			figureLocations &= figureLocations - 1;
+			count = addMoves(moves, count, from, pieces[from] % 6,
+					SlidingAttacks.getRookAttacks(from, occupancy)
+						& targetMask);
+		}
+		// kings, including castling
+		figureLocations = bitBoard.getPieces(
+				BitBoard.getPieceIndex(BitBoard.KING, color));
+		while (figureLocations != 0)
+		{
+			int from = Long.numberOfTrailingZeros(figureLocations);
+			figureLocations &= figureLocations - 1;
+			count = addMoves(moves, count, from, BitBoard.KING,
+					BitBoard.getKingAttacks(from) & targetMask);
+		}
+		if (!capturesOnly)
+			count = addCastlingMoves(moves, count);
+		return count;
+	}
+
+	/**
+	 * Generates the legal moves of the player at move (like
+	 * {@link Player#computePlies(Position)}).
+	 * @param moves - an array of at least {@link SearchBoard#MAX_MOVES}
+	 * elements that receives the moves.
+	 * @return The number of generated moves.
+	 * */
+	public final int generateLegalMoves(int[] moves) {
+		int count = generateMoves(moves);
+		int legalCount = 0;
+		for (int i = 0; i < count; i++)
+			if (isLegal(moves[i]))
+				moves[legalCount++] = moves[i];
+		return legalCount;
+	}
+
+	/**
+	 * @param move - a move generated by
+	 * {@link SearchBoard#generateMoves(int[])}.
+	 * @return true, iff the player at move is not in chess after the move.
+	 * */
+	public final boolean isLegal(int move) {
+		makeMove(move);
+		boolean legal = !isInChess(1 - color);
+		unmakeMove();
+		return legal;
+	}
+
+	/** Adds a pawn move, or the four pawn transformations if transform is
+	 * set (only the transformation into a queen if queenOnly is set). */
+	private int addPawnMove(int[] moves, int count, int from, int to,
+			int captured, boolean transform, boolean queenOnly, int flags)
+	{
+		if (transform && queenOnly)
+			moves[count++] = Move.create(from, to, BitBoard.PAWN, captured,
+					BitBoard.QUEEN, flags);
+		else if (transform)
+		{
+			moves[count++] = Move.create(from, to, BitBoard.PAWN, captured,
+					BitBoard.QUEEN, flags);
+			moves[count++] = Move.create(from, to, BitBoard.PAWN, captured,
+					BitBoard.ROOK, flags);
+			moves[count++] = Move.create(from, to, BitBoard.PAWN, captured,
+					BitBoard.BISHOP, flags);
+			moves[count++] = Move.create(from, to, BitBoard.PAWN, captured,
+					BitBoard.KNIGHT, flags);
+		}
+		else
+			moves[count++] = Move.create(from, to, BitBoard.PAWN, captured, 0,
+					flags);
+		return count;
+	}
+
+	/** Adds a move of the figure of type piece from the location from to
+	 * each of the targets. */
+	private int addMoves(int[] moves, int count, int from, int piece,
+			long targets)
+	{
+		while (targets != 0)
+		{
+			int to = Long.numberOfTrailingZeros(targets);
+			moves[count++] = Move.create(from, to, piece,
+					pieces[to] == -1? Move.NO_CAPTURE: pieces[to] % 6, 0, 0);
+			targets &= targets - 1;
+		}
+		return count;
+	}
+
+	/** Adds the legal castling moves of the player at move (see
+	 * {@link King#computeOnePly(Position)}). */
+	private int addCastlingMoves(int[] moves, int count) {
+		int row = color == BitBoard.WHITE? 0: 7;
+		int kingSideCode = color == BitBoard.WHITE?
+				Position.WHITE_CASTLE_KING_SIDE: Position.BLACK_CASTLE_KING_SIDE;
+		int queenSideCode = color == BitBoard.WHITE?
+				Position.WHITE_CASTLE_QUEEN_SIDE:
+				Position.BLACK_CASTLE_QUEEN_SIDE;
+		int king = 32 + row;
+		int rook = BitBoard.getPieceIndex(BitBoard.ROOK, color);
+		if ((castlingHistory & (kingSideCode | queenSideCode)) == 0
+				|| pieces[king] != BitBoard.getPieceIndex(BitBoard.KING, color)
+				|| isAttacked(king, 1 - color))
+			return count;
+		if ((castlingHistory & kingSideCode) != 0 && pieces[56 + row] == rook
+				&& pieces[40 + row] == -1 && pieces[48 + row] == -1
+				&& !isAttacked(40 + row, 1 - color)
+				&& !isAttacked(48 + row, 1 - color))
+			moves[count++] = Move.create(king, 48 + row, BitBoard.KING,
+					Move.NO_CAPTURE, 0, Move.CASTLING);
+		if ((castlingHistory & queenSideCode) != 0 && pieces[row] == rook
+				&& pieces[8 + row] == -1 && pieces[16 + row] == -1
+				&& pieces[24 + row] == -1
+				&& !isAttacked(24 + row, 1 - color)
+				&& !isAttacked(16 + row, 1 - color))
+			moves[count++] = Move.create(king, 16 + row, BitBoard.KING,
+					Move.NO_CAPTURE, 0, Move.CASTLING);
+		return count;
+	}
+
+	/** Updates the castling history after figure was moved from the location
+	 * from to the location to (see
+	 * {@link Position#Position(Position, Figure, ChessLocation)}). */
+	private void updateCastlingHistory(int from, int to, Figure figure) {
+		if (castlingHistory == 0)
+			return;
+		int type = figure.getPieceType();
+		int row = figure.getOwner() == Player.BLACK? 7: 0;
+		int kingSideCode = row == 0? Position.WHITE_CASTLE_KING_SIDE:
+			Position.BLACK_CASTLE_KING_SIDE;
+		int queenSideCode = row == 0? Position.WHITE_CASTLE_QUEEN_SIDE:
+			Position.BLACK_CASTLE_QUEEN_SIDE;
+		if (type == BitBoard.KING)
+			castlingHistory &= ~(kingSideCode | queenSideCode);
+		else if (type == BitBoard.ROOK && from == 56 + row)
+			castlingHistory &= ~kingSideCode;
+		else if (type == BitBoard.ROOK && from == row)
+			castlingHistory &= ~queenSideCode;
+		// entering the initial location of a rook
+		if (to == 56)
+			castlingHistory &= ~Position.WHITE_CASTLE_KING_SIDE;
+		else if (to == 0)
+			castlingHistory &= ~Position.WHITE_CASTLE_QUEEN_SIDE;
+		else if (to == 63)
+			castlingHistory &= ~Position.BLACK_CASTLE_KING_SIDE;
+		else if (to == 7)
+			castlingHistory &= ~Position.BLACK_CASTLE_QUEEN_SIDE;
+	}
+
+	/** Sets the en passant line after a pawn was moved by two rows to the
+	 * location to, if an opponent pawn is next to it (see
+	 * {@link Position#getEnPassantLine()}). */
+	private void updateEnPassantLine(int to) {
+		int opponentPawn = BitBoard.getPieceIndex(BitBoard.PAWN, 1 - color);
+		if ((to >= 8 && pieces[to - 8] == opponentPawn)
+				|| (to < 56 && pieces[to + 8] == opponentPawn))
+			enPassantLine = to / 8;
+	}
+
+	/** @return The figure a pawn is transformed into. */
+	private static Figure transform(Pawn pawn, int type) {
+		switch (type)
+		{
+			case BitBoard.QUEEN: 	return pawn.toQueen();
+			case BitBoard.ROOK: 	return pawn.toRook();
+			case BitBoard.BISHOP: 	return pawn.toBishop();
+			default: 				return pawn.toKnight();
+		}
+	}
+
+	/** Places figure on the (empty) location. */
+	private void put(int location, Figure figure) {
+		int pieceIndex = figure.getPieceIndex();
+		pieces[location] = pieceIndex;
+		figures[location] = figure;
+		bitBoard.set(location, pieceIndex);
+		if (pieceIndex % 6 == BitBoard.KING)
+			kingLocations[pieceIndex / 6] = location;
+	}
+
+	/** Removes the figure from the (occupied) location. */
+	private void clear(int location) {
+		int pieceIndex = pieces[location];
+		bitBoard.clear(location, pieceIndex);
+		if (kingLocations[pieceIndex / 6] == location)
+			kingLocations[pieceIndex / 6] = -1;
+		pieces[location] = -1;
+		figures[location] = null;
+	}
+
+	/** Computes the hash of the board from scratch, like
+	 * {@link Position#getHash(Player)}. */
+	private long computeHash() {
+		long result = 0;
+		for (int i = 0; i < 64; i++)
+			if (figures[i] != null)
+				result ^= figures[i].getHashKey(i);
+		result ^= HashKeyProvider.getCastlingKey(castlingHistory);
+		result ^= HashKeyProvider.getEnPassantKey(enPassantLine);
+		result ^= HashKeyProvider.getPlayerKey(getPlayer());
+		return result;
+	}
+
+	/**
+	 * Keeps a taken figure, see {@link SearchBoard#takenFigures}.
+	 * @param pieceIndex - the piece index of the figure.
+	 * @param figure - the taken figure.
+	 * */
+	private void pushTakenFigure(int pieceIndex, Figure figure) {
+		Figure[] taken = takenFigures[pieceIndex];
+		int count = takenFigureCounts[pieceIndex];
+		if (taken == null)
+			taken = takenFigures[pieceIndex]
+				= new Figure[INITIAL_TAKEN_CAPACITY];
+		else if (count == taken.length)
+		{
+			taken = new Figure[count * 2];
+			System.arraycopy(takenFigures[pieceIndex], 0, taken, 0, count);
+			takenFigures[pieceIndex] = taken;
+		}
+		taken[count] = figure;
+		takenFigureCounts[pieceIndex] = count + 1;
+	}
+
+	private void growUndoStack() {
+		int capacity = undoMoves.length * 2;
+		int[] moves = new int[capacity];
+		Figure[] movedFigures = new Figure[capacity];
+		int[] castlingHistories = new int[capacity];
+		int[] enPassantLines = new int[capacity];
+		long[] hashes = new long[capacity];
+		System.arraycopy(undoMoves, 0, moves, 0, plyCount);
+		System.arraycopy(undoMovedFigures, 0, movedFigures, 0, plyCount);
+		System.arraycopy(undoCastlingHistories, 0, castlingHistories, 0,
+				plyCount);
+		System.arraycopy(undoEnPassantLines, 0, enPassantLines, 0, plyCount);
+		System.arraycopy(undoHashes, 0, hashes, 0, plyCount);
+		undoMoves = moves;
+		undoMovedFigures = movedFigures;
+		undoCastlingHistories = castlingHistories;
+		undoEnPassantLines = enPassantLines;
+		undoHashes = hashes;
+	}
+}
@@ -0,0 +1,232 @@
+package model;
+
+/**
+ * Provides pre-computed attack tables for the sliding figures
+ * ({@link Bishop}, {@link Rook} and {@link Queen}), based on magic bit boards.
+ * <br>
+ * For each location, the occupancy of the locations that may block a sliding
+ * figure is multiplied with a magic number. The upper bits of the product
+ * are a perfect hash of that occupancy and are used as an index into the
+ * attack table of the location. This way, the locations reachable by a
+ * sliding figure are obtained with a single table lookup instead of walking
+ * the rays location by location.
+ * <br>
+ * Locations are indexed as in {@link BitBoard} (x-coordinate * 8 +
+ * y-coordinate). The magic numbers were found with a random search for
+ * sparse numbers that map the occupancies of a location without destructive
+ * collisions; the attack tables are filled when the class is loaded.
+ * @author Richard Pohl*/
+public class SlidingAttacks {
+
+	// ray directions of the bishop and the rook (x-offset, y-offset)
+	private static final int[][] BISHOP_DIRECTIONS
+		= {{-1, -1}, {1, -1}, {-1, 1}, {1, 1}};
+	private static final int[][] ROOK_DIRECTIONS
+		= {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+	// the locations that may block a bishop/rook, indexed by location
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final long[] ROOK_MASKS = new long[64];
+	// the magic numbers, indexed by location
+	private static final long[] BISHOP_MAGICS = {
+		0x00C0080810808410L, 0x08028841050A0100L, 0x0008480040802111L,
+		0x0004240181920040L, 0x0124042000080002L, 0x100A010421210800L,
+		0x0400820820050010L, 0x0102060109011000L, 0xC002080890008202L,
+		0x1000200400989108L, 0x4000040822124A01L, 0x0000282600428000L,
+		0x0807211040000201L, 0x8000228884400002L, 0x0000008808090410L,
+		0x4084002402025014L, 0x88211010A00200C0L, 0xC022088810110E10L,
+		0x085802D0014010E0L, 0x1800840802004202L, 0x2104910404201010L,
+		0x0805012210060100L, 0xC004100582051010L, 0x8101012020880420L,
+		0x10C2401020248400L, 0x8104200010228880L, 0x00008200D0040014L,
+		0x0D44040040410200L, 0x0000840002020200L, 0x2801004218080800L,
+		0x8000A40415210800L, 0x0003828062084408L, 0x01A8090804400200L,
+		0x0001011940303010L, 0x2040845001110400L, 0x1050202020280080L,
+		0x0102068400020021L, 0x0214100410088040L, 0x4044140082440080L,
+		0x10281103A0A10780L, 0x1608180809080400L, 0x1040420220621020L,
+		0x003A002208140100L, 0x0010104208010082L, 0x2040221022110400L,
+		0x4420040082010024L, 0x24225404408C0401L, 0x004102020440060AL,
+		0x2404088824100002L, 0x008224042208000CL, 0x8000023084100000L,
+		0x0980000084042000L, 0x0400006005240102L, 0x1008C18508008000L,
+		0x2420040188010800L, 0x0004301400448000L, 0x8582020041284800L,
+		0x0800008864100410L, 0x0800808208420800L, 0x0600410000208844L,
+		0x8200001020204450L, 0x0202084108118904L, 0x02C0400968010041L,
+		0x0002082118009102L
+	};
+	private static final long[] ROOK_MAGICS = {
+		0x0180002040005182L, 0x0100110028804000L, 0x0A00108008224200L,
+		0x0100200410000900L, 0x0280040108008002L, 0xC480040080020001L,
+		0x0480020001000080L, 0x0200040844802302L, 0x0000800040008022L,
+		0x0402400020100040L, 0x0002002010408200L, 0x0082808048001000L,
+		0x8008800400800800L, 0x1042001004080200L, 0x0241808200010080L,
+		0x0081000191000856L, 0x0080064000200054L, 0x8010004040002000L,
+		0x0012020020834110L, 0x0041010020081000L, 0x2808010005000910L,
+		0x0041010004000802L, 0x0810040002100801L, 0x0000A20000840041L,
+		0x2200400080208004L, 0x0002200240100140L, 0x8090040020002801L,
+		0x5308000880100082L, 0x0288020040040040L, 0x0000100801044020L,
+		0x4000221400102118L, 0x5400210600006084L, 0x0000804000800020L,
+		0x1210002000400040L, 0x0070801000802000L, 0x0002900084800802L,
+		0x1880040080800800L, 0x0200800400800200L, 0x0801221014000108L,
+		0x1412240082000061L, 0x3000400080208002L, 0x0000402010004000L,
+		0x0040100020008080L, 0x000810200A020040L, 0xC103000800050010L,
+		0x2000040002008080L, 0x1000100200040208L, 0x04400C1498420005L,
+		0x1480400020800080L, 0x1801008020400100L, 0x0310410010200100L,
+		0x6024100008230100L, 0x0A00100801000500L, 0x2810020004008080L,
+		0x0103000200040300L, 0x0015002082004100L, 0x0200221A00804102L,
+		0x0080558220C00105L, 0x4182084012002082L, 0x0002000804201042L,
+		0x0005000800040211L, 0x080A000184081002L, 0x08081000C1180204L,
+		0x0800C0810400403AL
+	};
+	// the number of bits to shift the magic product, indexed by location
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	// the offsets of the locations' tables in the attack arrays
+	private static final int[] BISHOP_OFFSETS = new int[64];
+	private static final int[] ROOK_OFFSETS = new int[64];
+	// the attack tables of all locations
+	private static final long[] BISHOP_ATTACKS;
+	private static final long[] ROOK_ATTACKS;
+
+	static {
+		BISHOP_ATTACKS = initialize(BISHOP_DIRECTIONS, BISHOP_MASKS,
+			BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+		ROOK_ATTACKS = initialize(ROOK_DIRECTIONS, ROOK_MASKS,
+			ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+	}
+
+	private SlidingAttacks() {}
+
+	/**
+	 * @param location - the location of the bishop.
+	 * @param occupancy - the locations of all figures on the board.
+	 * @return The locations attacked by a bishop at location, including
+	 * the locations of the first blocking figures on each ray (regardless of
+	 * their owner).
+	 * */
+	public static long getBishopAttacks(int location, long occupancy) {
+		return BISHOP_ATTACKS[BISHOP_OFFSETS[location]
+			+ (int) (((occupancy & BISHOP_MASKS[location])
+				* BISHOP_MAGICS[location]) >>> BISHOP_SHIFTS[location])];
+	}
+
+	/**
+	 * @param location - the location of the rook.
+	 * @param occupancy - the locations of all figures on the board.
+	 * @return The locations attacked by a rook at location, including
+	 * the locations of the first blocking figures on each ray (regardless of
+	 * their owner).
+	 * */
+	public static long getRookAttacks(int location, long occupancy) {
+		return ROOK_ATTACKS[ROOK_OFFSETS[location]
+			+ (int) (((occupancy & ROOK_MASKS[location])
+				* ROOK_MAGICS[location]) >>> ROOK_SHIFTS[location])];
+	}
+
+	/**
+	 * @param location - the location of the queen.
+	 * @param occupancy - the locations of all figures on the board.
+	 * @return The locations attacked by a queen at location, including
+	 * the locations of the first blocking figures on each ray (regardless of
+	 * their owner).
+	 * */
+	public static long getQueenAttacks(int location, long occupancy) {
+		return getBishopAttacks(location, occupancy)
+			| getRookAttacks(location, occupancy);
+	}
+
+	/**
+	 * Computes the attacks of a sliding figure by walking its rays. This is
+	 * used to fill the attack tables.
+	 * @param directions - the ray directions of the sliding figure.
+	 * @param location - the location of the sliding figure.
+	 * @param occupancy - the locations of all figures on the board.
+	 * @return The attacked locations.
+	 * */
+	static long computeAttacks(int[][] directions, int location,
+			long occupancy)
+	{
+		long attacks = 0;
+		for (int[] direction: directions)
+		{
+			int x = location / 8 + direction[0], y = location % 8 + direction[1];
+			while (x >= 0 && x < 8 && y >= 0 && y < 8)
+			{
+				long bit = 1L << (x * 8 + y);
+				attacks |= bit;
+				if ((occupancy & bit) != 0)
+					break;
+				x += direction[0]; y += direction[1];
+			}
+		}
+		return attacks;
+	}
+
+	/**
+	 * Computes the locations that may block a sliding figure at location.
+	 * Locations at the board edges are excluded, since a figure there never
+	 * blocks anything behind it.
+	 * */
+	private static long computeMask(int[][] directions, int location)
+	{
+		long mask = 0;
+		for (int[] direction: directions)
+		{
+			int x = location / 8 + direction[0], y = location % 8 + direction[1];
+			while (x + direction[0] >= 0 && x + direction[0] < 8
+					&& y + direction[1] >= 0 && y + direction[1] < 8)
+			{
+				mask |= 1L << (x * 8 + y);
+				x += direction[0]; y += direction[1];
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Computes the masks of all locations and fills the attack table for a 
+	 * sliding figure using the given magic numbers.
+	 * @return The attack table.
+	 * */
+	private static long[] initialize(int[][] directions, long[] masks,
+			long[] magics, int[] shifts, int[] offsets)
+	{
+		int size = 0;
+		for (int location = 0; location < 64; location++)
+		{
+			masks[location] = computeMask(directions, location);
+			shifts[location] = 64 - Long.bitCount(masks[location]);
+			offsets[location] = size;
+			size += 1 << Long.bitCount(masks[location]);
+		}
+		long[] attacks = new long[size];
+		for (int location = 0; location < 64; location++)
+		{
+			long mask = masks[location];
+			// enumerate all subsets of the mask (carry-rippler) and store
+			// their attacks at the index computed by the magic number
+			long occupancy = 0;
+			do {
+				attacks[offsets[location] + (int) ((occupancy 
+						* magics[location]) >>> shifts[location])]
+					= computeAttacks(directions, location, occupancy);
+				occupancy = (occupancy - mask) & mask;
+			} while (occupancy != 0);
+		}
+		return attacks;
+	}
+
+	/**
+	 * Computes the attacks of a bishop by walking its rays.
+	 * @see SlidingAttacks#getBishopAttacks(int, long)
+	 * */
+	static long computeBishopAttacks(int location, long occupancy) {
+		return computeAttacks(BISHOP_DIRECTIONS, location, occupancy);
+	}
+
+	/**
+	 * Computes the attacks of a rook by walking its rays.
+	 * @see SlidingAttacks#getRookAttacks(int, long)
+	 * */
+	static long computeRookAttacks(int location, long occupancy) {
+		return computeAttacks(ROOK_DIRECTIONS, location, occupancy);
+	}
+}
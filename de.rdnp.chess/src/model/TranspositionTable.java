@@ -0,0 +1,196 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A hash table that stores the results of searched positions, so that a
+ * search does not need to search a position again when it is reached on
+ * another path (a transposition), by another search or in a later turn.
+ * <br>
+ * The table has a fixed size in megabytes and is backed by a single
+ * <code>long</code> array. It consists of buckets with two entries: the first
+ * entry keeps the result of the deepest search (depth-preferred), unless it
+ * stems from an earlier search; the second entry is always replaced.
+ * <br>
+ * Each entry consists of two <code>long</code> values: the key of the position
+ * XOR the data, and the data itself, which packs the depth, the bound type,
+ * the evaluation and the best move. A read entry is only accepted, if the
+ * XOR of both values results in the key of the probed position. This way,
+ * the table can be shared by multiple search threads without locking: entries
+ * that are torn by concurrent writes are simply not found.
+ * <br>
+ * Subclasses can keep the entries outside of the heap by overriding
+ * {@link TranspositionTable#getEntry(int)},
+ * {@link TranspositionTable#setEntry(int, long)} and
+ * {@link TranspositionTable#clear()}, see {@link MappedTranspositionTable}.
+ * @author Richard Pohl*/
+public class TranspositionTable {
+
+	/* THE BOUND TYPES */
+	/** The evaluation is an upper bound (the search failed low). */
+	public static final int UPPER_BOUND 	= 0x1;
+	/** The evaluation is a lower bound (the search failed high). */
+	public static final int LOWER_BOUND 	= 0x2;
+	/** The evaluation is exact. */
+	public static final int EXACT 			= UPPER_BOUND | LOWER_BOUND;
+
+	/** The number of bytes of a bucket (two entries with two longs each). */
+	public static final int BUCKET_SIZE = 32;
+
+	// bit offsets and masks of the fields in the data of an entry
+	private static final int BOUND_SHIFT 		= 26;
+	private static final int DEPTH_SHIFT 		= 28;
+	private static final int GENERATION_SHIFT 	= 35;
+	private static final int EVALUATION_SHIFT 	= 41;
+	private static final long MOVE_MASK 		= 0x3FFFFFF;
+	private static final int DEPTH_MASK 		= 0x7F;
+	private static final int GENERATION_MASK 	= 0x3F;
+
+	/** The entries, four longs per bucket, null if a subclass keeps the
+	 * entries. */
+	private final long[] entries;
+	/** The mask to compute the bucket index from a key. */
+	private final int bucketMask;
+	/** The generation of the current search, see
+	 * {@link TranspositionTable#newSearch()}. */
+	private volatile int generation;
+
+	/**
+	 * Constructs an empty {@link TranspositionTable}.
+	 * @param megabytes - the maximum size of the table in megabytes. The
+	 * number of buckets is the largest power of two that fits in this size.
+	 * */
+	public TranspositionTable(int megabytes) {
+		this(megabytes, true);
+	}
+
+	/**
+	 * Constructs an empty {@link TranspositionTable}.
+	 * @param megabytes - see
+	 * {@link TranspositionTable#TranspositionTable(int)}.
+	 * @param heap - true, if the entries are kept in an array on the heap,
+	 * false, if the subclass keeps them.
+	 * */
+	protected TranspositionTable(int megabytes, boolean heap) {
+		long bucketCount 
+			= Math.max(1L, megabytes * 1024L * 1024L / BUCKET_SIZE);
+		// use a power of two and stay within the limits of arrays
+		bucketCount = Math.min(Long.highestOneBit(bucketCount), 1L << 28);
+		entries = heap? new long[(int) bucketCount * 4]: null;
+		bucketMask = (int) bucketCount - 1;
+	}
+
+	/** @return The size of the table in bytes. */
+	public final long getSize() {
+		return (bucketMask + 1L) * BUCKET_SIZE;
+	}
+
+	/** Removes all entries from the table. */
+	public void clear() {
+		Arrays.fill(entries, 0L);
+	}
+
+	/**
+	 * Starts a new search. The depth-preferred entries of earlier searches
+	 * are replaced by the entries of the new search, regardless of their
+	 * depth.
+	 * */
+	public final void newSearch() {
+		generation = (generation + 1) & GENERATION_MASK;
+	}
+
+	/**
+	 * Looks up the entry of a position.
+	 * @param key - the hash key of the position.
+	 * @return The data of the entry, which can be decoded by the static
+	 * methods of {@link TranspositionTable}. 0, if there is no entry.
+	 * */
+	public final long probe(long key) {
+		int index = ((int) key & bucketMask) << 2;
+		long data = getEntry(index + 1);
+		if ((getEntry(index) ^ data) == key)
+			return data;
+		data = getEntry(index + 3);
+		if ((getEntry(index + 2) ^ data) == key)
+			return data;
+		return 0;
+	}
+
+	/**
+	 * Stores the result of a search in the table.
+	 * @param key - the hash key of the position.
+	 * @param depth - the depth of the search (0 to 127).
+	 * @param bound - the bound type of evaluation, one of
+	 * {@link TranspositionTable#EXACT},
+	 * {@link TranspositionTable#LOWER_BOUND} and
+	 * {@link TranspositionTable#UPPER_BOUND}.
+	 * @param evaluation - the evaluation of the position for the player at
+	 * move (-4194304 to 4194303).
+	 * @param move - the best move found, encoded by {@link Move}, or
+	 * {@link Move#NONE}.
+	 * */
+	public final void store(long key, int depth, int bound, int evaluation,
+			int move)
+	{
+		int index = ((int) key & bucketMask) << 2;
+		long data = (move & MOVE_MASK) | (long) bound << BOUND_SHIFT
+			| (long) (depth & DEPTH_MASK) << DEPTH_SHIFT
+			| (long) generation << GENERATION_SHIFT
+			| (long) evaluation << EVALUATION_SHIFT;
+		long preferredData = getEntry(index + 1);
+		if ((getEntry(index) ^ preferredData) == key
+				|| getGeneration(preferredData) != generation
+				|| depth >= getDepth(preferredData))
+		{
+			setEntry(index, key ^ data);
+			setEntry(index + 1, data);
+		}
+		else
+		{
+			setEntry(index + 2, key ^ data);
+			setEntry(index + 3, data);
+		}
+	}
+
+	/**
+	 * @param index - the index of a long value of the entries (four per
+	 * bucket).
+	 * @return The long value.
+	 * */
+	protected long getEntry(int index) {
+		return entries[index];
+	}
+
+	/**
+	 * @param index - the index of a long value of the entries (four per
+	 * bucket).
+	 * @param value - the new long value.
+	 * */
+	protected void setEntry(int index, long value) {
+		entries[index] = value;
+	}
+
+	/** @return The best move of the entry data, encoded by {@link Move}. */
+	public static int getMove(long data) {
+		return (int) (data & MOVE_MASK);
+	}
+
+	/** @return The bound type of the entry data. */
+	public static int getBound(long data) {
+		return (int) (data >>> BOUND_SHIFT) & 0x3;
+	}
+
+	/** @return The search depth of the entry data. */
+	public static int getDepth(long data) {
+		return (int) (data >>> DEPTH_SHIFT) & DEPTH_MASK;
+	}
+
+	/** @return The evaluation of the entry data. */
+	public static int getEvaluation(long data) {
+		return (int) (data >> EVALUATION_SHIFT);
+	}
+
+	private static int getGeneration(long data) {
+		return (int) (data >>> GENERATION_SHIFT) & GENERATION_MASK;
+	}
+}
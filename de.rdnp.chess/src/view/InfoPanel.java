@@ -4,11 +4,14 @@ import java.awt.Dimension;
 import java.awt.Label;
 import java.awt.Panel;
 import java.awt.ScrollPane;
+import java.awt.TextArea;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
 
+import model.Move;
+
 /** A panel to displa additional informations to the user. 
  * @author Richard Pohl
  * */
@@ -21,10 +24,13 @@ public class InfoPanel extends Panel implements Observer {
 
 	private static final int NOTATION_HEIGHT = 250;
 	
+	private static final int PRINCIPAL_VARIATION_HEIGHT = 60;
+	
 	private ChessFrame chessFrame;
 	private ScrollPane container;
 	private Panel notationPanel;
 	private Label caption;
+	private TextArea principalVariation;
 	private List<NotationElement> notationElements;
 	
 	/**
@@ -46,6 +52,11 @@ public class InfoPanel extends Panel implements Observer {
 				new Dimension(ChessFrame.BORDER_EAST - 16, NOTATION_HEIGHT));
 		container.add(notationPanel);
 		add(container);
+		principalVariation = new TextArea("", 3, 20, TextArea.SCROLLBARS_NONE);
+		principalVariation.setEditable(false);
+		principalVariation.setPreferredSize(new Dimension(
+				ChessFrame.BORDER_EAST - 16, PRINCIPAL_VARIATION_HEIGHT));
+		add(principalVariation);
 		chessFrame.add(this);
 	}
 	
@@ -83,6 +94,10 @@ public class InfoPanel extends Panel implements Observer {
 		else
 			playerString = "draw.";
 		caption.setText("Moves ("+playerString+")");
+		// show the plies the automaton expected with its last turn
+		int[] plies = chessFrame.getGame().getPrincipalVariation();
+		principalVariation.setText(plies.length == 0? "":
+			"Expected: "+Move.toString(plies));
 		notationPanel.doLayout();
 		container.validate();
 	}
@@ -0,0 +1,75 @@
+package game;
+
+import static org.junit.Assert.*;
+
+import io.FenParser;
+import io.GameState;
+
+import model.Move;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AnalysisTest {
+
+	@After
+	public void tearDown() {
+		// discard the entries of the analyses in the shared tables
+		Automaton.reset();
+	}
+
+	/**
+	 * Tests, if an analysis to a depth finds the mate and completes all
+	 * iterations.
+	 * */
+	@Test
+	public void depth() {
+		Analysis analysis = createAnalysis("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - -");
+		analysis.analyze(3, Long.MAX_VALUE);
+		assertEquals(3, analysis.getDepth());
+		assertEquals("a1a8", Move.toString(analysis.getBestMove()));
+		assertEquals(analysis.getBestMove(),
+				analysis.getPrincipalVariation()[0]);
+		assertTrue(analysis.getNodeCount() > 0);
+	}
+
+	/**
+	 * Tests, if an analysis with a time budget ends within about the budget.
+	 * */
+	@Test
+	public void time() {
+		Analysis analysis = createAnalysis(FenParser.START_POSITION);
+		analysis.analyze(Integer.MAX_VALUE, 300);
+		assertTrue(analysis.getDepth() >= 1);
+		assertTrue(analysis.getBestMove() != Move.NONE);
+		assertTrue(analysis.getTime() < 1300);
+	}
+
+	/**
+	 * Tests, if an analysis with a time budget does not deepen beyond the
+	 * maximum depth, even if the iterations take almost no time.
+	 * */
+	@Test
+	public void maximumDepth() {
+		Analysis analysis = createAnalysis("8/8/3k4/8/8/3K4/8/8 w - -");
+		analysis.analyze(Integer.MAX_VALUE, 3000);
+		assertEquals(Analysis.MAXIMUM_DEPTH, analysis.getDepth());
+	}
+
+	/**
+	 * Tests, if an analysis of a position without a legal ply finds no ply.
+	 * */
+	@Test
+	public void mate() {
+		Analysis analysis = createAnalysis("R5k1/5ppp/8/8/8/8/5PPP/6K1 b - -");
+		analysis.analyze(4, Long.MAX_VALUE);
+		assertEquals(Move.NONE, analysis.getBestMove());
+		assertEquals(Integer.MIN_VALUE, analysis.getEvaluation());
+	}
+
+	private static Analysis createAnalysis(String fen) {
+		GameState gameState = new FenParser(fen).parse();
+		return new Analysis(gameState.getCurrentPosition(),
+				gameState.getActivePlayer());
+	}
+}
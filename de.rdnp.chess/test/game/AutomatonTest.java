@@ -0,0 +1,119 @@
+package game;
+
+import static org.junit.Assert.*;
+
+import model.Position;
+import model.SearchBoard;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class AutomatonTest {
+
+	@After
+	public void tearDown() {
+		Player.WHITE.playHuman();
+		Player.BLACK.playHuman();
+	}
+
+	/**
+	 * Tests, if an automaton with a time budget performs a ply within about
+	 * the time budget.
+	 * */
+	@Test
+	public void timeBudget() {
+		Game game = new Game();
+		Position start = game.getPosition();
+		TimeControl timeControl = new TimeControl(10000, 100);
+		long budget = timeControl.getBudget();
+		Player.WHITE.playAutomaton(timeControl);
+		long time = System.currentTimeMillis();
+		Player.WHITE.turn();
+		time = System.currentTimeMillis() - time;
+		assertFalse(start.equals(game.getPosition()));
+		assertTrue(time < budget + 1000);
+		// the time of the turn also includes the check for legal plies
+		assertEquals(10000 - time + 100, timeControl.getRemainingTime(), 200);
+	}
+
+	/**
+	 * Tests, if the position tree engine performs plies in successive turns
+	 * on the same executor.
+	 * */
+	@Test
+	public void executor() {
+		Game game = new Game();
+		Position start = game.getPosition();
+		new Automaton(Player.WHITE, 2, Automaton.POSITION_TREE_ENGINE);
+		new Automaton(Player.BLACK, 2, Automaton.POSITION_TREE_ENGINE);
+		Player.WHITE.turn();
+		Player.BLACK.turn();
+		assertFalse(start.equals(game.getPosition()));
+		assertEquals(2, game.getGameHistory().getSize());
+		assertSame(Automaton.getExecutor(), Automaton.getExecutor());
+	}
+
+	/**
+	 * Tests, if an automaton expects the reply of its principal variation
+	 * and continues its search, if the opponent replies with this ply.
+	 * */
+	@Test
+	public void expectedReply() {
+		Game game = new Game();
+		Automaton automaton = new Automaton(Player.WHITE, 4);
+		Player.WHITE.turn();
+		int[] principalVariation = game.getPrincipalVariation();
+		assertEquals(4, principalVariation.length);
+		SearchBoard board = new SearchBoard(game.getPosition(), Player.BLACK);
+		board.makeMove(principalVariation[1]);
+		game.turn(board.toPosition());
+		assertEquals(game.getPosition(), automaton.getExpectedPosition());
+		Player.WHITE.turn();
+		assertEquals(3, game.getGameHistory().getSize());
+	}
+
+	/**
+	 * Tests, if an automaton continues the search of the expected reply
+	 * within its time budget, even if no time is left.
+	 * */
+	@Test
+	public void expectedReplyWithoutTime() {
+		Game game = new Game();
+		TimeControl timeControl = new TimeControl(60000, 0);
+		Automaton automaton = new Automaton(Player.WHITE, 6, timeControl);
+		Player.WHITE.turn();
+		int[] principalVariation = game.getPrincipalVariation();
+		SearchBoard board = new SearchBoard(game.getPosition(), Player.BLACK);
+		board.makeMove(principalVariation[1]);
+		game.turn(board.toPosition());
+		assertEquals(game.getPosition(), automaton.getExpectedPosition());
+		timeControl.consume(timeControl.getRemainingTime());
+		assertEquals(0, timeControl.getBudget());
+		long time = System.currentTimeMillis();
+		Player.WHITE.turn();
+		time = System.currentTimeMillis() - time;
+		assertEquals(3, game.getGameHistory().getSize());
+		assertTrue(time < 1000);
+	}
+
+	/**
+	 * Tests, if a stop that arrives before a turn does not stop this turn.
+	 * */
+	@Test
+	public void lateStop() {
+		Game game = new Game();
+		Automaton automaton = new Automaton(Player.WHITE, 3,
+				new TimeControl(60000));
+		automaton.stop();
+		Player.WHITE.turn();
+		assertEquals(3, game.getPrincipalVariation().length);
+	}
+
+	@Test
+	public void budget() {
+		assertEquals(500, new TimeControl(500).getBudget());
+		assertEquals(60000 / 30 + 1000,
+				new TimeControl(60000, 1000).getBudget());
+		assertEquals(1000, new TimeControl(2000, 5000).getBudget());
+	}
+}
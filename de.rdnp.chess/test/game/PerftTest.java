@@ -0,0 +1,161 @@
+package game;
+
+import static org.junit.Assert.*;
+
+import io.GameState;
+import io.GameStateParser;
+
+import java.io.StringBufferInputStream;
+import java.util.Map;
+
+import model.Position;
+
+import org.junit.Test;
+
+/**
+ * Validates the computation of plies by the known perft counts of well-known
+ * positions.
+ * */
+@SuppressWarnings("deprecation")
+public class PerftTest {
+
+	/** A middlegame position with castling, en passant and pins. */
+	private static final String KIWIPETE =
+		"- figure locations\n" +
+		"8  bR          bK       bR \n" +
+		"7  bP    bP bP bQ bP bB    \n" +
+		"6  bB bN       bP bN bP    \n" +
+		"5           wP wN          \n" +
+		"4     bP       wP          \n" +
+		"3        wN       wQ    bP \n" +
+		"2  wP wP wP wB wB wP wP wP \n" +
+		"1  wR          wK       wR \n" +
+		"- castling\n" +
+		"15\n" +
+		"- player\n" +
+		"white";
+
+	/** An endgame position with en passant captures that expose the king. */
+	private static final String ENDGAME =
+		"- figure locations\n" +
+		"8                          \n" +
+		"7        bP                \n" +
+		"6           bP             \n" +
+		"5  wK wP                bR \n" +
+		"4     wR          bP    bK \n" +
+		"3                          \n" +
+		"2              wP    wP    \n" +
+		"1                          \n" +
+		"- castling\n" +
+		"0\n" +
+		"- player\n" +
+		"white";
+
+	/** A position with pawn transformations and a king in chess. */
+	private static final String TRANSFORMATIONS =
+		"- figure locations\n" +
+		"8  bR          bK       bR \n" +
+		"7  wP bP bP bP    bP bP bP \n" +
+		"6     bB          bN bB wN \n" +
+		"5  bN wP                   \n" +
+		"4  wB wB wP    wP          \n" +
+		"3  bQ             wN       \n" +
+		"2  wP bP    wP       wP wP \n" +
+		"1  wR       wQ    wR wK    \n" +
+		"- castling\n" +
+		"12\n" +
+		"- player\n" +
+		"white";
+
+	/** A position with a transformation that takes a figure. */
+	private static final String TRANSFORMATION_TAKES =
+		"- figure locations\n" +
+		"8  bR bN bB bQ    bK    bR \n" +
+		"7  bP bP    wP bB bP bP bP \n" +
+		"6        bP                \n" +
+		"5                          \n" +
+		"4        wB                \n" +
+		"3                          \n" +
+		"2  wP wP wP    wN bN wP wP \n" +
+		"1  wR wN wB wQ wK       wR \n" +
+		"- castling\n" +
+		"3\n" +
+		"- player\n" +
+		"white";
+
+	@Test
+	public void startPosition() {
+		assertPerft(new Position(), Player.WHITE, false, 20, 400, 8902);
+		assertPerft(new Position(), Player.WHITE, true, 20, 400, 8902, 197281);
+	}
+
+	@Test
+	public void kiwipete() {
+		assertPerft(KIWIPETE, false, 48, 2039);
+		assertPerft(KIWIPETE, true, 48, 2039, 97862);
+	}
+
+	@Test
+	public void endgame() {
+		assertPerft(ENDGAME, false, 14, 191, 2812);
+		assertPerft(ENDGAME, true, 14, 191, 2812, 43238);
+	}
+
+	@Test
+	public void transformations() {
+		assertPerft(TRANSFORMATIONS, false, 6, 264, 9467);
+		assertPerft(TRANSFORMATIONS, true, 6, 264, 9467);
+	}
+
+	@Test
+	public void transformationTakes() {
+		assertPerft(TRANSFORMATION_TAKES, false, 44, 1486);
+		assertPerft(TRANSFORMATION_TAKES, true, 44, 1486, 62379);
+	}
+
+	/**
+	 * Tests, if the counts of the first plies sum up to the total count for
+	 * both computations of plies.
+	 * */
+	@Test
+	public void divide() {
+		GameState gameState = parse(KIWIPETE);
+		for (int i = 0; i < 2; i++)
+		{
+			Map<String, Long> divide = new Perft(gameState.getCurrentPosition(),
+					gameState.getActivePlayer(), i == 1).divide(2);
+			assertEquals(48, divide.size());
+			assertEquals(Long.valueOf(43), divide.get("e1g1"));
+			long nodes = 0;
+			for (long count: divide.values())
+				nodes += count;
+			assertEquals(2039, nodes);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void divideWithoutPlies() {
+		new Perft(new Position(), Player.WHITE, false).divide(0);
+	}
+
+	private void assertPerft(String positionString, boolean searchBoard,
+			long... counts)
+	{
+		GameState gameState = parse(positionString);
+		assertPerft(gameState.getCurrentPosition(),
+				gameState.getActivePlayer(), searchBoard, counts);
+	}
+
+	private void assertPerft(Position position, Player player,
+			boolean searchBoard, long... counts)
+	{
+		Perft perft = new Perft(position, player, searchBoard);
+		for (int depth = 1; depth <= counts.length; depth++)
+			assertEquals(counts[depth - 1], perft.count(depth));
+	}
+
+	private GameState parse(String positionString) {
+		return new GameStateParser(new StringBufferInputStream(positionString))
+			.parse();
+	}
+}
@@ -0,0 +1,92 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import game.Automaton;
+
+import io.FenParser;
+import io.GameStateWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnalysisApplicationTest {
+
+	private ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = File.createTempFile("mice", "");
+		directory.delete();
+		directory.mkdir();
+		write("b,mate.txt", "6k1/5ppp/8/8/8/8/5PPP/R5K1 w - -");
+		write("a.txt", FenParser.START_POSITION);
+		new File(directory, "c").mkdir();
+	}
+
+	@After
+	public void tearDown() {
+		for (File file: directory.listFiles())
+			file.delete();
+		directory.delete();
+		Automaton.reset();
+	}
+
+	/**
+	 * Tests, if the files are reported as comma separated values in the
+	 * order of their names and subdirectories are skipped.
+	 * */
+	@Test
+	public void csv() throws InterruptedException {
+		AnalysisApplication subject = new AnalysisApplication(2,
+				Long.MAX_VALUE, false, new PrintStream(output, true));
+		subject.analyze(directory);
+		String[] lines = getOutput().split("\n");
+		assertEquals(3, lines.length);
+		assertEquals("file,player,depth,bestmove,score,nodes,time,pv",
+				lines[0]);
+		assertTrue(lines[1].matches("a\\.txt,white,2,[a-h][1-8][a-h][1-8],"
+				+ "-?\\d+,\\d+,\\d+,[a-h][1-8][a-h][1-8] "
+				+ "[a-h][1-8][a-h][1-8]"));
+		assertTrue(lines[2].startsWith("\"b,mate.txt\",white,2,a1a8,"));
+		assertEquals(2, subject.getPositionCount());
+		assertTrue(subject.getNodeCount() > 0);
+	}
+
+	/**
+	 * Tests, if the files are reported as JSON lines.
+	 * */
+	@Test
+	public void jsonLines() throws InterruptedException {
+		AnalysisApplication subject = new AnalysisApplication(2,
+				Long.MAX_VALUE, true, new PrintStream(output, true));
+		subject.analyze(directory);
+		String[] lines = getOutput().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("{\"file\":\"a.txt\","
+				+ "\"player\":\"white\",\"depth\":2,\"bestmove\":\""));
+		assertTrue(lines[1].matches("\\{\"file\":\"b,mate.txt\",\"player\":"
+				+ "\"white\",\"depth\":2,\"bestmove\":\"a1a8\",\"score\":\\d+,"
+				+ "\"nodes\":\\d+,\"time\":\\d+,\"pv\":\"a1a8( \\w+)*\"\\}"));
+	}
+
+	private void write(String name, String fen) throws IOException {
+		FileOutputStream stream
+			= new FileOutputStream(new File(directory, name));
+		new GameStateWriter(stream).write(new FenParser(fen).parse());
+		stream.close();
+	}
+
+	private String getOutput() {
+		return output.toString().replace("\r\n", "\n");
+	}
+}
@@ -0,0 +1,90 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import game.Automaton;
+import game.Player;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class UciApplicationTest {
+
+	private ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+	private UciApplication subject
+		= new UciApplication(new PrintStream(output, true));
+
+	@After
+	public void tearDown() {
+		subject.execute("quit");
+		Player.WHITE.playHuman();
+		Player.BLACK.playHuman();
+		ChessApplication.getInstance().setTranspositionTableSize(0);
+		Automaton.reset();
+	}
+
+	@Test
+	public void handshake() {
+		subject.execute("uci");
+		subject.execute("setoption name Hash value 4");
+		subject.execute("isready");
+		assertTrue(getOutput().contains("option name Threads"));
+		assertTrue(getOutput().contains("uciok\n"));
+		assertTrue(getOutput().endsWith("readyok\n"));
+		assertEquals(4, ChessApplication.getInstance()
+				.getTranspositionTableSize());
+	}
+
+	/**
+	 * Tests, if a search to a depth reports each iteration and a legal best
+	 * ply of the position after the moves.
+	 * */
+	@Test
+	public void goDepth() {
+		subject.execute("position startpos moves e2e4 e7e5 g1f3");
+		subject.execute("go depth 3");
+		subject.waitForSearch();
+		String result = getOutput();
+		assertTrue(result.contains("info depth 1 score cp "));
+		assertTrue(result.contains("info depth 3 score cp "));
+		assertTrue(result.matches("(?s).* nodes \\d+ nps \\d+ time \\d+ pv "
+				+ "[a-h][1-8][a-h][1-8].*"));
+		assertFalse(result.contains("info depth 4"));
+		// black is at move
+		assertTrue(result.matches("(?s).*\nbestmove [a-h][1-8][a-h][5-8]"
+				+ "( ponder [a-h][1-8][a-h][1-8])?\n"));
+	}
+
+	/**
+	 * Tests, if the search of a position given by a FEN finds the mate.
+	 * */
+	@Test
+	public void positionFen() {
+		subject.execute("position fen 6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+		subject.execute("go depth 2");
+		subject.waitForSearch();
+		assertTrue(getOutput().contains("bestmove a1a8"));
+	}
+
+	/**
+	 * Tests, if an infinite search reports its best ply when it is stopped.
+	 * */
+	@Test
+	public void stop() throws InterruptedException {
+		subject.execute("position startpos");
+		subject.execute("go infinite");
+		Thread.sleep(300);
+		assertFalse(getOutput().contains("bestmove"));
+		subject.execute("stop");
+		assertTrue(getOutput().matches("(?s).*\nbestmove [a-h][1-8][a-h][1-8]"
+				+ "( ponder [a-h][1-8][a-h][1-8])?\n"));
+	}
+
+	private String getOutput() {
+		return output.toString().replace("\r\n", "\n");
+	}
+}
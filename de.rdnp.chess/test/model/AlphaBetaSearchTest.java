@@ -0,0 +1,316 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Game;
+import game.Player;
+
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class AlphaBetaSearchTest {
+
+	/** The white queen can take a pawn on d5 that is defended by a pawn. */
+	private static final String QUIESCENCE_POSITION = 
+		"- figure locations\n" +
+		"8              bK          \n" +
+		"7                          \n" +
+		"6              bP          \n" +
+		"5           bP             \n" +
+		"4                          \n" +
+		"3                          \n" +
+		"2                          \n" +
+		"1           wQ wK          \n" +
+		"--  A  B  C  D  E  F  G  H";
+
+	/**
+	 * Tests, if the alpha-beta search finds the same best plies as the
+	 * position tree for each figure. The depth is 2, since a position tree
+	 * keeps only the first path to a position that can be reached on 
+	 * different paths.
+	 * */
+	@Test
+	public void samePliesAsPositionTree() {
+		assertSamePlies(TestPositionConstants.TEST_POSITION_3, Player.BLACK, 2);
+		assertSamePlies(TestPositionConstants.TEST_POSITION_4, Player.WHITE, 2);
+		assertSamePlies(TestPositionConstants.TEST_POSITION_9, Player.WHITE, 2);
+	}
+
+	/**
+	 * Tests, if the alpha-beta search computes the same evaluations as a
+	 * complete search without cut-offs, visiting less positions.
+	 * */
+	@Test
+	public void sameEvaluationsAsCompleteSearch() {
+		assertSameEvaluations(TestPositionConstants.TEST_POSITION_4,
+				Player.WHITE, 3);
+		assertSameEvaluations(TestPositionConstants.TEST_POSITION_9,
+				Player.WHITE, 3);
+		assertSameEvaluations(TestPositionConstants.TEST_POSITION_9,
+				Player.BLACK, 4);
+	}
+
+	/**
+	 * Tests, if a search that shares a transposition table with the searches
+	 * of the other figures computes the same evaluations as a search without
+	 * the table, visiting less positions.
+	 * */
+	@Test
+	public void transpositionTable() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		AlphaBetaSearch search = new AlphaBetaSearch(Player.WHITE, position, 4);
+		AlphaBetaSearch tableSearch = new AlphaBetaSearch(Player.WHITE,
+				position, 4, new TranspositionTable(1));
+		for (Figure figure: Player.WHITE.getFigures(position))
+		{
+			PositionComputationResult result = search.search(figure);
+			PositionComputationResult tableResult = tableSearch.search(figure);
+			assertEquals(result.getMaximumAdvantageN(),
+					tableResult.getMaximumAdvantageN());
+			assertEquals(new HashSet<Position>(result.getPositions()),
+					new HashSet<Position>(tableResult.getPositions()));
+		}
+		assertTrue(tableSearch.getNodeCount() < search.getNodeCount());
+	}
+
+	/**
+	 * Tests, if a simple chess situation can be avoided by taking the best
+	 * countermeasure (see {@link PositionTreeEvaluationTest#evaluation3()}).
+	 * */
+	@Test
+	public void evaluation3() {
+		Position testPosition = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_3);
+		new Game().setPosition(testPosition);
+		Figure figure = testPosition.getFigureAt(new ChessLocation(5, 6));
+		PositionComputationResult result = new AlphaBetaSearch(Player.BLACK,
+				testPosition, TestConstants.TEST_POSITION_TREE_DEPTH)
+			.search(figure);
+		assertFalse(result.getPositions().isEmpty());
+		for (Position bestResult: result.getPositions())
+			assertEquals(new ChessLocation(5, 5),
+					bestResult.getFigureLocation(figure));
+	}
+
+	/**
+	 * Tests, if the queen in Position 4 does not attempt to take the rook
+	 * (see {@link PositionTreeEvaluationTest#evaluation4()}).
+	 * */
+	@Test
+	public void evaluation4() {
+		Position testPosition = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_4);
+		new Game().setPosition(testPosition);
+		Figure figure = testPosition.getFigureAt(new ChessLocation(3, 3));
+		PositionComputationResult result = new AlphaBetaSearch(Player.WHITE,
+				testPosition, TestConstants.TEST_POSITION_TREE_DEPTH)
+			.search(figure);
+		assertFalse(result.getPositions().isEmpty());
+		for (Position bestResult: result.getPositions())
+			assertFalse(new ChessLocation(0, 3).equals(
+					bestResult.getFigureLocation(figure)));
+	}
+
+	/**
+	 * Tests, if the quiescence search keeps the queen from taking a defended
+	 * pawn on the last ply, which looks like winning a pawn without it.
+	 * */
+	@Test
+	public void quiescence() {
+		Position position = TestPositions.createPosition(
+				QUIESCENCE_POSITION);
+		new Game().setPosition(position);
+		Figure queen = position.getFigureAt(new ChessLocation(3, 0));
+		AlphaBetaSearch search = new AlphaBetaSearch(Player.WHITE, position,
+				1);
+		PositionComputationResult result = search.search(queen);
+		assertEquals(new ChessLocation(3, 4), result.getPositions().iterator()
+				.next().getFigureLocation(queen));
+		int advantage = result.getMaximumAdvantageN();
+		search.setQuiescence(true);
+		result = search.search(queen);
+		assertTrue(result.getMaximumAdvantageN() < advantage);
+		for (Position bestResult: result.getPositions())
+			assertFalse(new ChessLocation(3, 4).equals(
+					bestResult.getFigureLocation(queen)));
+		assertTrue(search.getQuiescenceNodeCount() > 0);
+	}
+
+	/**
+	 * Tests, if null-move pruning and late-move reductions search less
+	 * positions and still avoid the chess situation of Position 3 (see
+	 * {@link AlphaBetaSearchTest#evaluation3()}).
+	 * */
+	@Test
+	public void pruning() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		AlphaBetaSearch search = new AlphaBetaSearch(Player.WHITE, position,
+				5, new TranspositionTable(1));
+		search.search();
+		AlphaBetaSearch pruningSearch = new AlphaBetaSearch(Player.WHITE,
+				position, 5, new TranspositionTable(1));
+		pruningSearch.setNullMovePruning(true);
+		pruningSearch.setLateMoveReductions(true);
+		assertFalse(pruningSearch.search().getPositions().isEmpty());
+		assertTrue(pruningSearch.getNullMoveCount() > 0);
+		assertTrue(pruningSearch.getReductionCount() > 0);
+		assertTrue(pruningSearch.getNodeCount() < search.getNodeCount());
+
+		Position testPosition = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_3);
+		new Game().setPosition(testPosition);
+		Figure figure = testPosition.getFigureAt(new ChessLocation(5, 6));
+		pruningSearch = new AlphaBetaSearch(Player.BLACK, testPosition, 4);
+		pruningSearch.setNullMovePruning(true);
+		pruningSearch.setLateMoveReductions(true);
+		PositionComputationResult result = pruningSearch.search(figure);
+		assertFalse(result.getPositions().isEmpty());
+		for (Position bestResult: result.getPositions())
+			assertEquals(new ChessLocation(5, 5),
+					bestResult.getFigureLocation(figure));
+	}
+
+	/**
+	 * Tests, if the principal variation of each best ply consists of depth
+	 * plies and leads to a position with the evaluation of the search.
+	 * */
+	@Test
+	public void principalVariation() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		AlphaBetaSearch search = new AlphaBetaSearch(Player.WHITE, position,
+				4);
+		PositionComputationResult result = search.search();
+		int[] bestMoves = search.getBestMoves();
+		int[][] principalVariations = search.getPrincipalVariations();
+		assertEquals(bestMoves.length, principalVariations.length);
+		assertArrayEquals(principalVariations[0],
+				result.getPrincipalVariation());
+		for (int i = 0; i < bestMoves.length; i++)
+		{
+			assertEquals(4, principalVariations[i].length);
+			assertEquals(bestMoves[i], principalVariations[i][0]);
+			SearchBoard board = new SearchBoard(position, Player.WHITE);
+			for (int move: principalVariations[i])
+				board.makeMove(move);
+			assertEquals(result.getMaximumAdvantageN(), board.evaluate());
+		}
+	}
+
+	/**
+	 * Tests, if a search with an aspiration window finds the same plies,
+	 * even if the expected evaluation is wrong.
+	 * */
+	@Test
+	public void aspirationWindow() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		PositionComputationResult expected = new AlphaBetaSearch(Player.WHITE,
+				position, 4).search();
+		int[] expectedEvaluations = {expected.getMaximumAdvantageN(),
+				expected.getMaximumAdvantageN() + 1000,
+				expected.getMaximumAdvantageN() - 1000};
+		for (int expectedEvaluation: expectedEvaluations)
+		{
+			AlphaBetaSearch search = new AlphaBetaSearch(Player.WHITE,
+					position, 4);
+			search.setExpectedEvaluation(expectedEvaluation);
+			PositionComputationResult result = search.search();
+			assertEquals(expected.getMaximumAdvantageN(),
+					result.getMaximumAdvantageN());
+			assertEquals(new HashSet<Position>(expected.getPositions()),
+					new HashSet<Position>(result.getPositions()));
+			assertEquals(expectedEvaluation != expected.getMaximumAdvantageN(),
+					search.getAspirationReSearchCount() > 0);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void searchWithoutPlies() {
+		new AlphaBetaSearch(Player.WHITE, new Position(), 0);
+	}
+
+	private void assertSamePlies(String positionString, Player player,
+			int depth)
+	{
+		Position position = TestPositions.createPosition(positionString);
+		new Game().setPosition(position);
+		AlphaBetaSearch search = new AlphaBetaSearch(player, position, depth);
+		for (Figure figure: player.getFigures(position))
+		{
+			PositionTree tree = new PositionTree(player, position, figure,
+					depth);
+			int maximumAdvantage = Integer.MIN_VALUE;
+			for (Position ply: tree.getTargets(position))
+				maximumAdvantage = Math.max(maximumAdvantage,
+						tree.getEvaluation(ply, player));
+			HashSet<Position> expected = new HashSet<Position>();
+			for (Position ply: tree.getTargets(position))
+				if (tree.getEvaluation(ply, player) == maximumAdvantage)
+					expected.add(ply);
+			PositionComputationResult result = search.search(figure);
+			assertEquals(expected,
+					new HashSet<Position>(result.getPositions()));
+			if (!expected.isEmpty())
+				assertEquals(maximumAdvantage, result.getMaximumAdvantageN());
+		}
+	}
+
+	private void assertSameEvaluations(String positionString, Player player,
+			int depth)
+	{
+		Position position = TestPositions.createPosition(positionString);
+		new Game().setPosition(position);
+		AlphaBetaSearch search = new AlphaBetaSearch(player, position, depth);
+		long completeNodeCount = 0;
+		for (Figure figure: player.getFigures(position))
+		{
+			int maximumAdvantage = Integer.MIN_VALUE;
+			HashSet<Position> expected = new HashSet<Position>();
+			Position[] plies = figure.computeOnePly(position);
+			for (int i = 0; plies[i] != null; i++)
+			{
+				if (player.chess(plies[i]))
+					continue;
+				long[] nodeCount = new long[1];
+				int advantage = -search(plies[i], player.getOpponent(),
+						depth - 1, nodeCount);
+				completeNodeCount += nodeCount[0];
+				if (advantage > maximumAdvantage)
+				{
+					maximumAdvantage = advantage;
+					expected.clear();
+				}
+				if (advantage == maximumAdvantage)
+					expected.add(plies[i]);
+			}
+			PositionComputationResult result = search.search(figure);
+			assertEquals(expected,
+					new HashSet<Position>(result.getPositions()));
+			assertEquals(maximumAdvantage, result.getMaximumAdvantageN());
+		}
+		assertTrue(search.getNodeCount() < completeNodeCount);
+	}
+
+	/** A complete negamax search without cut-offs. */
+	private int search(Position position, Player player, int depth,
+			long[] nodeCount)
+	{
+		nodeCount[0]++;
+		if (depth == 0)
+			return position.evaluate(player);
+		int maximumAdvantage = -AlphaBetaSearch.INFINITY;
+		Position[] plies = player.computePlies(position, false);
+		for (int i = 0; plies[i] != null; i++)
+			maximumAdvantage = Math.max(maximumAdvantage, -search(plies[i],
+					player.getOpponent(), depth - 1, nodeCount));
+		return maximumAdvantage;
+	}
+}
@@ -0,0 +1,181 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Player;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BitBoardTest {
+
+	private static final String[] TEST_POSITIONS = {
+		TestPositionConstants.TEST_POSITION_1,
+		TestPositionConstants.TEST_POSITION_2,
+		TestPositionConstants.TEST_POSITION_4,
+		TestPositionConstants.TEST_POSITION_7,
+		TestPositionConstants.TEST_POSITION_9
+	};
+
+	@After
+	public void tearDown() {
+		Position.setBoardBackend(Position.BIT_BOARD);
+	}
+
+	@Test
+	public void occupancy() {
+		for (String positionString: TEST_POSITIONS)
+		{
+			Position position = TestPositions.createPosition(positionString);
+			BitBoard bitBoard = position.getBitBoard();
+			assertNotNull(bitBoard);
+			for (int i = 0; i < 64; i++)
+			{
+				Figure figure = position.getFigureAt(i);
+				if (figure == null)
+					assertEquals(-1, bitBoard.getPieceIndex(i));
+				else
+					assertEquals(figure.getPieceIndex(),
+							bitBoard.getPieceIndex(i));
+			}
+		}
+	}
+
+	@Test
+	public void evaluation() {
+		for (String positionString: TEST_POSITIONS)
+		{
+			Position.setBoardBackend(Position.ARRAY_BOARD);
+			Position arrayPosition
+				= TestPositions.createPosition(positionString);
+			Position.setBoardBackend(Position.BIT_BOARD);
+			Position bitPosition = TestPositions.createPosition(positionString);
+			assertNull(arrayPosition.getBitBoard());
+			assertEquals(arrayPosition.evaluate(Player.WHITE),
+					bitPosition.evaluate(Player.WHITE));
+			assertEquals(arrayPosition.evaluate(Player.BLACK),
+					bitPosition.evaluate(Player.BLACK));
+			assertEquals(arrayPosition, bitPosition);
+		}
+	}
+
+	/**
+	 * Tests, if the evaluation of the pawn structure that a copy keeps from
+	 * its original is evaluated again after a pawn moved.
+	 * */
+	@Test
+	public void pawnEvaluation() {
+		for (String positionString: TEST_POSITIONS)
+		{
+			Position position = TestPositions.createPosition(positionString);
+			Figure[] figures = new Figure[64];
+			for (int i = 0; i < 64; i++)
+				figures[i] = position.getFigureAt(i);
+			BitBoard original = position.getBitBoard();
+			original.evaluate(BitBoard.WHITE);
+			// move the first white pawn that can advance
+			int pawnIndex = BitBoard.getPieceIndex(BitBoard.PAWN,
+					BitBoard.WHITE);
+			for (int i = 0; i < 63; i++)
+			{
+				if (figures[i] == null || figures[i + 1] != null
+						|| figures[i].getPieceIndex() != pawnIndex)
+					continue;
+				figures[i + 1] = figures[i];
+				figures[i] = null;
+				BitBoard copy = new BitBoard(original);
+				copy.clear(i, pawnIndex);
+				copy.set(i + 1, pawnIndex);
+				assertEquals(new BitBoard(figures).evaluate(BitBoard.WHITE),
+						copy.evaluate(BitBoard.WHITE));
+				break;
+			}
+		}
+	}
+
+	@Test
+	public void figureOrder() {
+		for (String positionString: TEST_POSITIONS)
+		{
+			Position.setBoardBackend(Position.ARRAY_BOARD);
+			Position arrayPosition
+				= TestPositions.createPosition(positionString);
+			// derive a bit board position from the array position, so both
+			// positions share the same figures
+			Position.setBoardBackend(Position.BIT_BOARD);
+			Position bitPosition = new Position(arrayPosition, null, null);
+			assertNotNull(bitPosition.getBitBoard());
+			assertEquals(Player.WHITE.getFigures(arrayPosition),
+					Player.WHITE.getFigures(bitPosition));
+			assertEquals(Player.BLACK.getFigures(arrayPosition),
+					Player.BLACK.getFigures(bitPosition));
+		}
+	}
+
+	@Test
+	public void plyComputation() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		Position[] plies = Player.WHITE.computePlies(position, false);
+		for (int i = 0; plies[i] != null; i++)
+			assertEquals(new BitBoard(figuresOf(plies[i])),
+					plies[i].getBitBoard());
+	}
+
+	/**
+	 * Tests, if the attacks found by scanning from a location (with both
+	 * backends) and by the attack map are the locations at which a figure can
+	 * be taken by a ply.
+	 * */
+	@Test
+	public void attacks() {
+		for (String positionString: TEST_POSITIONS)
+		{
+			Position.setBoardBackend(Position.ARRAY_BOARD);
+			Position arrayPosition
+				= TestPositions.createPosition(positionString);
+			Position.setBoardBackend(Position.BIT_BOARD);
+			Position bitPosition = new Position(arrayPosition, null, null);
+			for (Player player: new Player[] {Player.WHITE, Player.BLACK})
+			{
+				long attackMap = bitPosition.getAttackMap(player);
+				for (int i = 0; i < 64; i++)
+				{
+					ChessLocation location = new ChessLocation(i / 8, i % 8);
+					boolean attacked = (attackMap >>> i & 1) != 0;
+					assertEquals(attacked,
+							arrayPosition.isAttacked(location, player));
+					assertEquals(attacked,
+							bitPosition.isAttacked(location, player));
+					Figure figure = bitPosition.getFigureAt(i);
+					if (figure == null || figure.getOwner() != player)
+						assertEquals(attacked,
+								canTake(bitPosition, player, location));
+				}
+			}
+		}
+	}
+
+	/** @return true, iff player can take a figure at location with a ply. */
+	private boolean canTake(Position position, Player player,
+			ChessLocation location)
+	{
+		Position target = position;
+		if (position.getFigureAt(location) == null)
+			target = new Position(position, new Rook(player.getOpponent()),
+					location);
+		Position[] plies = player.computePlies(target, false);
+		for (int i = 0; plies[i] != null; i++)
+			if (plies[i].getFigureAt(location) != null
+					&& plies[i].getFigureAt(location).getOwner() == player)
+				return true;
+		return false;
+	}
+
+	private Figure[] figuresOf(Position position) {
+		Figure[] figures = new Figure[64];
+		for (int i = 0; i < 64; i++)
+			figures[i] = position.getFigureAt(i);
+		return figures;
+	}
+}
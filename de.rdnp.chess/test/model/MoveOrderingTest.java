@@ -0,0 +1,73 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Game;
+import game.Player;
+
+import org.junit.Test;
+
+public class MoveOrderingTest {
+
+	private static final int QUEEN_TAKES_PAWN = Move.create(27, 28,
+			BitBoard.QUEEN, BitBoard.PAWN, 0, 0);
+	private static final int PAWN_TAKES_PAWN = Move.create(19, 28,
+			BitBoard.PAWN, BitBoard.PAWN, 0, 0);
+	private static final int PAWN_TAKES_ROOK = Move.create(19, 12,
+			BitBoard.PAWN, BitBoard.ROOK, 0, 0);
+	private static final int QUIET_KNIGHT_MOVE = Move.create(6, 21,
+			BitBoard.KNIGHT, Move.NO_CAPTURE, 0, 0);
+	private static final int QUIET_ROOK_MOVE = Move.create(0, 2,
+			BitBoard.ROOK, Move.NO_CAPTURE, 0, 0);
+	private static final int QUIET_BISHOP_MOVE = Move.create(16, 25,
+			BitBoard.BISHOP, Move.NO_CAPTURE, 0, 0);
+
+	/**
+	 * Tests, if the moves are ordered by hash move, captures (MVV-LVA),
+	 * killer moves and history.
+	 * */
+	@Test
+	public void order() {
+		MoveOrdering moveOrdering = new MoveOrdering(4);
+		moveOrdering.cutoff(QUIET_ROOK_MOVE, 2, BitBoard.WHITE, 1);
+		moveOrdering.cutoff(QUIET_BISHOP_MOVE, 3, BitBoard.WHITE, 3);
+		int[] moves = {QUIET_BISHOP_MOVE, QUEEN_TAKES_PAWN, QUIET_ROOK_MOVE,
+				PAWN_TAKES_PAWN, QUIET_KNIGHT_MOVE, PAWN_TAKES_ROOK};
+		assertOrder(moveOrdering, moves, QUIET_KNIGHT_MOVE, 2,
+				QUIET_KNIGHT_MOVE, PAWN_TAKES_ROOK, PAWN_TAKES_PAWN,
+				QUEEN_TAKES_PAWN, QUIET_ROOK_MOVE, QUIET_BISHOP_MOVE);
+		// the history of the bishop move is higher without the killer move
+		assertOrder(moveOrdering, moves, Move.NONE, 1,
+				PAWN_TAKES_ROOK, PAWN_TAKES_PAWN, QUEEN_TAKES_PAWN,
+				QUIET_BISHOP_MOVE, QUIET_ROOK_MOVE, QUIET_KNIGHT_MOVE);
+	}
+
+	/**
+	 * Tests, if the searches count the cut-offs and most cut-offs are caused
+	 * by the first ply.
+	 * */
+	@Test
+	public void cutoffCounts() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		AlphaBetaSearch search = new AlphaBetaSearch(Player.WHITE, position,
+				4, new TranspositionTable(1));
+		search.search();
+		assertTrue(search.getCutoffCount() > 0);
+		assertTrue(search.getFirstMoveCutoffCount() * 2
+				> search.getCutoffCount());
+	}
+
+	private void assertOrder(MoveOrdering moveOrdering, int[] moves,
+			int hashMove, int ply, int... expected)
+	{
+		int[] orderedMoves = moves.clone();
+		int[] scores = new int[moves.length];
+		moveOrdering.score(orderedMoves, scores, moves.length, hashMove, ply,
+				BitBoard.WHITE);
+		for (int i = 0; i < moves.length; i++)
+			assertEquals(Move.toString(expected[i]), Move.toString(
+					moveOrdering.select(orderedMoves, scores, moves.length, i)));
+	}
+}
@@ -0,0 +1,99 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Game;
+import game.Player;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class ParallelSearchTest {
+
+	/**
+	 * Tests, if a parallel search with one thread finds the same best plies as
+	 * the searches of the single figures and splits them by figures.
+	 * */
+	@Test
+	public void sameResultAsFigureSearches() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		AlphaBetaSearch figureSearch
+			= new AlphaBetaSearch(Player.WHITE, position, 3);
+		int maximumAdvantage = Integer.MIN_VALUE;
+		for (Figure figure: Player.WHITE.getFigures(position))
+			maximumAdvantage = Math.max(maximumAdvantage,
+					figureSearch.search(figure).getMaximumAdvantageN());
+		ParallelSearch search = new ParallelSearch(Player.WHITE, position, 3,
+				new TranspositionTable(1), null, 1);
+		PositionComputationResult result = search.search();
+		assertFalse(search.isAborted());
+		assertEquals(maximumAdvantage, result.getMaximumAdvantageN());
+		Map<Figure, PositionComputationResult> figureResults
+			= search.getFigureResults();
+		HashSet<Position> positions = new HashSet<Position>();
+		for (Figure figure: Player.WHITE.getFigures(position))
+		{
+			PositionComputationResult figureResult = figureResults.get(figure);
+			PositionComputationResult expected = figureSearch.search(figure);
+			if (expected.getMaximumAdvantageN() == maximumAdvantage)
+				assertEquals(new HashSet<Position>(expected.getPositions()),
+						new HashSet<Position>(figureResult.getPositions()));
+			else
+				assertTrue(figureResult.getPositions().isEmpty());
+			positions.addAll(figureResult.getPositions());
+		}
+		assertEquals(new HashSet<Position>(result.getPositions()), positions);
+	}
+
+	/**
+	 * Tests, if a parallel search with several threads finds legal best plies.
+	 * The helper threads may store results of deeper searches in the
+	 * transposition table, so the evaluation may differ from a search with
+	 * one thread.
+	 * */
+	@Test
+	public void severalThreads() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_4);
+		new Game().setPosition(position);
+		HashSet<Position> legalPlies = new HashSet<Position>();
+		Position[] plies = Player.WHITE.computePlies(position);
+		for (int i = 0; plies[i] != null; i++)
+			legalPlies.add(plies[i]);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		ParallelSearch search = new ParallelSearch(Player.WHITE, position, 4,
+				new TranspositionTable(1), executor, 4);
+		PositionComputationResult result = search.search();
+		executor.shutdown();
+		assertFalse(search.isAborted());
+		assertFalse(result.getPositions().isEmpty());
+		assertTrue(legalPlies.containsAll(result.getPositions()));
+		assertTrue(search.getNodeCount() > 0);
+	}
+
+	/**
+	 * Tests, if a parallel search of an interrupted thread returns the result
+	 * of the main search and keeps the interrupt status of the thread.
+	 * */
+	@Test
+	public void interrupted() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_4);
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		ParallelSearch search = new ParallelSearch(Player.WHITE, position, 3,
+				new TranspositionTable(1), executor, 2);
+		Thread.currentThread().interrupt();
+		PositionComputationResult result = search.search();
+		// clears the interrupt status
+		assertTrue(Thread.interrupted());
+		executor.shutdown();
+		assertFalse(search.isAborted());
+		assertFalse(result.getPositions().isEmpty());
+	}
+}
@@ -0,0 +1,59 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Game;
+import game.Player;
+
+import org.junit.Test;
+
+public class PawnHashTableTest {
+
+	@Test
+	public void size() {
+		// the largest power of two of entries that fits in 1 MB
+		assertEquals(32768 * PawnHashTable.ENTRY_SIZE,
+				new PawnHashTable(1).getSize());
+	}
+
+	@Test
+	public void storeAndProbe() {
+		PawnHashTable table = new PawnHashTable(1);
+		long[] entry = new long[2];
+		assertFalse(table.probe(0x123456789ABCDEFL, entry));
+		table.store(0x123456789ABCDEFL, PawnStructure.pack(-10, 20), 0xFF00L);
+		assertTrue(table.probe(0x123456789ABCDEFL, entry));
+		assertEquals(PawnStructure.pack(-10, 20), entry[0]);
+		assertEquals(0xFF00L, entry[1]);
+		// another key with the same index replaces the entry
+		table.store(0x223456789ABCDEFL, 0, 0);
+		assertFalse(table.probe(0x123456789ABCDEFL, entry));
+		table.clear();
+		assertFalse(table.probe(0x223456789ABCDEFL, entry));
+	}
+
+	/**
+	 * Tests, if a search with a pawn hash table computes the same results as
+	 * a search without it and finds most pawn structures in the table.
+	 * */
+	@Test
+	public void search() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		AlphaBetaSearch search = new AlphaBetaSearch(Player.WHITE, position,
+				3);
+		AlphaBetaSearch tableSearch = new AlphaBetaSearch(Player.WHITE,
+				position, 3);
+		tableSearch.setPawnHashTable(new PawnHashTable(1));
+		PositionComputationResult result = search.search();
+		PositionComputationResult tableResult = tableSearch.search();
+		assertEquals(result.getMaximumAdvantageN(),
+				tableResult.getMaximumAdvantageN());
+		assertEquals(result.getPositions(), tableResult.getPositions());
+		assertEquals(0, search.getPawnHashProbeCount());
+		assertTrue(tableSearch.getPawnHashProbeCount() > 0);
+		assertTrue(tableSearch.getPawnHashHitCount() * 2
+				> tableSearch.getPawnHashProbeCount());
+	}
+}
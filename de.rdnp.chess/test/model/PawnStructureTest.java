@@ -0,0 +1,69 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PawnStructureTest {
+
+	/**
+	 * Tests the passed pawns: the white pawn on a5 and the black pawn on h4
+	 * are passed, the white pawns on c4 and d3 are blocked by the black pawn
+	 * on d5 and the black pawn on d5 by the white pawns on c4 and d3.
+	 * */
+	@Test
+	public void passedPawns() {
+		long whitePawns = bit(0, 4) | bit(2, 3) | bit(3, 2);
+		long blackPawns = bit(3, 4) | bit(7, 3);
+		assertEquals(bit(0, 4) | bit(7, 3),
+				PawnStructure.getPassedPawns(whitePawns, blackPawns));
+		// only the front pawn of doubled pawns is passed
+		assertEquals(bit(0, 4), PawnStructure.getPassedPawns(
+				bit(0, 4) | bit(0, 1), 0));
+	}
+
+	/**
+	 * Tests, if doubled and isolated pawns are penalized, passed pawns get a
+	 * bonus, and the scores of mirrored pawn structures are negated.
+	 * */
+	@Test
+	public void evaluate() {
+		long connectedPawns = bit(3, 1) | bit(4, 1);
+		long doubledPawns = bit(3, 1) | bit(3, 2);
+		long isolatedPawns = bit(2, 1) | bit(4, 1);
+		long opponentPawns = bit(2, 6) | bit(3, 6) | bit(4, 6) | bit(5, 6);
+		long scores = PawnStructure.evaluate(connectedPawns, opponentPawns);
+		assertTrue(PawnStructure.evaluate(doubledPawns, opponentPawns)
+				< scores);
+		assertTrue(PawnStructure.evaluate(isolatedPawns, opponentPawns)
+				< scores);
+		assertEquals(0, PawnStructure.evaluate(connectedPawns,
+				bit(3, 6) | bit(4, 6)));
+		// a passed pawn is worth more in the endgame and closer to its
+		// transformation
+		long passedScores = PawnStructure.evaluate(bit(0, 4), 0);
+		assertTrue(PawnStructure.getEndgameValue(passedScores)
+				> PawnStructure.getMiddlegameValue(passedScores));
+		assertTrue(PawnStructure.getEndgameValue(PawnStructure.evaluate(
+				bit(0, 5), 0)) > PawnStructure.getEndgameValue(passedScores));
+		long mirroredScores = PawnStructure.evaluate(0, bit(0, 3));
+		assertEquals(-PawnStructure.getMiddlegameValue(passedScores),
+				PawnStructure.getMiddlegameValue(mirroredScores));
+		assertEquals(-PawnStructure.getEndgameValue(passedScores),
+				PawnStructure.getEndgameValue(mirroredScores));
+	}
+
+	@Test
+	public void pack() {
+		long scores = PawnStructure.pack(-25, 130);
+		assertEquals(-25, PawnStructure.getMiddlegameValue(scores));
+		assertEquals(130, PawnStructure.getEndgameValue(scores));
+		scores = PawnStructure.pack(40, -7);
+		assertEquals(40, PawnStructure.getMiddlegameValue(scores));
+		assertEquals(-7, PawnStructure.getEndgameValue(scores));
+	}
+
+	private static long bit(int x, int y) {
+		return 1L << (x * 8 + y);
+	}
+}
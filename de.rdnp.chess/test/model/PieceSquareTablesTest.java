@@ -0,0 +1,86 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Game;
+import game.Player;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PieceSquareTablesTest {
+
+	/** Only the kings and a white pawn are left, the white king is in the
+	 * center. */
+	private static final String ENDGAME_POSITION = 
+		"- figure locations\n" +
+		"8  bK                      \n" +
+		"7                          \n" +
+		"6                          \n" +
+		"5              wK          \n" +
+		"4                          \n" +
+		"3                          \n" +
+		"2     wP                   \n" +
+		"1                          \n" +
+		"--  A  B  C  D  E  F  G  H";
+
+	@After
+	public void tearDown() {
+		Position.setBoardBackend(Position.BIT_BOARD);
+	}
+
+	@Test
+	public void startPosition() {
+		assertEquals(0, new Position().evaluate(Player.WHITE));
+		assertEquals(0, new Position().evaluate(Player.BLACK));
+	}
+
+	/**
+	 * Tests, if the evaluations maintained by the moves of a search board
+	 * equal the evaluations computed from scratch.
+	 * */
+	@Test
+	public void incrementalEvaluation() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		Position.setBoardBackend(Position.ARRAY_BOARD);
+		assertIncrementalEvaluation(new SearchBoard(position, Player.WHITE),
+				3, new int[3][SearchBoard.MAX_MOVES]);
+	}
+
+	/**
+	 * Tests, if the king is drawn to the center in the endgame.
+	 * */
+	@Test
+	public void endgame() {
+		Position position = TestPositions.createPosition(ENDGAME_POSITION);
+		Figure king = position.getFigureAt(new ChessLocation(4, 4));
+		Position cornerPosition = new Position(position, king,
+				new ChessLocation(7, 0));
+		assertTrue(position.evaluate(Player.WHITE)
+				> cornerPosition.evaluate(Player.WHITE));
+		assertEquals(-position.evaluate(Player.WHITE),
+				position.evaluate(Player.BLACK));
+		// the pawn is worth more the closer it is to its transformation
+		Figure pawn = position.getFigureAt(new ChessLocation(1, 1));
+		assertTrue(new Position(position, pawn, new ChessLocation(1, 5))
+				.evaluate(Player.WHITE) > position.evaluate(Player.WHITE));
+	}
+
+	private void assertIncrementalEvaluation(SearchBoard board, int depth,
+			int[][] moves)
+	{
+		assertEquals(board.toPosition().evaluate(board.getPlayer()),
+				board.evaluate());
+		if (depth == 0)
+			return;
+		int count = board.generateMoves(moves[depth - 1]);
+		for (int i = 0; i < count; i++)
+		{
+			board.makeMove(moves[depth - 1][i]);
+			assertIncrementalEvaluation(board, depth - 1, moves);
+			board.unmakeMove();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Player;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PositionTest {
+
+	@After
+	public void tearDown() {
+		Position.setBoardBackend(Position.BIT_BOARD);
+	}
+
+	/**
+	 * Tests, if the locations of the figures in the piece list are the
+	 * locations in the figure array, for the positions reachable with two
+	 * plies (including pawn transformations, castling and en passant) with
+	 * both board backends.
+	 * */
+	@Test
+	public void pieceList() {
+		for (int backend: new int[] {Position.ARRAY_BOARD, Position.BIT_BOARD})
+		{
+			Position.setBoardBackend(backend);
+			Position position = TestPositions.createPosition(
+					TestPositionConstants.TEST_POSITION_9);
+			assertPieceList(position, Player.WHITE, 2);
+			assertPieceList(new Position(), Player.WHITE, 2);
+		}
+	}
+
+	/**
+	 * Tests, if figures that are not in a position are not found.
+	 * */
+	@Test
+	public void missingFigure() {
+		Position position = new Position();
+		Figure queen = position.getFigureAt(new ChessLocation(3, 0));
+		assertNull(new Position(position, queen, null)
+			.getFigureLocation(queen));
+		assertNull(position.getFigureLocation(new Queen(Player.WHITE)));
+		// a new figure enters the position
+		Queen newQueen = new Queen(Player.WHITE);
+		Position newPosition = new Position(position, newQueen,
+				new ChessLocation(3, 0));
+		assertEquals(new ChessLocation(3, 0),
+				newPosition.getFigureLocation(newQueen));
+		assertNull(newPosition.getFigureLocation(queen));
+	}
+
+	private void assertPieceList(Position position, Player player,
+			int depth)
+	{
+		long white = 0, black = 0;
+		for (int i = 0; i < 64; i++)
+		{
+			Figure figure = position.getFigureAt(i);
+			if (figure == null)
+				continue;
+			assertEquals(new ChessLocation(i / 8, i % 8),
+					position.getFigureLocation(figure));
+			if (figure.getOwner() == Player.WHITE)
+				white |= 1L << i;
+			else
+				black |= 1L << i;
+		}
+		assertEquals(white, position.getLocations(Player.WHITE));
+		assertEquals(black, position.getLocations(Player.BLACK));
+		if (depth == 0)
+			return;
+		Position[] plies = player.computePlies(position);
+		for (int i = 0; plies[i] != null; i++)
+			assertPieceList(plies[i], player.getOpponent(), depth - 1);
+	}
+}
@@ -6,6 +6,8 @@ import static org.junit.Assert.assertTrue;
 import game.Game;
 import game.Player;
 
+import java.util.List;
+
 import org.junit.Test;
 
 
@@ -34,4 +36,36 @@ public class PositionTreeInitializationTest {
 		assertTrue(subject.size() > 0);
 		assertEquals(0, subject.getTargets(testPosition).size());
 	}
+	
+	/**
+	 * Tests, if the positions that are materialized from the moves of the
+	 * nodes are linked correctly.
+	 * */
+	@Test
+	public void materializedPositions()
+	{
+		Position start = TestPositions.createStartPosition();
+		new Game().setPosition(start);
+		Figure pawn = start.getFigureAt(new ChessLocation(3, 1));
+		PositionTree subject = new PositionTree(Player.WHITE, start, pawn, 3);
+		List<Position> targets = subject.getTargets(start);
+		assertEquals(new ChessLocation(3, 2),
+				targets.get(0).getFigureLocation(pawn));
+		assertEquals(new ChessLocation(3, 3),
+				targets.get(1).getFigureLocation(pawn));
+		for (Position target: targets)
+		{
+			assertEquals(start, subject.getSource(target));
+			assertEquals(Player.BLACK, subject.getPlayer(target));
+			assertEquals(20, subject.getTargets(target).size());
+			for (Position reply: subject.getTargets(target))
+			{
+				assertEquals(target, subject.getSource(reply));
+				assertEquals(2, subject.getReachability(reply));
+				assertEquals(Player.WHITE, subject.getPlayer(reply));
+				assertTrue(subject.getEvaluation(reply, Player.WHITE)
+						> Integer.MIN_VALUE);
+			}
+		}
+	}
 }
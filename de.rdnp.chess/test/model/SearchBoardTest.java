@@ -0,0 +1,266 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Game;
+import game.Player;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SearchBoardTest {
+
+	/** A position with castling, en passant and pawn transformations. */
+	private static final String SPECIAL_PLIES_POSITION =
+		"- figure locations\n" +
+		"8  bR          bK       bR \n"+
+		"7  wP       bP          bP \n"+
+		"6                          \n"+
+		"5        wP                \n"+
+		"4                          \n"+
+		"3                          \n"+
+		"2        bP       wP    wP \n"+
+		"1  wR          wK       wR \n"+
+		"--  A  B  C  D  E  F  G  H";
+
+	private static final String PAWN_ENDGAME_POSITION =
+		"- figure locations\n" +
+		"8              bK          \n"+
+		"7                          \n"+
+		"6              bP          \n"+
+		"5                          \n"+
+		"4              wP          \n"+
+		"3                          \n"+
+		"2                          \n"+
+		"1              wK          \n"+
+		"--  A  B  C  D  E  F  G  H";
+
+	@Test
+	public void perftStartPosition() {
+		assertPerftEquivalence(new Position(), Player.WHITE, 3);
+	}
+
+	@Test
+	public void perftPosition9() {
+		assertPerftEquivalence(TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9), Player.WHITE, 3);
+	}
+
+	@Test
+	public void perftSpecialPlies() {
+		Position position = TestPositions.createPosition(
+				SPECIAL_PLIES_POSITION);
+		assertPerftEquivalence(position, Player.WHITE, 3);
+		assertPerftEquivalence(position, Player.BLACK, 3);
+	}
+
+	@Test
+	public void makeUnmake() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		SearchBoard board = new SearchBoard(position, Player.WHITE);
+		Position before = board.toPosition();
+		long hash = board.getHash();
+		int[] moves = new int[SearchBoard.MAX_MOVES];
+		int count = board.generateMoves(moves);
+		assertTrue(count > 0);
+		for (int i = 0; i < count; i++)
+		{
+			board.makeMove(moves[i]);
+			assertEquals(Player.BLACK, board.getPlayer());
+			assertEquals(board.toPosition().getHash(Player.BLACK),
+					board.getHash());
+			board.unmakeMove();
+			assertEquals(Player.WHITE, board.getPlayer());
+			assertEquals(before, board.toPosition());
+			assertEquals(hash, board.getHash());
+			assertEquals(0, board.getPlyCount());
+		}
+	}
+
+	/**
+	 * Tests, if unmaking the moves of all lines puts back the same figure
+	 * instances that were taken, including figures taken en passant and by
+	 * pawn transformations.
+	 * */
+	@Test
+	public void takenFigures() {
+		for (Player player: new Player[] {Player.WHITE, Player.BLACK})
+		{
+			SearchBoard board = new SearchBoard(TestPositions.createPosition(
+					SPECIAL_PLIES_POSITION), player);
+			assertSameFigures(board, 3, new int[3][SearchBoard.MAX_MOVES]);
+		}
+	}
+
+	@Test
+	public void nullMove() {
+		Position position = TestPositions.createPosition(
+				SPECIAL_PLIES_POSITION);
+		SearchBoard board = new SearchBoard(position, Player.WHITE);
+		Position before = board.toPosition();
+		long hash = board.getHash();
+		board.makeNullMove();
+		assertEquals(Player.BLACK, board.getPlayer());
+		assertEquals(Move.NONE, board.getLastMove());
+		assertEquals(-1, board.getEnPassantLine());
+		assertEquals(board.toPosition().getHash(Player.BLACK),
+				board.getHash());
+		board.unmakeMove();
+		assertEquals(Player.WHITE, board.getPlayer());
+		assertEquals(before, board.toPosition());
+		assertEquals(hash, board.getHash());
+		assertEquals(0, board.getPlyCount());
+		assertTrue(board.hasPieces(BitBoard.WHITE));
+		assertFalse(new SearchBoard(TestPositions.createPosition(
+				PAWN_ENDGAME_POSITION), Player.WHITE).hasPieces(BitBoard.WHITE));
+	}
+
+	@Test
+	public void moveFields() {
+		String[] positionStrings = {
+			TestPositionConstants.TEST_POSITION_9,
+			SPECIAL_PLIES_POSITION
+		};
+		for (String positionString: positionStrings)
+			for (Player player: new Player[] {Player.WHITE, Player.BLACK})
+			{
+				SearchBoard board = new SearchBoard(
+						TestPositions.createPosition(positionString), player);
+				int[] moves = new int[SearchBoard.MAX_MOVES];
+				int count = board.generateMoves(moves);
+				for (int i = 0; i < count; i++)
+				{
+					int move = moves[i];
+					assertEquals(board.getPieceIndex(Move.getFrom(move)) % 6,
+							Move.getPiece(move));
+					int captured = board.getPieceIndex(Move.getTo(move));
+					if (Move.isEnPassant(move))
+						assertEquals(BitBoard.PAWN, Move.getCaptured(move));
+					else
+						assertEquals(captured == -1? Move.NO_CAPTURE:
+							captured % 6, Move.getCaptured(move));
+					assertEquals(Move.getCaptured(move) != Move.NO_CAPTURE,
+							Move.isCapture(move));
+				}
+			}
+	}
+
+	@Test
+	public void captures() {
+		String[] positionStrings = {
+			TestPositionConstants.TEST_POSITION_9,
+			SPECIAL_PLIES_POSITION
+		};
+		for (String positionString: positionStrings)
+			for (Player player: new Player[] {Player.WHITE, Player.BLACK})
+			{
+				SearchBoard board = new SearchBoard(
+						TestPositions.createPosition(positionString), player);
+				Set<Integer> expected = new HashSet<Integer>();
+				int[] moves = new int[SearchBoard.MAX_MOVES];
+				int count = board.generateMoves(moves);
+				for (int i = 0; i < count; i++)
+					if (Move.isCapture(moves[i])
+							|| Move.getPromotion(moves[i]) == BitBoard.QUEEN)
+						expected.add(moves[i]);
+				Set<Integer> actual = new HashSet<Integer>();
+				count = board.generateCaptures(moves);
+				for (int i = 0; i < count; i++)
+					actual.add(moves[i]);
+				assertEquals(expected, actual);
+			}
+	}
+
+	@Test
+	public void legalPlies() {
+		String[] positionStrings = {
+			TestPositionConstants.TEST_POSITION_1,
+			TestPositionConstants.TEST_POSITION_4,
+			TestPositionConstants.TEST_POSITION_9,
+			SPECIAL_PLIES_POSITION
+		};
+		for (String positionString: positionStrings)
+		{
+			Position position = TestPositions.createPosition(positionString);
+			new Game().setPosition(position);
+			for (Player player: new Player[] {Player.WHITE, Player.BLACK})
+			{
+				Set<Position> expected = new HashSet<Position>();
+				Position[] plies = player.computePlies(position);
+				for (int i = 0; plies[i] != null; i++)
+					expected.add(plies[i]);
+				Set<Position> actual = new HashSet<Position>();
+				SearchBoard board = new SearchBoard(position, player);
+				int[] moves = new int[SearchBoard.MAX_MOVES];
+				int count = board.generateLegalMoves(moves);
+				for (int i = 0; i < count; i++)
+				{
+					board.makeMove(moves[i]);
+					actual.add(board.toPosition());
+					board.unmakeMove();
+				}
+				assertEquals(expected, actual);
+			}
+		}
+	}
+
+	/** Checks that unmaking each move restores the same Figure instances. */
+	private void assertSameFigures(SearchBoard board, int depth,
+			int[][] moves)
+	{
+		if (depth == 0)
+			return;
+		Figure[] figures = new Figure[64];
+		for (int i = 0; i < 64; i++)
+			figures[i] = board.getFigureAt(i);
+		int count = board.generateMoves(moves[depth - 1]);
+		for (int i = 0; i < count; i++)
+		{
+			board.makeMove(moves[depth - 1][i]);
+			assertSameFigures(board, depth - 1, moves);
+			board.unmakeMove();
+			for (int j = 0; j < 64; j++)
+				assertSame(figures[j], board.getFigureAt(j));
+		}
+	}
+
+	/** Checks that the number of leaf positions is the same for the plies
+	 * computed by the figures and for the moves of a search board. */
+	private void assertPerftEquivalence(Position position, Player player,
+			int depth)
+	{
+		new Game().setPosition(position);
+		long positionNodes = perft(position, player, depth);
+		long boardNodes = perft(new SearchBoard(position, player), depth,
+				new int[depth][SearchBoard.MAX_MOVES]);
+		assertTrue(positionNodes > 0);
+		assertEquals(positionNodes, boardNodes);
+	}
+
+	private long perft(Position position, Player player, int depth) {
+		if (depth == 0)
+			return 1;
+		long nodes = 0;
+		Position[] plies = player.computePlies(position);
+		for (int i = 0; plies[i] != null; i++)
+			nodes += perft(plies[i], player.getOpponent(), depth - 1);
+		return nodes;
+	}
+
+	private long perft(SearchBoard board, int depth, int[][] moves) {
+		if (depth == 0)
+			return 1;
+		long nodes = 0;
+		int count = board.generateLegalMoves(moves[depth - 1]);
+		for (int i = 0; i < count; i++)
+		{
+			board.makeMove(moves[depth - 1][i]);
+			nodes += perft(board, depth - 1, moves);
+			board.unmakeMove();
+		}
+		return nodes;
+	}
+}
@@ -0,0 +1,109 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Game;
+import game.Player;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SlidingAttacksTest {
+
+	@After
+	public void tearDown() {
+		Position.setBoardBackend(Position.BIT_BOARD);
+	}
+
+	@Test
+	public void attackTables() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++)
+		{
+			int location = random.nextInt(64);
+			long occupancy = random.nextLong() & random.nextLong();
+			assertEquals(SlidingAttacks.computeBishopAttacks(location,
+					occupancy),
+				SlidingAttacks.getBishopAttacks(location, occupancy));
+			assertEquals(SlidingAttacks.computeRookAttacks(location,
+					occupancy),
+				SlidingAttacks.getRookAttacks(location, occupancy));
+		}
+	}
+
+	@Test
+	public void slidingLocations() {
+		String[] positionStrings = {
+			TestPositionConstants.TEST_POSITION_1,
+			TestPositionConstants.TEST_POSITION_4,
+			TestPositionConstants.TEST_POSITION_6,
+			TestPositionConstants.TEST_POSITION_9
+		};
+		for (String positionString: positionStrings)
+		{
+			Position.setBoardBackend(Position.ARRAY_BOARD);
+			Position rayPosition = TestPositions.createPosition(positionString);
+			Position.setBoardBackend(Position.BIT_BOARD);
+			Position magicPosition = new Position(rayPosition, null, null);
+			for (int i = 0; i < 64; i++)
+			{
+				Figure figure = rayPosition.getFigureAt(i);
+				if (figure instanceof Bishop || figure instanceof Rook
+						|| figure instanceof Queen)
+					assertEquals(
+						toSet(figure.computeOnePlyLocations(rayPosition)),
+						toSet(figure.computeOnePlyLocations(magicPosition)));
+			}
+		}
+	}
+
+	@Test
+	public void perftStartPosition() {
+		assertPerftEquivalence(new Position(), Player.WHITE, 3);
+	}
+
+	@Test
+	public void perftPosition9() {
+		assertPerftEquivalence(TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9), Player.WHITE, 3);
+	}
+
+	/** Checks that the number of leaf positions is the same when the plies
+	 * of the sliding figures are computed by the ray walker and by the
+	 * attack tables. */
+	private void assertPerftEquivalence(Position position, Player player,
+			int depth)
+	{
+		Position.setBoardBackend(Position.ARRAY_BOARD);
+		Position rayPosition = new Position(position, null, null);
+		new Game().setPosition(rayPosition);
+		long rayNodes = perft(rayPosition, player, depth);
+		Position.setBoardBackend(Position.BIT_BOARD);
+		Position magicPosition = new Position(position, null, null);
+		new Game().setPosition(magicPosition);
+		long magicNodes = perft(magicPosition, player, depth);
+		assertTrue(rayNodes > 0);
+		assertEquals(rayNodes, magicNodes);
+	}
+
+	private long perft(Position position, Player player, int depth) {
+		if (depth == 0)
+			return 1;
+		long nodes = 0;
+		Position[] plies = player.computePlies(position);
+		for (int i = 0; plies[i] != null; i++)
+			nodes += perft(plies[i], player.getOpponent(), depth - 1);
+		return nodes;
+	}
+
+	private Set<String> toSet(ChessLocation[] locations) {
+		Set<String> result = new HashSet<String>();
+		for (int i = 0; locations[i] != null; i++)
+			result.add(locations[i].toString());
+		return result;
+	}
+}
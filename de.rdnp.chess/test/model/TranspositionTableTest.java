@@ -0,0 +1,119 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class TranspositionTableTest {
+
+	@Test
+	public void size() {
+		assertEquals(1024 * 1024, new TranspositionTable(1).getSize());
+		assertEquals(2 * 1024 * 1024, new TranspositionTable(3).getSize());
+	}
+
+	@Test
+	public void storeAndProbe() {
+		TranspositionTable table = new TranspositionTable(1);
+		int move = Move.create(12, 28, BitBoard.PAWN, Move.NO_CAPTURE, 0,
+				Move.DOUBLE_PAWN_PUSH);
+		table.store(0x123456789ABCDEFL, 7, TranspositionTable.LOWER_BOUND,
+				-AlphaBetaSearch.INFINITY, move);
+		long entry = table.probe(0x123456789ABCDEFL);
+		assertEquals(move, TranspositionTable.getMove(entry));
+		assertEquals(7, TranspositionTable.getDepth(entry));
+		assertEquals(TranspositionTable.LOWER_BOUND,
+				TranspositionTable.getBound(entry));
+		assertEquals(-AlphaBetaSearch.INFINITY,
+				TranspositionTable.getEvaluation(entry));
+		assertEquals(0, table.probe(0x123456789ABCDEEL));
+		table.clear();
+		assertEquals(0, table.probe(0x123456789ABCDEFL));
+	}
+
+	@Test
+	public void replacement() {
+		TranspositionTable table = new TranspositionTable(1);
+		// keys of the same bucket
+		long deepKey = 0x100000000L, shallowKey = 0x200000000L, 
+			otherKey = 0x300000000L;
+		table.store(deepKey, 5, TranspositionTable.EXACT, 10, Move.NONE);
+		table.store(shallowKey, 2, TranspositionTable.EXACT, 20, Move.NONE);
+		table.store(otherKey, 3, TranspositionTable.EXACT, 30, Move.NONE);
+		// the deep entry is kept, the always-replace entry is replaced
+		assertEquals(5, TranspositionTable.getDepth(table.probe(deepKey)));
+		assertEquals(0, table.probe(shallowKey));
+		assertEquals(30, TranspositionTable.getEvaluation(
+				table.probe(otherKey)));
+		// entries of earlier searches are replaced regardless of their depth
+		table.newSearch();
+		table.store(shallowKey, 2, TranspositionTable.EXACT, 20, Move.NONE);
+		assertEquals(0, table.probe(deepKey));
+		assertEquals(20, TranspositionTable.getEvaluation(
+				table.probe(shallowKey)));
+	}
+
+	@Test
+	public void anonymousMemory() {
+		TranspositionTable table = new MappedTranspositionTable(3);
+		assertEquals(2 * 1024 * 1024, table.getSize());
+		table.store(0x123456789ABCDEFL, 7, TranspositionTable.EXACT, -35,
+				Move.NONE);
+		assertEquals(-35, TranspositionTable.getEvaluation(
+				table.probe(0x123456789ABCDEFL)));
+		assertEquals(0, table.probe(0x123456789ABCDEEL));
+		table.clear();
+		assertEquals(0, table.probe(0x123456789ABCDEFL));
+	}
+
+	/**
+	 * Tests, if the entries of a table in a file are found by another table
+	 * that maps the file, even if it has another size.
+	 * */
+	@Test
+	public void mappedFile() throws IOException {
+		File file = File.createTempFile("mice", ".tt");
+		try {
+			MappedTranspositionTable table 
+				= new MappedTranspositionTable(1, file);
+			table.store(0x123456789ABCDEFL, 7, TranspositionTable.EXACT, 42,
+					Move.NONE);
+			table.flush();
+			assertEquals(1024 * 1024, file.length());
+			table = new MappedTranspositionTable(1, file);
+			assertEquals(42, TranspositionTable.getEvaluation(
+					table.probe(0x123456789ABCDEFL)));
+			// the key selects another bucket of the larger table
+			table = new MappedTranspositionTable(2, file);
+			assertEquals(2 * 1024 * 1024, file.length());
+			assertEquals(0, table.probe(0x123456789ABCDEFL));
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests, if a smaller table does not shorten the file of a larger table,
+	 * whose entries stay accessible.
+	 * */
+	@Test
+	public void mappedFileNotShortened() throws IOException {
+		File file = File.createTempFile("mice", ".tt");
+		try {
+			MappedTranspositionTable table
+				= new MappedTranspositionTable(2, file);
+			// the key selects a bucket in the second half of the table
+			table.store(0x123456789ABCDEFL, 7, TranspositionTable.EXACT, 42,
+					Move.NONE);
+			new MappedTranspositionTable(1, file);
+			assertEquals(2 * 1024 * 1024, file.length());
+			assertEquals(42, TranspositionTable.getEvaluation(
+					table.probe(0x123456789ABCDEFL)));
+		} finally {
+			file.delete();
+		}
+	}
+}
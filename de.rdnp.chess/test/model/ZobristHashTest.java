@@ -0,0 +1,64 @@
+package model;
+
+import static org.junit.Assert.*;
+
+import game.Game;
+import game.Player;
+
+import org.junit.Test;
+
+public class ZobristHashTest {
+
+	/**
+	 * Tests, if the incrementally updated hash of each position that can be
+	 * reached within three plies equals the hash computed from scratch.
+	 * */
+	@Test
+	public void incrementalHash() {
+		Position position = TestPositions.createPosition(
+				TestPositionConstants.TEST_POSITION_9);
+		new Game().setPosition(position);
+		assertIncrementalHash(position, Player.WHITE, 3);
+		position = new Position();
+		new Game().setPosition(position);
+		assertIncrementalHash(position, Player.WHITE, 3);
+	}
+
+	@Test
+	public void positionState() {
+		Position position = new Position();
+		long hash = position.getHash(Player.WHITE);
+		assertTrue(hash != position.getHash(Player.BLACK));
+		position.setEnPassantLine(4);
+		assertTrue(hash != position.getHash(Player.WHITE));
+		position.setEnPassantLine(-1);
+		assertEquals(hash, position.getHash(Player.WHITE));
+		position.setCastlingHistory(Position.WHITE_CASTLE_KING_SIDE);
+		assertTrue(hash != position.getHash(Player.WHITE));
+		assertFalse(position.equals(new Position()));
+		position.setCastlingHistory(0x0F);
+		assertEquals(hash, position.getHash(Player.WHITE));
+		assertEquals(new Position(), position);
+	}
+
+	private void assertIncrementalHash(Position position, Player player,
+			int depth)
+	{
+		Position copy = new Position(figuresOf(position),
+				position.getCastlingHistory(), position.getEnPassantLine());
+		assertEquals(copy.getHash(player), position.getHash(player));
+		assertEquals(copy.hashCode(), position.hashCode());
+		if (depth == 0)
+			return;
+		Position[] plies = player.computePlies(position);
+		for (int i = 0; plies[i] != null; i++)
+			assertIncrementalHash(plies[i], player.getOpponent(), depth - 1);
+	}
+
+	private Figure[] figuresOf(Position position) {
+		Figure[] figures = new Figure[64];
+		for (int i = 0; i < 64; i++)
+			figures[i] = position.getFigureAt(i);
+		return figures;
+	}
+}